@@ -0,0 +1,79 @@
+package edu.eci.arsw.blueprints.benchmarks;
+
+import edu.eci.arsw.blueprints.filters.BlueprintsFilter;
+import edu.eci.arsw.blueprints.filters.BlueprintsFilterRegistry;
+import edu.eci.arsw.blueprints.filters.DouglasPeuckerFilter;
+import edu.eci.arsw.blueprints.filters.IdentityFilter;
+import edu.eci.arsw.blueprints.filters.RedundancyFilter;
+import edu.eci.arsw.blueprints.filters.UndersamplingFilter;
+import edu.eci.arsw.blueprints.model.Blueprint;
+import edu.eci.arsw.blueprints.model.PointBuffer;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.Map;
+import java.util.SplittableRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Costo de aplicar cada filtro (o cadena de filtros) a un blueprint de {@code points} puntos.
+ * Uno de cada cuatro puntos repite al anterior para que {@link RedundancyFilter} tenga trabajo real.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class FilterBenchmark {
+
+    @Param({"10", "100", "1000", "10000", "100000", "1000000"})
+    public int points;
+
+    /** Especificación de {@link BlueprintsFilterRegistry}; la última es una cadena fusionada. */
+    @Param({"identity", "redundancy", "undersampling", "redundancy,undersampling:3", "simplify", "simplify:4"})
+    public String filter;
+
+    static final BlueprintsFilterRegistry REGISTRY = new BlueprintsFilterRegistry(Map.of(
+            "identity", new IdentityFilter(),
+            "redundancy", new RedundancyFilter(),
+            "undersampling", new UndersamplingFilter(),
+            "simplify", new DouglasPeuckerFilter()), "identity");
+
+    private BlueprintsFilter impl;
+    private Blueprint blueprint;
+
+    @Setup
+    public void setUp() {
+        impl = REGISTRY.pipeline(filter);
+        blueprint = new Blueprint("bench", "trace", trace(points, 42));
+    }
+
+    /** Tamaño de la salida, publicado junto a la latencia para comparar cuánto reduce cada filtro. */
+    @State(Scope.Thread)
+    @AuxCounters(AuxCounters.Type.EVENTS)
+    public static class Output {
+        public long outputPoints;
+    }
+
+    @Benchmark
+    public Blueprint apply(Output output) {
+        Blueprint result = impl.apply(blueprint);
+        output.outputPoints = result.pointBuffer().size();
+        return result;
+    }
+
+    /** Recorrido aleatorio reproducible, con un 25 % de puntos repetidos consecutivos. */
+    static PointBuffer trace(int points, long seed) {
+        SplittableRandom random = new SplittableRandom(seed);
+        PointBuffer buf = new PointBuffer(points);
+        int x = 0, y = 0;
+        for (int i = 0; i < points; i++) {
+            if (random.nextInt(4) != 0) {
+                x += random.nextInt(-5, 6);
+                y += random.nextInt(-5, 6);
+            }
+            buf.add(x, y);
+        }
+        return buf;
+    }
+}
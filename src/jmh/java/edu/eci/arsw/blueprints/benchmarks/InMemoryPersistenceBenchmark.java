@@ -0,0 +1,89 @@
+package edu.eci.arsw.blueprints.benchmarks;
+
+import edu.eci.arsw.blueprints.model.Blueprint;
+import edu.eci.arsw.blueprints.persistence.BlueprintNotFoundException;
+import edu.eci.arsw.blueprints.persistence.BlueprintPersistenceException;
+import edu.eci.arsw.blueprints.persistence.old.InMemoryBlueprintPersistence;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.List;
+import java.util.Set;
+import java.util.SplittableRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Lecturas y escrituras de {@link InMemoryBlueprintPersistence} con varios hilos sobre el mismo almacén.
+ * El grupo {@code mixed} enfrenta tres lectores a un escritor que guarda blueprints nuevos.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class InMemoryPersistenceBenchmark {
+
+    private static final int AUTHORS = 1_000;
+    private static final int BLUEPRINTS_PER_AUTHOR = 10;
+
+    private InMemoryBlueprintPersistence persistence;
+    private final AtomicLong saved = new AtomicLong();
+
+    // Recreated every iteration so saved blueprints do not pile up across the run
+    @Setup(Level.Iteration)
+    public void setUp() throws BlueprintPersistenceException {
+        persistence = new InMemoryBlueprintPersistence();
+        for (int a = 0; a < AUTHORS; a++) {
+            for (int n = 0; n < BLUEPRINTS_PER_AUTHOR; n++) {
+                persistence.saveBlueprint(new Blueprint("author" + a, "bp" + n,
+                        FilterBenchmark.trace(16, a * 31L + n).asList()));
+            }
+        }
+    }
+
+    @State(Scope.Thread)
+    public static class Keys {
+        private final SplittableRandom random = new SplittableRandom();
+        String author;
+        String name;
+
+        @Setup(Level.Invocation)
+        public void next() {
+            author = "author" + random.nextInt(AUTHORS);
+            name = "bp" + random.nextInt(BLUEPRINTS_PER_AUTHOR);
+        }
+    }
+
+    @Benchmark
+    @Threads(4)
+    public Blueprint get(Keys keys) throws BlueprintNotFoundException {
+        return persistence.getBlueprint(keys.author, keys.name);
+    }
+
+    @Benchmark
+    @Threads(4)
+    public Set<Blueprint> byAuthor(Keys keys) throws BlueprintNotFoundException {
+        return persistence.getBlueprintsByAuthor(keys.author);
+    }
+
+    @Benchmark
+    @Threads(4)
+    public void save(Keys keys) throws BlueprintPersistenceException {
+        persistence.saveBlueprint(new Blueprint(keys.author, "new" + saved.incrementAndGet(), List.of()));
+    }
+
+    @Benchmark
+    @Group("mixed")
+    @GroupThreads(3)
+    public Blueprint mixedGet(Keys keys) throws BlueprintNotFoundException {
+        return persistence.getBlueprint(keys.author, keys.name);
+    }
+
+    @Benchmark
+    @Group("mixed")
+    @GroupThreads(1)
+    public void mixedSave(Keys keys) throws BlueprintPersistenceException {
+        persistence.saveBlueprint(new Blueprint(keys.author, "new" + saved.incrementAndGet(), List.of()));
+    }
+}
@@ -0,0 +1,85 @@
+package edu.eci.arsw.blueprints.benchmarks;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.fasterxml.jackson.databind.introspect.Annotated;
+import com.fasterxml.jackson.databind.introspect.JacksonAnnotationIntrospector;
+import edu.eci.arsw.blueprints.controllers.BlueprintsAPIController.ApiResponseFormated;
+import edu.eci.arsw.blueprints.model.Blueprint;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.HashSet;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Serialización Jackson de la respuesta de {@code GET /api/v1/blueprints}: un
+ * {@code ApiResponseFormated<Set<Blueprint>>} con {@code blueprints} blueprints de {@code points} puntos.
+ * {@code serializer=bean} ignora los serializadores de {@code BlueprintJson} (la serialización por
+ * introspección de antes) y {@code streaming} los usa; {@code serializeGzip} suma lo que cuesta comprimir
+ * la respuesta, como hace el servidor por encima de {@code server.compression.min-response-size}.
+ * Los bytes de cada respuesta, sin comprimir y con gzip, se imprimen al preparar cada combinación.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class JsonSerializationBenchmark {
+
+    @Param({"10", "1000"})
+    public int blueprints;
+
+    @Param({"10", "1000"})
+    public int points;
+
+    @Param({"bean", "streaming"})
+    public String serializer;
+
+    private ObjectWriter writer;
+    private ApiResponseFormated<Set<Blueprint>> response;
+
+    @Setup
+    public void setUp() throws IOException {
+        // Same defaults as the ObjectMapper Spring Boot builds for the controllers
+        ObjectMapper mapper = Jackson2ObjectMapperBuilder.json().build();
+        if (serializer.equals("bean")) mapper.setAnnotationIntrospector(new BeanIntrospector());
+        writer = mapper.writerFor(ApiResponseFormated.class);
+        Set<Blueprint> data = new HashSet<>();
+        for (int i = 0; i < blueprints; i++) {
+            data.add(new Blueprint("author" + i % 10, "bp" + i, FilterBenchmark.trace(points, i)));
+        }
+        response = new ApiResponseFormated<>(200, "execute ok", data);
+        System.out.printf("%n%s: %d bytes, %d bytes gzip%n", serializer, serialize().length, serializeGzip().length);
+    }
+
+    @Benchmark
+    public byte[] serialize() throws IOException {
+        return writer.writeValueAsBytes(response);
+    }
+
+    @Benchmark
+    public byte[] serializeGzip() {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        try (GZIPOutputStream gzip = new GZIPOutputStream(bytes)) {
+            writer.writeValue(gzip, response);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        return bytes.toByteArray();
+    }
+
+    /** Deja de ver {@code @JsonSerialize(using = ...)}, así el modelo se serializa por sus getters. */
+    private static final class BeanIntrospector extends JacksonAnnotationIntrospector {
+        @Override
+        public Object findSerializer(Annotated a) {
+            return null;
+        }
+    }
+}
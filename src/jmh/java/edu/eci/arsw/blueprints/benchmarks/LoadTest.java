@@ -0,0 +1,194 @@
+package edu.eci.arsw.blueprints.benchmarks;
+
+import com.zaxxer.hikari.HikariDataSource;
+import edu.eci.arsw.blueprints.BlueprintsApplication;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.boot.web.context.WebServerApplicationContext;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.jdbc.datasource.DriverManagerDataSource;
+
+import javax.sql.DataSource;
+import java.io.IOException;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Proxy;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.sql.Connection;
+import java.sql.Statement;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.SplittableRandom;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Prueba de carga que compara el pool de hilos de plataforma de Tomcat con el perfil {@code virtual}.
+ * Levanta la aplicación sobre H2 una vez por modo y tamaño de pool de Hikari. Cada sentencia JDBC
+ * espera {@code load.db-latency-ms} para simular la ida y vuelta a un Postgres en red. Luego
+ * {@code load.clients} clientes concurrentes mezclan lecturas por autor (80 %) y anexos de puntos
+ * (20 %) durante {@code load.seconds} segundos.
+ * Imprime rendimiento y latencias p50/p99 y escribe {@code target/load-result.json}.
+ *
+ * <pre>mvn -P benchmarks test-compile exec:exec@load-test</pre>
+ */
+public final class LoadTest {
+
+    private static final int AUTHORS = 50;
+    private static final int BLUEPRINTS_PER_AUTHOR = 4;
+
+    private LoadTest() {}
+
+    public static void main(String[] args) throws Exception {
+        int clients = Integer.getInteger("load.clients", 200);
+        int seconds = Integer.getInteger("load.seconds", 10);
+        int warmupSeconds = Integer.getInteger("load.warmup-seconds", 3);
+        long dbLatencyMs = Long.getLong("load.db-latency-ms", 2);
+        String[] poolSizes = System.getProperty("load.pool-sizes", "10,50").split(",");
+
+        List<String> results = new ArrayList<>();
+        for (String mode : List.of("platform", "virtual")) {
+            for (String poolSize : poolSizes) {
+                Result r = run(mode, Integer.parseInt(poolSize.trim()), clients, warmupSeconds, seconds, dbLatencyMs);
+                System.out.printf("%-8s pool=%-4s clients=%d  %9.1f req/s  p50=%7.2f ms  p99=%8.2f ms  errors=%d%n",
+                        mode, poolSize.trim(), clients, r.throughput(), r.p50Ms(), r.p99Ms(), r.errors());
+                results.add(r.toJson(mode, poolSize.trim(), clients, dbLatencyMs));
+            }
+        }
+        Path out = Path.of("target", "load-result.json");
+        Files.createDirectories(out.getParent());
+        Files.writeString(out, "[\n  " + String.join(",\n  ", results) + "\n]\n");
+        System.out.println("Load test result is saved to " + out.toAbsolutePath());
+    }
+
+    private static Result run(String mode, int poolSize, int clients, int warmupSeconds, int seconds,
+                              long dbLatencyMs) throws Exception {
+        SpringApplicationBuilder builder = new SpringApplicationBuilder(BlueprintsApplication.class)
+                .profiles(mode.equals("virtual") ? new String[]{"h2", "virtual"} : new String[]{"h2"})
+                .properties(
+                        "server.port=0",
+                        "spring.datasource.url=jdbc:h2:mem:load-" + mode + "-" + poolSize
+                                + ";MODE=PostgreSQL;DATABASE_TO_LOWER=TRUE;DB_CLOSE_DELAY=-1;LOCK_TIMEOUT=10000",
+                        "spring.datasource.hikari.maximum-pool-size=" + poolSize,
+                        "spring.jpa.properties.hibernate.generate_statistics=false",
+                        "spring.jpa.show-sql=false",
+                        "logging.level.root=WARN")
+                .initializers(ctx -> ctx.getBeanFactory().addBeanPostProcessor(new SlowDatabase(dbLatencyMs)));
+        try (ConfigurableApplicationContext ctx = builder.run()) {
+            int port = ((WebServerApplicationContext) ctx).getWebServer().getPort();
+            String base = "http://localhost:" + port + "/api/v1/blueprints";
+            HttpClient http = HttpClient.newBuilder()
+                    .executor(Executors.newVirtualThreadPerTaskExecutor())
+                    .connectTimeout(Duration.ofSeconds(5))
+                    .build();
+            seed(http, base);
+            drive(http, base, clients, warmupSeconds);
+            return drive(http, base, clients, seconds);
+        }
+    }
+
+    private static void seed(HttpClient http, String base) throws IOException, InterruptedException {
+        StringBuilder points = new StringBuilder();
+        for (int i = 0; i < 20; i++) points.append(i == 0 ? "" : ",").append("{\"x\":").append(i).append(",\"y\":").append(i % 7).append('}');
+        for (int a = 0; a < AUTHORS; a++) {
+            for (int b = 0; b < BLUEPRINTS_PER_AUTHOR; b++) {
+                String body = "{\"author\":\"author" + a + "\",\"name\":\"bp" + b + "\",\"points\":[" + points + "]}";
+                http.send(HttpRequest.newBuilder(URI.create(base))
+                        .header("Content-Type", "application/json")
+                        .POST(HttpRequest.BodyPublishers.ofString(body)).build(), HttpResponse.BodyHandlers.discarding());
+            }
+        }
+    }
+
+    private static Result drive(HttpClient http, String base, int clients, int seconds) throws Exception {
+        long deadline = System.nanoTime() + Duration.ofSeconds(seconds).toNanos();
+        AtomicLong errors = new AtomicLong();
+        List<Future<long[]>> futures = new ArrayList<>();
+        try (ExecutorService pool = Executors.newVirtualThreadPerTaskExecutor()) {
+            for (int c = 0; c < clients; c++) {
+                long seed = c;
+                futures.add(pool.submit(() -> {
+                    SplittableRandom random = new SplittableRandom(seed);
+                    long[] latencies = new long[1024];
+                    int count = 0;
+                    while (System.nanoTime() < deadline) {
+                        String author = "author" + random.nextInt(AUTHORS);
+                        HttpRequest request = random.nextInt(5) == 0
+                                ? HttpRequest.newBuilder(URI.create(base + "/" + author + "/bp" + random.nextInt(BLUEPRINTS_PER_AUTHOR) + "/points"))
+                                        .header("Content-Type", "application/json")
+                                        .PUT(HttpRequest.BodyPublishers.ofString("{\"x\":" + random.nextInt(100) + ",\"y\":1}")).build()
+                                : HttpRequest.newBuilder(URI.create(base + "/" + author)).GET().build();
+                        long start = System.nanoTime();
+                        try {
+                            int status = http.send(request, HttpResponse.BodyHandlers.discarding()).statusCode();
+                            if (status >= 300) errors.incrementAndGet();
+                        } catch (IOException e) {
+                            errors.incrementAndGet();
+                        }
+                        if (count == latencies.length) latencies = Arrays.copyOf(latencies, count * 2);
+                        latencies[count++] = System.nanoTime() - start;
+                    }
+                    return Arrays.copyOf(latencies, count);
+                }));
+            }
+        }
+        List<long[]> perClient = new ArrayList<>();
+        for (Future<long[]> f : futures) perClient.add(f.get());
+        long[] all = perClient.stream().flatMapToLong(Arrays::stream).sorted().toArray();
+        return new Result(all.length / (double) seconds, percentile(all, 0.50), percentile(all, 0.99), errors.get());
+    }
+
+    private static double percentile(long[] sorted, double q) {
+        if (sorted.length == 0) return Double.NaN;
+        return sorted[Math.min(sorted.length - 1, (int) Math.ceil(q * sorted.length) - 1)] / 1_000_000.0;
+    }
+
+    private record Result(double throughput, double p50Ms, double p99Ms, long errors) {
+        String toJson(String mode, String poolSize, int clients, long dbLatencyMs) {
+            return ("{\"mode\":\"%s\",\"hikariPoolSize\":%s,\"clients\":%d,\"dbLatencyMs\":%d,"
+                    + "\"throughput\":%.1f,\"p50Ms\":%.3f,\"p99Ms\":%.3f,\"errors\":%d}")
+                    .formatted(mode, poolSize, clients, dbLatencyMs, throughput, p50Ms, p99Ms, errors);
+        }
+    }
+
+    /**
+     * Pone debajo del pool de Hikari un {@link DataSource} sin pool cuyas sentencias tardan
+     * {@code latencyMs} más, como si la base estuviera al otro lado de la red.
+     */
+    private record SlowDatabase(long latencyMs) implements BeanPostProcessor {
+        @Override
+        public Object postProcessBeforeInitialization(Object bean, String beanName) {
+            if (bean instanceof HikariDataSource hikari && latencyMs > 0) {
+                DataSource direct = new DriverManagerDataSource(hikari.getJdbcUrl(), hikari.getUsername(), hikari.getPassword());
+                hikari.setDataSource((DataSource) proxy(DataSource.class, direct));
+            }
+            return bean;
+        }
+
+        private Object proxy(Class<?> type, Object target) {
+            return Proxy.newProxyInstance(type.getClassLoader(), new Class<?>[]{type}, (p, method, args) -> {
+                try {
+                    if (Statement.class.isAssignableFrom(type) && method.getName().startsWith("execute")) {
+                        Thread.sleep(latencyMs);
+                    }
+                    Object result = method.invoke(target, args);
+                    Class<?> returned = method.getReturnType();
+                    if (returned == Connection.class || Statement.class.isAssignableFrom(returned) && returned.isInterface()) {
+                        return proxy(returned, result);
+                    }
+                    return result;
+                } catch (InvocationTargetException e) {
+                    throw e.getCause();
+                }
+            });
+        }
+    }
+}
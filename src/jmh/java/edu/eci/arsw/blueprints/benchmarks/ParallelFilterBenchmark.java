@@ -0,0 +1,46 @@
+package edu.eci.arsw.blueprints.benchmarks;
+
+import edu.eci.arsw.blueprints.filters.BlueprintsFilter;
+import edu.eci.arsw.blueprints.filters.ParallelFilter;
+import edu.eci.arsw.blueprints.filters.RangeFilter;
+import edu.eci.arsw.blueprints.filters.RedundancyFilter;
+import edu.eci.arsw.blueprints.filters.UndersamplingFilter;
+import edu.eci.arsw.blueprints.model.Blueprint;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.TimeUnit;
+
+/** Filtro secuencial frente a {@link ParallelFilter} sobre el pool común, en blueprints grandes. */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ParallelFilterBenchmark {
+
+    @Param({"100000", "1000000"})
+    public int points;
+
+    @Param({"redundancy", "undersampling"})
+    public String filter;
+
+    @Param({"sequential", "parallel"})
+    public String mode;
+
+    private BlueprintsFilter impl;
+    private Blueprint blueprint;
+
+    @Setup
+    public void setUp() {
+        RangeFilter range = filter.equals("redundancy") ? new RedundancyFilter() : new UndersamplingFilter();
+        impl = mode.equals("parallel") ? new ParallelFilter(range, 1, ForkJoinPool.commonPool()) : range;
+        blueprint = new Blueprint("bench", "trace", FilterBenchmark.trace(points, 42));
+    }
+
+    @Benchmark
+    public Blueprint apply() {
+        return impl.apply(blueprint);
+    }
+}
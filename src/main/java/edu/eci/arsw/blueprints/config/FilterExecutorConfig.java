@@ -0,0 +1,35 @@
+package edu.eci.arsw.blueprints.config;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+@Configuration
+public class FilterExecutorConfig {
+
+    /**
+     * Pool acotado que filtra los blueprints de las respuestas de listas. Con la cola llena la tarea la
+     * ejecuta el hilo de la petición, lo que frena a quien envía más trabajo del que el pool absorbe.
+     */
+    @Bean(destroyMethod = "shutdown")
+    public ExecutorService blueprintFilterExecutor(
+            @Value("${blueprints.filters.list.threads:0}") int threads,
+            @Value("${blueprints.filters.list.queue-capacity:256}") int queueCapacity) {
+        int size = threads > 0 ? threads : Runtime.getRuntime().availableProcessors();
+        AtomicInteger count = new AtomicInteger();
+        return new ThreadPoolExecutor(size, size, 60, TimeUnit.SECONDS,
+                new ArrayBlockingQueue<>(queueCapacity),
+                task -> {
+                    Thread t = new Thread(task, "blueprint-filter-" + count.incrementAndGet());
+                    t.setDaemon(true);
+                    return t;
+                },
+                new ThreadPoolExecutor.CallerRunsPolicy());
+    }
+}
@@ -0,0 +1,20 @@
+package edu.eci.arsw.blueprints.config;
+
+import org.springframework.boot.web.embedded.netty.NettyReactiveWebServerFactory;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Profile;
+
+@Configuration
+@Profile("reactive")
+public class ReactiveServerConfig {
+
+    /**
+     * Con Tomcat en el classpath (por la API MVC) Spring Boot serviría WebFlux sobre Tomcat;
+     * este bean lo sirve sobre el event loop de Netty.
+     */
+    @Bean
+    public NettyReactiveWebServerFactory reactiveWebServerFactory() {
+        return new NettyReactiveWebServerFactory();
+    }
+}
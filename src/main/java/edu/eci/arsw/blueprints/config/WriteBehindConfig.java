@@ -0,0 +1,37 @@
+package edu.eci.arsw.blueprints.config;
+
+import edu.eci.arsw.blueprints.persistence.BlueprintPersistence;
+import edu.eci.arsw.blueprints.persistence.WriteBehindBlueprintPersistence;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.config.BeanFactoryPostProcessor;
+import org.springframework.beans.factory.support.AbstractBeanDefinition;
+import org.springframework.beans.factory.support.AutowireCandidateQualifier;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Profile;
+
+@Configuration
+@Profile("write-behind & !reactive")
+public class WriteBehindConfig {
+
+    /**
+     * Con el perfil write-behind el buffer es la {@link BlueprintPersistence} primaria: el almacén que lo era
+     * (Postgres o Packed) deja de serlo y solo se inyecta con el calificador
+     * {@link WriteBehindBlueprintPersistence#DELEGATE}, como delegado del buffer.
+     */
+    @Bean
+    public static BeanFactoryPostProcessor writeBehindReplacesPrimaryPersistence() {
+        return factory -> {
+            for (String name : factory.getBeanNamesForType(BlueprintPersistence.class, true, false)) {
+                if (!(factory.getBeanDefinition(name) instanceof AbstractBeanDefinition definition)) continue;
+                if (!definition.isPrimary()
+                        || WriteBehindBlueprintPersistence.class.getName().equals(definition.getBeanClassName())) {
+                    continue;
+                }
+                definition.setPrimary(false);
+                definition.addQualifier(new AutowireCandidateQualifier(Qualifier.class,
+                        WriteBehindBlueprintPersistence.DELEGATE));
+            }
+        };
+    }
+}
@@ -0,0 +1,54 @@
+package edu.eci.arsw.blueprints.controllers;
+
+import edu.eci.arsw.blueprints.model.Blueprint;
+import org.springframework.http.HttpInputMessage;
+import org.springframework.http.HttpOutputMessage;
+import org.springframework.http.MediaType;
+import org.springframework.http.converter.AbstractHttpMessageConverter;
+import org.springframework.http.converter.HttpMessageNotReadableException;
+import org.springframework.stereotype.Component;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+
+/**
+ * Lee y escribe un {@link Blueprint} en el formato de {@link BinaryPoints}
+ * ({@value BlueprintsAPIController#APPLICATION_BLUEPRINT_VALUE}), directamente sobre el stream del cuerpo,
+ * sin pasar por un árbol de objetos intermedio.
+ */
+@Component
+public class BinaryBlueprintConverter extends AbstractHttpMessageConverter<Blueprint> {
+
+    public BinaryBlueprintConverter() {
+        super(MediaType.parseMediaType(BlueprintsAPIController.APPLICATION_BLUEPRINT_VALUE));
+    }
+
+    @Override
+    protected boolean supports(Class<?> clazz) {
+        return Blueprint.class == clazz;
+    }
+
+    @Override
+    protected Blueprint readInternal(Class<? extends Blueprint> clazz, HttpInputMessage inputMessage) throws IOException {
+        InputStream in = new BufferedInputStream(inputMessage.getBody());
+        try {
+            String author = BinaryPoints.readString(in);
+            String name = BinaryPoints.readString(in);
+            return new Blueprint(author, name, BinaryPoints.readPoints(in));
+        } catch (IOException e) {
+            throw new HttpMessageNotReadableException("Malformed binary blueprint: " + e.getMessage(), e, inputMessage);
+        }
+    }
+
+    @Override
+    protected void writeInternal(Blueprint bp, HttpOutputMessage outputMessage) throws IOException {
+        OutputStream out = new BufferedOutputStream(outputMessage.getBody());
+        BinaryPoints.writeString(bp.getAuthor(), out);
+        BinaryPoints.writeString(bp.getName(), out);
+        BinaryPoints.writePoints(bp.pointBuffer(), out);
+        out.flush();
+    }
+}
@@ -0,0 +1,94 @@
+package edu.eci.arsw.blueprints.controllers;
+
+import edu.eci.arsw.blueprints.model.PointBuffer;
+
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * Formato binario compacto de los puntos: el número de puntos y luego, por punto, la diferencia con el
+ * anterior en x y en y (el primero respecto a (0, 0)). Cada número va en zigzag y varint (LEB128), así los
+ * trazos de coordenadas cercanas ocupan uno o dos bytes por coordenada en vez de unos 15 en JSON.
+ * Las diferencias usan aritmética de {@code int} con desborde, que se deshace al sumar al leer.
+ *
+ * <p>Un blueprint son su autor y su nombre (longitud varint y UTF-8) seguidos de sus puntos.
+ */
+final class BinaryPoints {
+
+    /** Cota de la capacidad inicial al leer, para que un conteo falso no reserve memoria de golpe. */
+    private static final int MAX_INITIAL_CAPACITY = 1 << 16;
+    private static final int MAX_STRING_BYTES = 1 << 16;
+
+    private BinaryPoints() {}
+
+    static void writePoints(PointBuffer points, OutputStream out) throws IOException {
+        int n = points.size();
+        writeVarint(n, out);
+        int lastX = 0, lastY = 0;
+        for (int i = 0; i < n; i++) {
+            int x = points.x(i), y = points.y(i);
+            writeVarint(zigzag(x - lastX), out);
+            writeVarint(zigzag(y - lastY), out);
+            lastX = x;
+            lastY = y;
+        }
+    }
+
+    static PointBuffer readPoints(InputStream in) throws IOException {
+        int count = readVarint(in);
+        if (count < 0) throw new IOException("Negative point count");
+        PointBuffer.Builder points = PointBuffer.builder(Math.min(count, MAX_INITIAL_CAPACITY));
+        int x = 0, y = 0;
+        for (int i = 0; i < count; i++) {
+            x += unzigzag(readVarint(in));
+            y += unzigzag(readVarint(in));
+            points.add(x, y);
+        }
+        return points.build();
+    }
+
+    static void writeString(String value, OutputStream out) throws IOException {
+        byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+        writeVarint(bytes.length, out);
+        out.write(bytes);
+    }
+
+    static String readString(InputStream in) throws IOException {
+        int length = readVarint(in);
+        if (length < 0 || length > MAX_STRING_BYTES) throw new IOException("Invalid string length: " + length);
+        byte[] bytes = in.readNBytes(length);
+        if (bytes.length < length) throw new EOFException("Truncated string");
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    /** Escribe los 32 bits de {@code value} sin signo, 7 por byte, del menos significativo al más. */
+    static void writeVarint(int value, OutputStream out) throws IOException {
+        while ((value & ~0x7f) != 0) {
+            out.write((value & 0x7f) | 0x80);
+            value >>>= 7;
+        }
+        out.write(value);
+    }
+
+    static int readVarint(InputStream in) throws IOException {
+        int value = 0;
+        for (int shift = 0; shift < 35; shift += 7) {
+            int b = in.read();
+            if (b < 0) throw new EOFException("Truncated varint");
+            value |= (b & 0x7f) << shift;
+            if ((b & 0x80) == 0) return value;
+        }
+        throw new IOException("Varint longer than 5 bytes");
+    }
+
+    static int zigzag(int value) {
+        return (value << 1) ^ (value >> 31);
+    }
+
+    static int unzigzag(int value) {
+        return (value >>> 1) ^ -(value & 1);
+    }
+}
@@ -0,0 +1,47 @@
+package edu.eci.arsw.blueprints.controllers;
+
+import edu.eci.arsw.blueprints.model.PointBuffer;
+import org.springframework.http.HttpInputMessage;
+import org.springframework.http.HttpOutputMessage;
+import org.springframework.http.MediaType;
+import org.springframework.http.converter.AbstractHttpMessageConverter;
+import org.springframework.http.converter.HttpMessageNotReadableException;
+import org.springframework.stereotype.Component;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+
+/**
+ * Lee y escribe un lote de puntos ({@link PointBuffer}) en el formato de {@link BinaryPoints}
+ * ({@value BlueprintsAPIController#APPLICATION_POINTS_VALUE}).
+ */
+@Component
+public class BinaryPointsConverter extends AbstractHttpMessageConverter<PointBuffer> {
+
+    public BinaryPointsConverter() {
+        super(MediaType.parseMediaType(BlueprintsAPIController.APPLICATION_POINTS_VALUE));
+    }
+
+    @Override
+    protected boolean supports(Class<?> clazz) {
+        return PointBuffer.class == clazz;
+    }
+
+    @Override
+    protected PointBuffer readInternal(Class<? extends PointBuffer> clazz, HttpInputMessage inputMessage) throws IOException {
+        try {
+            return BinaryPoints.readPoints(new BufferedInputStream(inputMessage.getBody()));
+        } catch (IOException e) {
+            throw new HttpMessageNotReadableException("Malformed binary points: " + e.getMessage(), e, inputMessage);
+        }
+    }
+
+    @Override
+    protected void writeInternal(PointBuffer points, HttpOutputMessage outputMessage) throws IOException {
+        OutputStream out = new BufferedOutputStream(outputMessage.getBody());
+        BinaryPoints.writePoints(points, out);
+        out.flush();
+    }
+}
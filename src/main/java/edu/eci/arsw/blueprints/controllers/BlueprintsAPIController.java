@@ -1,81 +1,333 @@
 package edu.eci.arsw.blueprints.controllers;
 
+import com.fasterxml.jackson.annotation.JsonInclude;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.MappingIterator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectReader;
+import com.fasterxml.jackson.databind.ObjectWriter;
 import edu.eci.arsw.blueprints.model.Blueprint;
+import edu.eci.arsw.blueprints.model.BlueprintBounds;
+import edu.eci.arsw.blueprints.model.BlueprintKey;
+import edu.eci.arsw.blueprints.model.BlueprintVersion;
+import edu.eci.arsw.blueprints.model.BoundingBox;
 import edu.eci.arsw.blueprints.model.Point;
+import edu.eci.arsw.blueprints.model.PointBuffer;
+import edu.eci.arsw.blueprints.model.PointsDelta;
 import edu.eci.arsw.blueprints.persistence.BlueprintNotFoundException;
 import edu.eci.arsw.blueprints.persistence.BlueprintPersistenceException;
+import edu.eci.arsw.blueprints.services.BlueprintEventBus;
+import edu.eci.arsw.blueprints.services.BlueprintPage;
 import edu.eci.arsw.blueprints.services.BlueprintsServices;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.responses.ApiResponse;
 import io.swagger.v3.oas.annotations.responses.ApiResponses;
 import jakarta.validation.Valid;
 import jakarta.validation.constraints.NotBlank;
+import jakarta.validation.constraints.NotNull;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.MessageSourceResolvable;
+import org.springframework.context.annotation.Profile;
+import org.springframework.dao.OptimisticLockingFailureException;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 import org.springframework.web.bind.MethodArgumentNotValidException;
+import org.springframework.web.method.annotation.HandlerMethodValidationException;
 import org.springframework.validation.FieldError;
+import org.springframework.web.context.request.WebRequest;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Base64;
 import java.util.List;
 import java.util.Set;
+import java.util.function.Function;
 import java.util.stream.Collectors;
 
 @RestController
+@Profile("!reactive")
 @RequestMapping("/api/v1/blueprints")
 public class BlueprintsAPIController {
 
+    public static final String APPLICATION_NDJSON_VALUE = "application/x-ndjson";
+    /** Un blueprint en el formato binario de {@link BinaryPoints}. */
+    public static final String APPLICATION_BLUEPRINT_VALUE = "application/x-blueprint";
+    /** Un lote de puntos en el formato binario de {@link BinaryPoints}. */
+    public static final String APPLICATION_POINTS_VALUE = "application/x-blueprint-points";
+    static final int MAX_PAGE_SIZE = 1000;
+    static final int POINT_STREAM_BATCH = 1000;
+    /** Sin If-Match: la escritura no depende de la versión. */
+    static final long ANY_VERSION = -1;
+
     private final BlueprintsServices services;
+    private final ObjectWriter blueprintWriter;
+    private final ObjectWriter responseWriter;
+    private final ObjectReader pointReader;
+    private final long eventsTimeoutMs;
 
-    public BlueprintsAPIController(BlueprintsServices services) {
+    public BlueprintsAPIController(BlueprintsServices services, ObjectMapper mapper,
+                                   @Value("${blueprints.events.timeout-ms:1800000}") long eventsTimeoutMs) {
         this.services = services;
+        this.eventsTimeoutMs = eventsTimeoutMs;
+        this.blueprintWriter = mapper.writerFor(Blueprint.class);
+        this.responseWriter = mapper.writerFor(ApiResponseFormated.class);
+        this.pointReader = mapper.readerFor(Point.class);
     }
 
-    @Operation(summary = "Get all blueprints", description = "Returns the complete list of blueprints stored in the system.")
+    @Operation(summary = "Get all blueprints", description = "Returns the complete list of blueprints stored in the system, each one passed through "
+            + "the configured filter or the chain named by filter. "
+            + "When limit or cursor is given, returns one page ordered by (author, name) plus the cursor of the next page.")
     @ApiResponses({
-            @ApiResponse(responseCode = "200", description = "Blueprints retrieved successfully")
+            @ApiResponse(responseCode = "200", description = "Blueprints retrieved successfully"),
+            @ApiResponse(responseCode = "400", description = "Invalid limit, cursor or filter")
     })
-    @GetMapping
-    public ResponseEntity<ApiResponseFormated<Set<Blueprint>>> getAll() {
-        Set<Blueprint> blueprints = services.getAllBlueprints();
-        return ResponseEntity.ok(new ApiResponseFormated<>(200, "execute ok", blueprints));
+    @GetMapping(produces = MediaType.APPLICATION_JSON_VALUE)
+    public ResponseEntity<ApiResponseFormated<?>> getAll(
+            @RequestParam(required = false) Integer limit,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(required = false) String filter) {
+        try {
+            return getAllFiltered(limit, cursor, filter);
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().body(new ApiResponseFormated<>(400, e.getMessage(), null));
+        }
     }
 
-    @Operation(summary = "Get blueprints by author", description = "Returns all blueprints belonging to the specified author.")
+    private ResponseEntity<ApiResponseFormated<?>> getAllFiltered(Integer limit, String cursor, String filter) {
+        if (limit == null && cursor == null) {
+            Set<Blueprint> blueprints = services.getAllBlueprints(filter);
+            return ResponseEntity.ok(new ApiResponseFormated<>(200, "execute ok", blueprints));
+        }
+        int size = limit == null ? MAX_PAGE_SIZE : limit;
+        if (size < 1) {
+            return ResponseEntity.badRequest().body(new ApiResponseFormated<>(400, "limit must be positive", null));
+        }
+        BlueprintKey after;
+        try {
+            after = cursor == null ? null : decodeCursor(cursor);
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().body(new ApiResponseFormated<>(400, "Invalid cursor", null));
+        }
+        BlueprintPage page = services.getBlueprintsPage(after, Math.min(size, MAX_PAGE_SIZE), filter);
+        String next = page.next() == null ? null : encodeCursor(page.next());
+        return ResponseEntity.ok(new ApiResponseFormated<>(200, "execute ok", page.blueprints(), next));
+    }
+
+    @Operation(summary = "Stream all blueprints", description = "Writes every blueprint, filtered like the JSON list, as one JSON object per line (NDJSON) while it is read from storage.")
+    @ApiResponses({
+            @ApiResponse(responseCode = "200", description = "Blueprints streamed successfully"),
+            @ApiResponse(responseCode = "400", description = "Unknown filter or invalid filter argument")
+    })
+    @GetMapping(produces = APPLICATION_NDJSON_VALUE)
+    public ResponseEntity<StreamingResponseBody> streamAll(@RequestParam(required = false) String filter) {
+        try {
+            services.validateFilter(filter);
+        } catch (IllegalArgumentException e) {
+            // Rejected before any line is written, so the error is still a regular JSON body
+            ApiResponseFormated<?> error = new ApiResponseFormated<>(400, e.getMessage(), null);
+            return ResponseEntity.badRequest().contentType(MediaType.APPLICATION_JSON)
+                    .body(out -> responseWriter.writeValue(out, error));
+        }
+        StreamingResponseBody body = out -> services.forEachBlueprint(filter, bp -> {
+            try {
+                out.write(blueprintWriter.writeValueAsBytes(bp));
+                out.write('\n');
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        });
+        return ResponseEntity.ok().contentType(MediaType.parseMediaType(APPLICATION_NDJSON_VALUE)).body(body);
+    }
+
+    @Operation(summary = "Search blueprints by area", description = "Returns the author, name and bounding box of every blueprint whose bounding box "
+            + "intersects bbox=minX,minY,maxX,maxY (edges included), ordered by author and name, without their points. "
+            + "Blueprints without points have no bounding box and are never returned.")
+    @ApiResponses({
+            @ApiResponse(responseCode = "200", description = "Matching blueprints retrieved successfully"),
+            @ApiResponse(responseCode = "400", description = "Malformed bbox")
+    })
+    @GetMapping("/search")
+    public ResponseEntity<ApiResponseFormated<?>> searchByBounds(@RequestParam String bbox) {
+        try {
+            List<BlueprintBounds> found = services.searchByBounds(BoundingBox.parse(bbox));
+            return ResponseEntity.ok(new ApiResponseFormated<>(200, "execute ok", found));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().body(new ApiResponseFormated<>(400, e.getMessage(), null));
+        }
+    }
+
+    @Operation(summary = "Get blueprints by author", description = "Returns all blueprints belonging to the specified author, "
+            + "each one passed through the configured filter or the chain named by filter.")
     @ApiResponses({
             @ApiResponse(responseCode = "200", description = "Blueprints retrieved successfully"),
+            @ApiResponse(responseCode = "400", description = "Unknown filter or invalid filter argument"),
             @ApiResponse(responseCode = "404", description = "No blueprints found for the given author")
     })
     @GetMapping("/{author}")
-    public ResponseEntity<ApiResponseFormated<?>> byAuthor(@PathVariable String author) {
+    public ResponseEntity<ApiResponseFormated<?>> byAuthor(@PathVariable String author,
+                                                           @RequestParam(required = false) String filter) {
         try {
-            Set<Blueprint> blueprints = services.getBlueprintsByAuthor(author);
+            Set<Blueprint> blueprints = services.getBlueprintsByAuthor(author, filter);
             return ResponseEntity.ok(new ApiResponseFormated<>(200, "execute ok", blueprints));
         } catch (BlueprintNotFoundException e) {
             return ResponseEntity.status(HttpStatus.NOT_FOUND).body(
                     new ApiResponseFormated<>(404, e.getMessage(), null)
             );
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().body(new ApiResponseFormated<>(400, e.getMessage(), null));
         }
     }
 
-    @Operation(summary = "Get a blueprint by author and name", description = "Returns a single blueprint identified by its author and name. The configured filter is applied before returning.")
+    @Operation(summary = "Get a blueprint by author and name", description = "Returns a single blueprint identified by its author and name. The configured filter is applied before returning, "
+            + "unless filter names a chain such as redundancy,undersampling:3. "
+            + "The response carries a weak ETag, so it can still be gzip-compressed, and Last-Modified; a matching If-None-Match or If-Modified-Since gets 304 without reading the points. "
+            + "lod=n returns level of detail n, one of every 2^n filtered points; maxPoints returns the finest level with at most that many points.")
     @ApiResponses({
             @ApiResponse(responseCode = "200", description = "Blueprint retrieved successfully"),
+            @ApiResponse(responseCode = "304", description = "Blueprint unchanged since the given ETag or date"),
+            @ApiResponse(responseCode = "400", description = "Unknown filter, invalid filter argument, lod out of range, maxPoints below 2, or both lod and maxPoints"),
             @ApiResponse(responseCode = "404", description = "Blueprint not found")
     })
     @GetMapping("/{author}/{bpname}")
-    public ResponseEntity<ApiResponseFormated<?>> byAuthorAndName(
+    public ResponseEntity<?> byAuthorAndName(
+            @PathVariable String author,
+            @PathVariable String bpname,
+            @RequestParam(required = false) String filter,
+            @RequestParam(required = false) Integer lod,
+            @RequestParam(required = false) Integer maxPoints,
+            WebRequest request) {
+        return conditionalGet(author, bpname, filter, lod, maxPoints, request, "",
+                bp -> new ApiResponseFormated<>(200, "execute ok", bp));
+    }
+
+    @Operation(summary = "Get a blueprint in the binary format", description = "Same as the JSON read, including filters, levels of detail and conditional requests, "
+            + "but the body is the bare blueprint in " + APPLICATION_BLUEPRINT_VALUE + ": author and name, then the point count and the "
+            + "zigzag varint deltas of the coordinates. Errors are still JSON.")
+    @ApiResponses({
+            @ApiResponse(responseCode = "200", description = "Blueprint retrieved successfully"),
+            @ApiResponse(responseCode = "304", description = "Blueprint unchanged since the given ETag or date"),
+            @ApiResponse(responseCode = "400", description = "Unknown filter, invalid filter argument, lod out of range, maxPoints below 2, or both lod and maxPoints"),
+            @ApiResponse(responseCode = "404", description = "Blueprint not found")
+    })
+    @GetMapping(value = "/{author}/{bpname}", produces = APPLICATION_BLUEPRINT_VALUE)
+    public ResponseEntity<?> byAuthorAndNameBinary(
             @PathVariable String author,
-            @PathVariable String bpname) {
+            @PathVariable String bpname,
+            @RequestParam(required = false) String filter,
+            @RequestParam(required = false) Integer lod,
+            @RequestParam(required = false) Integer maxPoints,
+            WebRequest request) {
+        // The binary body is another representation of the same version, so it needs its own ETag
+        return conditionalGet(author, bpname, filter, lod, maxPoints, request, ";" + APPLICATION_BLUEPRINT_VALUE, bp -> bp);
+    }
+
+    /**
+     * Lectura condicional de un blueprint: resuelve la cadena y el nivel de detalle, responde 304 si la copia
+     * del cliente sigue vigente y si no devuelve {@code body} del blueprint filtrado. Los errores van en JSON.
+     * @param representation se agrega a la cadena en la ETag para distinguir los formatos del cuerpo
+     */
+    private ResponseEntity<?> conditionalGet(String author, String bpname, String filter, Integer lod, Integer maxPoints,
+                                             WebRequest request, String representation, Function<Blueprint, ?> body) {
         try {
-            Blueprint bp = services.getBlueprint(author, bpname);
-            return ResponseEntity.ok(new ApiResponseFormated<>(200, "execute ok", bp));
+            if (lod != null && maxPoints != null) throw new IllegalArgumentException("lod and maxPoints cannot be combined");
+            // The version is read before the points, so the body sent is never older than its ETag
+            BlueprintVersion version = services.getBlueprintVersion(author, bpname);
+            if (maxPoints != null) {
+                // Total and version come from one read, so the level always matches the version in the tag;
+                // a revalidation answered with 304 never loads the points
+                PointsDelta head = services.getPointsSince(author, bpname, Integer.MAX_VALUE);
+                lod = BlueprintsServices.levelForBudget(head.total(), maxPoints);
+                if (head.version() != version.version()) version = new BlueprintVersion(head.version(), null);
+            }
+            // Each level is its own chain, so it gets its own ETag and its own cached variant
+            String chain = lod == null ? filter : services.levelOfDetail(filter, lod);
+            String spec = services.canonicalFilter(chain);
+            long lastModified = version.updatedAt() == null ? -1 : version.updatedAt().toEpochMilli();
+            // Sets ETag and Last-Modified, and the 304 status when the client's copy is current
+            if (request.checkNotModified(etag(version, spec + representation), lastModified)) return null;
+            Blueprint bp = services.getBlueprint(author, bpname, chain);
+            return ResponseEntity.ok().varyBy(HttpHeaders.ACCEPT).body(body.apply(bp));
         } catch (BlueprintNotFoundException e) {
-            return ResponseEntity.status(HttpStatus.NOT_FOUND).body(
-                    new ApiResponseFormated<>(404, e.getMessage(), null)
-            );
+            return ResponseEntity.status(HttpStatus.NOT_FOUND).contentType(MediaType.APPLICATION_JSON)
+                    .body(new ApiResponseFormated<>(404, e.getMessage(), null));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().contentType(MediaType.APPLICATION_JSON)
+                    .body(new ApiResponseFormated<>(400, e.getMessage(), null));
         }
     }
 
+    @Operation(summary = "Get the points appended since an index, or inside a box", description = "Returns the unfiltered points of the blueprint from index since to the end, "
+            + "with the total point count and the version they belong to. A client holding the first since points appends them "
+            + "and asks again with since = total. With bbox=minX,minY,maxX,maxY it returns instead the unfiltered points inside that box, edges included, in order.")
+    @ApiResponses({
+            @ApiResponse(responseCode = "200", description = "Points retrieved successfully"),
+            @ApiResponse(responseCode = "400", description = "Negative since, malformed bbox, or both given"),
+            @ApiResponse(responseCode = "404", description = "Blueprint not found")
+    })
+    @GetMapping("/{author}/{bpname}/points")
+    public ResponseEntity<ApiResponseFormated<?>> pointsSince(@PathVariable String author, @PathVariable String bpname,
+                                                              @RequestParam(required = false) Integer since,
+                                                              @RequestParam(required = false) String bbox) {
+        try {
+            if (bbox != null) {
+                if (since != null) throw new IllegalArgumentException("since and bbox cannot be combined");
+                List<Point> inside = services.getPointsInside(author, bpname, BoundingBox.parse(bbox));
+                return ResponseEntity.ok(new ApiResponseFormated<>(200, "execute ok", inside));
+            }
+            PointsDelta delta = services.getPointsSince(author, bpname, since == null ? 0 : since);
+            return ResponseEntity.ok(new ApiResponseFormated<>(200, "execute ok", delta));
+        } catch (BlueprintNotFoundException e) {
+            return ResponseEntity.status(HttpStatus.NOT_FOUND).body(new ApiResponseFormated<>(404, e.getMessage(), null));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().body(new ApiResponseFormated<>(400, e.getMessage(), null));
+        }
+    }
+
+    @Operation(summary = "Subscribe to point appends", description = "Server-Sent Events stream of the blueprint. The first points event carries the points from since "
+            + "(or from Last-Event-ID on reconnect); each later one carries the points appended since the previous event, merged while the client was busy, "
+            + "with the index they start at, the new total and the version. Every event id is the total delivered so far. "
+            + "A client that falls too far behind gets a resync event and the stream ends; reconnecting resumes from its last id. "
+            + "A blueprint that does not exist yet starts the stream when it is created.")
+    @ApiResponses({
+            @ApiResponse(responseCode = "200", description = "Event stream opened"),
+            @ApiResponse(responseCode = "400", description = "Negative or malformed since")
+    })
+    @GetMapping(value = "/{author}/{bpname}/events", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    public ResponseEntity<SseEmitter> events(@PathVariable String author, @PathVariable String bpname,
+                                             @RequestParam(required = false) Integer since,
+                                             @RequestHeader(value = "Last-Event-ID", required = false) String lastEventId) {
+        int from;
+        try {
+            from = since != null ? since : lastEventId != null ? Integer.parseInt(lastEventId.strip()) : 0;
+        } catch (NumberFormatException e) {
+            return ResponseEntity.badRequest().build();
+        }
+        if (from < 0) return ResponseEntity.badRequest().build();
+        SseEmitter emitter = new SseEmitter(eventsTimeoutMs);
+        BlueprintEventBus.Subscription subscription = services.subscribe(author, bpname, from, new BlueprintEventBus.Sink() {
+            @Override
+            public void send(String id, String event, Object data) throws IOException {
+                emitter.send(SseEmitter.event().id(id).name(event).data(data, MediaType.APPLICATION_JSON));
+            }
+
+            @Override
+            public void close() {
+                emitter.complete();
+            }
+        });
+        emitter.onCompletion(subscription::cancel);
+        emitter.onTimeout(subscription::cancel);
+        emitter.onError(e -> subscription.cancel());
+        return ResponseEntity.ok(emitter);
+    }
 
     @Operation(summary = "Create a new blueprint", description = "Persists a new blueprint with the provided author, name, and list of points.")
     @ApiResponses({
@@ -85,8 +337,26 @@ public class BlueprintsAPIController {
     })
     @PostMapping
     public ResponseEntity<ApiResponseFormated<?>> add(@Valid @RequestBody NewBlueprintRequest req) {
+        return create(new Blueprint(req.author(), req.name(), req.points()));
+    }
+
+    @Operation(summary = "Create a new blueprint from the binary format", description = "Same as the JSON creation, with the blueprint in "
+            + APPLICATION_BLUEPRINT_VALUE + ", the format returned by the binary read.")
+    @ApiResponses({
+            @ApiResponse(responseCode = "201", description = "Blueprint created successfully"),
+            @ApiResponse(responseCode = "400", description = "Malformed body, or blank author or name"),
+            @ApiResponse(responseCode = "403", description = "Blueprint already exists")
+    })
+    @PostMapping(consumes = APPLICATION_BLUEPRINT_VALUE)
+    public ResponseEntity<ApiResponseFormated<?>> addBinary(@RequestBody Blueprint bp) {
+        if (bp.getAuthor().isBlank() || bp.getName().isBlank()) {
+            return ResponseEntity.badRequest().body(new ApiResponseFormated<>(400, "Validation error: author and name must not be blank", null));
+        }
+        return create(bp);
+    }
+
+    private ResponseEntity<ApiResponseFormated<?>> create(Blueprint bp) {
         try {
-            Blueprint bp = new Blueprint(req.author(), req.name(), req.points());
             services.addNewBlueprint(bp);
             return ResponseEntity.status(HttpStatus.CREATED).body(new ApiResponseFormated<>(201, "Blueprint created successfully", null));
         } catch (BlueprintPersistenceException e) {
@@ -94,21 +364,131 @@ public class BlueprintsAPIController {
         }
     }
 
-    @Operation(summary = "Add a point to a blueprint", description = "Appends a new point (x, y) to an existing blueprint identified by author and name.")
+    @Operation(summary = "Add a point to a blueprint", description = "Appends a new point (x, y) to an existing blueprint identified by author and name. "
+            + "With If-Match, only while the blueprint is still at the version of that ETag.")
     @ApiResponses({
             @ApiResponse(responseCode = "202", description = "Point added successfully"),
-            @ApiResponse(responseCode = "404", description = "Blueprint not found")
+            @ApiResponse(responseCode = "404", description = "Blueprint not found"),
+            @ApiResponse(responseCode = "412", description = "The blueprint changed since the If-Match ETag")
     })
     @PutMapping("/{author}/{bpname}/points")
-    public ResponseEntity<ApiResponseFormated<?>> addPoint(@PathVariable String author, @PathVariable String bpname, @RequestBody Point p) {
+    public ResponseEntity<ApiResponseFormated<?>> addPoint(@PathVariable String author, @PathVariable String bpname, @RequestBody Point p,
+                                                           @RequestHeader(value = HttpHeaders.IF_MATCH, required = false) String ifMatch) {
         try {
-            services.addPoint(author, bpname, p.x(), p.y());
+            long expected = expectedVersion(ifMatch);
+            if (expected == ANY_VERSION) services.addPoint(author, bpname, p.x(), p.y());
+            else services.addPoints(author, bpname, List.of(p), expected);
             return ResponseEntity.status(HttpStatus.ACCEPTED).body(new ApiResponseFormated<>(202, "Point added successfully", null));
         } catch (BlueprintNotFoundException e) {
             return ResponseEntity.status(HttpStatus.NOT_FOUND).body( new ApiResponseFormated<>(404, e.getMessage(), null));
         }
     }
 
+    @Operation(summary = "Add a batch of points to a blueprint", description = "Appends a JSON array of points (x, y), in order, to an existing blueprint in a single batched write. "
+            + "With If-Match, only while the blueprint is still at the version of that ETag.")
+    @ApiResponses({
+            @ApiResponse(responseCode = "202", description = "Points added successfully"),
+            @ApiResponse(responseCode = "400", description = "A null point in the array"),
+            @ApiResponse(responseCode = "404", description = "Blueprint not found"),
+            @ApiResponse(responseCode = "412", description = "The blueprint changed since the If-Match ETag")
+    })
+    @PostMapping(value = "/{author}/{bpname}/points", consumes = MediaType.APPLICATION_JSON_VALUE)
+    public ResponseEntity<ApiResponseFormated<?>> addPoints(@PathVariable String author, @PathVariable String bpname,
+                                                            @Valid @RequestBody List<@NotNull Point> points,
+                                                            @RequestHeader(value = HttpHeaders.IF_MATCH, required = false) String ifMatch) {
+        return append(author, bpname, points, ifMatch);
+    }
+
+    @Operation(summary = "Add a batch of points in the binary format", description = "Same as the JSON batch, with the points in "
+            + APPLICATION_POINTS_VALUE + ": the point count and the zigzag varint deltas of the coordinates.")
+    @ApiResponses({
+            @ApiResponse(responseCode = "202", description = "Points added successfully"),
+            @ApiResponse(responseCode = "400", description = "Malformed body"),
+            @ApiResponse(responseCode = "404", description = "Blueprint not found"),
+            @ApiResponse(responseCode = "412", description = "The blueprint changed since the If-Match ETag")
+    })
+    @PostMapping(value = "/{author}/{bpname}/points", consumes = APPLICATION_POINTS_VALUE)
+    public ResponseEntity<ApiResponseFormated<?>> addPointsBinary(@PathVariable String author, @PathVariable String bpname,
+                                                                  @RequestBody PointBuffer points,
+                                                                  @RequestHeader(value = HttpHeaders.IF_MATCH, required = false) String ifMatch) {
+        return append(author, bpname, points.asList(), ifMatch);
+    }
+
+    private ResponseEntity<ApiResponseFormated<?>> append(String author, String bpname, List<Point> points, String ifMatch) {
+        try {
+            long expected = expectedVersion(ifMatch);
+            if (expected == ANY_VERSION) services.addPoints(author, bpname, points);
+            else services.addPoints(author, bpname, points, expected);
+            return ResponseEntity.status(HttpStatus.ACCEPTED).body(
+                    new ApiResponseFormated<>(202, points.size() + " points added successfully", null));
+        } catch (BlueprintNotFoundException e) {
+            return ResponseEntity.status(HttpStatus.NOT_FOUND).body(new ApiResponseFormated<>(404, e.getMessage(), null));
+        }
+    }
+
+    @Operation(summary = "Stream points into a blueprint", description = "Reads one point (x, y) per line (NDJSON) and appends them in batches of "
+            + POINT_STREAM_BATCH + " while the body is still arriving. Batches written before an error are kept. "
+            + "With If-Match, every batch expects the version left by the previous one, so any interleaved write stops the stream.")
+    @ApiResponses({
+            @ApiResponse(responseCode = "202", description = "Points added successfully"),
+            @ApiResponse(responseCode = "400", description = "Malformed or null point line"),
+            @ApiResponse(responseCode = "404", description = "Blueprint not found"),
+            @ApiResponse(responseCode = "412", description = "The blueprint changed since the If-Match ETag")
+    })
+    @PostMapping(value = "/{author}/{bpname}/points", consumes = APPLICATION_NDJSON_VALUE)
+    public ResponseEntity<ApiResponseFormated<?>> streamPoints(@PathVariable String author, @PathVariable String bpname,
+                                                               @RequestHeader(value = HttpHeaders.IF_MATCH, required = false) String ifMatch,
+                                                               InputStream body) throws IOException {
+        int total = 0;
+        long expected = expectedVersion(ifMatch);
+        List<Point> batch = new ArrayList<>(POINT_STREAM_BATCH);
+        try (MappingIterator<Point> lines = pointReader.readValues(body)) {
+            while (lines.hasNextValue()) {
+                Point point = lines.nextValue();
+                // A "null" line is valid JSON but names no point
+                if (point == null) return malformedPoint(total, "null is not a point");
+                batch.add(point);
+                if (batch.size() == POINT_STREAM_BATCH) {
+                    expected = appendBatch(author, bpname, batch, expected);
+                    total += batch.size();
+                    batch.clear();
+                }
+            }
+            appendBatch(author, bpname, batch, expected);
+            total += batch.size();
+        } catch (BlueprintNotFoundException e) {
+            return ResponseEntity.status(HttpStatus.NOT_FOUND).body(new ApiResponseFormated<>(404, e.getMessage(), null));
+        } catch (JsonProcessingException e) {
+            return malformedPoint(total, e.getOriginalMessage());
+        }
+        return ResponseEntity.status(HttpStatus.ACCEPTED).body(
+                new ApiResponseFormated<>(202, total + " points added successfully", null));
+    }
+
+    private static ResponseEntity<ApiResponseFormated<?>> malformedPoint(int stored, String reason) {
+        return ResponseEntity.badRequest().body(new ApiResponseFormated<>(400,
+                "Malformed point after " + stored + " stored points: " + reason, null));
+    }
+
+    /** Anexa el lote, condicionado a {@code expected} si no es {@link #ANY_VERSION}; devuelve la versión que deja. */
+    private long appendBatch(String author, String bpname, List<Point> batch, long expected)
+            throws BlueprintNotFoundException {
+        if (expected == ANY_VERSION) {
+            services.addPoints(author, bpname, batch);
+            return ANY_VERSION;
+        }
+        services.addPoints(author, bpname, batch, expected);
+        return batch.isEmpty() ? expected : expected + 1;
+    }
+
+    @Operation(summary = "Handle optimistic locking failures", description = "An If-Match that no longer names the current version of the blueprint gets a structured 412 response.")
+    @ApiResponse(responseCode = "412", description = "The blueprint changed since the If-Match ETag")
+    @ExceptionHandler(OptimisticLockingFailureException.class)
+    public ResponseEntity<ApiResponseFormated<?>> handleVersionConflict(OptimisticLockingFailureException e) {
+        return ResponseEntity.status(HttpStatus.PRECONDITION_FAILED)
+                .body(new ApiResponseFormated<>(412, e.getMessage(), null));
+    }
+
     @Operation(summary = "Handle validation errors", description = "Catches @Valid constraint violations and returns a structured 400 response.")
     @ApiResponse(responseCode = "400", description = "One or more fields failed validation")
     @ExceptionHandler(MethodArgumentNotValidException.class)
@@ -122,7 +502,64 @@ public class BlueprintsAPIController {
         return ResponseEntity.status(HttpStatus.BAD_REQUEST).body(new ApiResponseFormated<>(400, "Validation error: " + message, null));
     }
 
-    public record ApiResponseFormated<T>(int code, String message, T data) {}
+    @Operation(summary = "Handle parameter validation errors", description = "Catches constraint violations on request parameters, such as a null point in a batch, and returns a structured 400 response.")
+    @ApiResponse(responseCode = "400", description = "One or more parameters failed validation")
+    @ExceptionHandler(HandlerMethodValidationException.class)
+    public ResponseEntity<ApiResponseFormated<?>> handleParameterValidationErrors(HandlerMethodValidationException ex) {
+        String message = ex.getAllErrors().stream()
+                .map(MessageSourceResolvable::getDefaultMessage)
+                .collect(Collectors.joining(", "));
+        return ResponseEntity.status(HttpStatus.BAD_REQUEST).body(new ApiResponseFormated<>(400, "Validation error: " + message, null));
+    }
+
+    /**
+     * ETag de la respuesta: la versión del blueprint y un resumen de la cadena de filtros, porque cada cadena
+     * produce otro cuerpo con la misma versión. Es débil porque Tomcat no comprime respuestas con ETag fuerte:
+     * el cuerpo con y sin gzip es el mismo, pero no los bytes.
+     */
+    static String etag(BlueprintVersion version, String filterSpec) {
+        return "W/\"" + version.version() + "-" + Integer.toHexString(filterSpec.hashCode()) + "\"";
+    }
+
+    /**
+     * Versión nombrada por un If-Match con una ETag de {@link #etag}, sea cual sea su filtro,
+     * o {@link #ANY_VERSION} sin cabecera o con {@code *}. Esas ETags son débiles solo por la compresión y
+     * nombran una versión exacta, así que se aceptan con o sin {@code W/}: lo que se compara es la versión.
+     * @throws OptimisticLockingFailureException si la cabecera no nombra ninguna versión, porque no puede coincidir
+     */
+    static long expectedVersion(String ifMatch) {
+        if (ifMatch == null || ifMatch.isBlank() || ifMatch.strip().equals("*")) return ANY_VERSION;
+        String tag = ifMatch.strip();
+        if (tag.startsWith("W/")) tag = tag.substring(2);
+        int dash = tag.indexOf('-');
+        if (tag.length() > 2 && tag.startsWith("\"") && tag.endsWith("\"") && dash > 1) {
+            try {
+                return Long.parseLong(tag.substring(1, dash));
+            } catch (NumberFormatException ignored) {
+                // falls through to the 412 below
+            }
+        }
+        throw new OptimisticLockingFailureException("If-Match does not name a version of this blueprint: " + ifMatch);
+    }
+
+    static String encodeCursor(BlueprintKey key) {
+        byte[] raw = (key.author() + '\0' + key.name()).getBytes(StandardCharsets.UTF_8);
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(raw);
+    }
+
+    static BlueprintKey decodeCursor(String cursor) {
+        String raw = new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8);
+        int sep = raw.indexOf('\0');
+        if (sep < 0) throw new IllegalArgumentException("Malformed cursor");
+        return new BlueprintKey(raw.substring(0, sep), raw.substring(sep + 1));
+    }
+
+    public record ApiResponseFormated<T>(int code, String message, T data,
+                                         @JsonInclude(JsonInclude.Include.NON_NULL) String next) {
+        public ApiResponseFormated(int code, String message, T data) {
+            this(code, message, data, null);
+        }
+    }
 
     public record NewBlueprintRequest(
             @NotBlank String author,
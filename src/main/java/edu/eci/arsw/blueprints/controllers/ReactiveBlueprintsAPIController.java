@@ -0,0 +1,176 @@
+package edu.eci.arsw.blueprints.controllers;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import edu.eci.arsw.blueprints.controllers.BlueprintsAPIController.ApiResponseFormated;
+import edu.eci.arsw.blueprints.controllers.BlueprintsAPIController.NewBlueprintRequest;
+import edu.eci.arsw.blueprints.model.Blueprint;
+import edu.eci.arsw.blueprints.model.BlueprintKey;
+import edu.eci.arsw.blueprints.model.Point;
+import edu.eci.arsw.blueprints.persistence.BlueprintNotFoundException;
+import edu.eci.arsw.blueprints.persistence.BlueprintPersistenceException;
+import edu.eci.arsw.blueprints.services.ReactiveBlueprintsServices;
+import io.swagger.v3.oas.annotations.Operation;
+import jakarta.validation.Valid;
+import org.springframework.context.annotation.Profile;
+import org.springframework.core.NestedExceptionUtils;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.validation.FieldError;
+import org.springframework.web.bind.annotation.*;
+import org.springframework.web.bind.support.WebExchangeBindException;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.Collectors;
+
+import static edu.eci.arsw.blueprints.controllers.BlueprintsAPIController.APPLICATION_NDJSON_VALUE;
+import static edu.eci.arsw.blueprints.controllers.BlueprintsAPIController.MAX_PAGE_SIZE;
+import static edu.eci.arsw.blueprints.controllers.BlueprintsAPIController.POINT_STREAM_BATCH;
+
+/**
+ * Los endpoints de {@link BlueprintsAPIController} sobre WebFlux (perfil {@code reactive}), con el mismo
+ * contrato {@link ApiResponseFormated}, los mismos códigos y los mismos cursores.
+ * Los errores de la persistencia llegan como señales y los traducen los {@code @ExceptionHandler}.
+ */
+@RestController
+@Profile("reactive")
+@RequestMapping("/api/v1/blueprints")
+public class ReactiveBlueprintsAPIController {
+
+    private final ReactiveBlueprintsServices services;
+
+    public ReactiveBlueprintsAPIController(ReactiveBlueprintsServices services) {
+        this.services = services;
+    }
+
+    @Operation(summary = "Get all blueprints", description = "Returns every blueprint, filtered, or one page of them when limit or cursor is given.")
+    @GetMapping(produces = MediaType.APPLICATION_JSON_VALUE)
+    public Mono<ResponseEntity<ApiResponseFormated<?>>> getAll(
+            @RequestParam(required = false) Integer limit,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(required = false) String filter) {
+        if (limit == null && cursor == null) {
+            return services.getAllBlueprints(filter).collectList().map(ReactiveBlueprintsAPIController::ok);
+        }
+        int size = limit == null ? MAX_PAGE_SIZE : limit;
+        if (size < 1) return Mono.just(respond(HttpStatus.BAD_REQUEST, "limit must be positive"));
+        BlueprintKey after;
+        try {
+            after = cursor == null ? null : BlueprintsAPIController.decodeCursor(cursor);
+        } catch (IllegalArgumentException e) {
+            return Mono.just(respond(HttpStatus.BAD_REQUEST, "Invalid cursor"));
+        }
+        return services.getBlueprintsPage(after, Math.min(size, MAX_PAGE_SIZE), filter).map(page -> {
+            String next = page.next() == null ? null : BlueprintsAPIController.encodeCursor(page.next());
+            return ResponseEntity.ok(new ApiResponseFormated<>(200, "execute ok", page.blueprints(), next));
+        });
+    }
+
+    @Operation(summary = "Stream all blueprints", description = "Writes every blueprint, filtered like the JSON list, as one JSON object per line (NDJSON). "
+            + "Rows are read from storage only as fast as the client consumes them.")
+    @GetMapping(produces = APPLICATION_NDJSON_VALUE)
+    public Flux<Blueprint> streamAll(@RequestParam(required = false) String filter) {
+        return services.getAllBlueprints(filter);
+    }
+
+    @Operation(summary = "Get blueprints by author", description = "Returns all blueprints belonging to the specified author, filtered.")
+    @GetMapping("/{author}")
+    public Mono<ResponseEntity<ApiResponseFormated<?>>> byAuthor(@PathVariable String author,
+                                                                 @RequestParam(required = false) String filter) {
+        return services.getBlueprintsByAuthor(author, filter).collectList().map(ReactiveBlueprintsAPIController::ok);
+    }
+
+    @Operation(summary = "Get a blueprint by author and name", description = "Returns a single blueprint identified by its author and name, filtered.")
+    @GetMapping("/{author}/{bpname}")
+    public Mono<ResponseEntity<ApiResponseFormated<?>>> byAuthorAndName(
+            @PathVariable String author,
+            @PathVariable String bpname,
+            @RequestParam(required = false) String filter) {
+        return services.getBlueprint(author, bpname, filter).map(ReactiveBlueprintsAPIController::ok);
+    }
+
+    @Operation(summary = "Create a new blueprint", description = "Persists a new blueprint with the provided author, name, and list of points.")
+    @PostMapping
+    public Mono<ResponseEntity<ApiResponseFormated<?>>> add(@Valid @RequestBody NewBlueprintRequest req) {
+        Blueprint bp = new Blueprint(req.author(), req.name(), req.points());
+        return services.addNewBlueprint(bp)
+                .then(Mono.fromSupplier(() -> respond(HttpStatus.CREATED, "Blueprint created successfully")));
+    }
+
+    @Operation(summary = "Add a point to a blueprint", description = "Appends a new point (x, y) to an existing blueprint identified by author and name.")
+    @PutMapping("/{author}/{bpname}/points")
+    public Mono<ResponseEntity<ApiResponseFormated<?>>> addPoint(@PathVariable String author, @PathVariable String bpname,
+                                                                 @RequestBody Point p) {
+        return services.addPoint(author, bpname, p.x(), p.y())
+                .then(Mono.fromSupplier(() -> respond(HttpStatus.ACCEPTED, "Point added successfully")));
+    }
+
+    @Operation(summary = "Add a batch of points to a blueprint", description = "Appends a JSON array of points (x, y), in order, to an existing blueprint in a single batched write.")
+    @PostMapping(value = "/{author}/{bpname}/points", consumes = MediaType.APPLICATION_JSON_VALUE)
+    public Mono<ResponseEntity<ApiResponseFormated<?>>> addPoints(@PathVariable String author, @PathVariable String bpname,
+                                                                  @RequestBody List<Point> points) {
+        return services.addPoints(author, bpname, points)
+                .then(Mono.fromSupplier(() -> respond(HttpStatus.ACCEPTED, points.size() + " points added successfully")));
+    }
+
+    @Operation(summary = "Stream points into a blueprint", description = "Reads one point (x, y) per line (NDJSON) and appends them in batches of "
+            + POINT_STREAM_BATCH + "; the body is only read as fast as the batches are stored. Batches written before an error are kept.")
+    @PostMapping(value = "/{author}/{bpname}/points", consumes = APPLICATION_NDJSON_VALUE)
+    public Mono<ResponseEntity<ApiResponseFormated<?>>> streamPoints(@PathVariable String author, @PathVariable String bpname,
+                                                                     @RequestBody Flux<Point> points) {
+        AtomicInteger total = new AtomicInteger();
+        return points.buffer(POINT_STREAM_BATCH)
+                // An empty body still checks that the blueprint exists
+                .defaultIfEmpty(List.of())
+                .concatMap(batch -> services.addPoints(author, bpname, batch)
+                        .doOnSuccess(done -> total.addAndGet(batch.size())))
+                .then(Mono.fromSupplier(() -> respond(HttpStatus.ACCEPTED, total.get() + " points added successfully")))
+                // The decoder's error arrives wrapped in a ServerWebInputException
+                .onErrorResume(e -> NestedExceptionUtils.getMostSpecificCause(e) instanceof JsonProcessingException,
+                        e -> Mono.just(malformedPoint(e, total.get())));
+    }
+
+    @ExceptionHandler(BlueprintNotFoundException.class)
+    public ResponseEntity<ApiResponseFormated<?>> handleNotFound(BlueprintNotFoundException e) {
+        return respond(HttpStatus.NOT_FOUND, e.getMessage());
+    }
+
+    @ExceptionHandler(BlueprintPersistenceException.class)
+    public ResponseEntity<ApiResponseFormated<?>> handleAlreadyExists(BlueprintPersistenceException e) {
+        return respond(HttpStatus.FORBIDDEN, e.getMessage());
+    }
+
+    /** Filtros desconocidos o argumentos inválidos; también en el stream NDJSON, que aún no ha escrito nada. */
+    @ExceptionHandler(IllegalArgumentException.class)
+    public ResponseEntity<ApiResponseFormated<?>> handleBadArgument(IllegalArgumentException e) {
+        return respond(HttpStatus.BAD_REQUEST, e.getMessage());
+    }
+
+    @ExceptionHandler(WebExchangeBindException.class)
+    public ResponseEntity<ApiResponseFormated<?>> handleValidationErrors(WebExchangeBindException ex) {
+        String message = ex.getBindingResult()
+                .getFieldErrors()
+                .stream()
+                .map(FieldError::getDefaultMessage)
+                .collect(Collectors.joining(", "));
+        return respond(HttpStatus.BAD_REQUEST, "Validation error: " + message);
+    }
+
+    private static ResponseEntity<ApiResponseFormated<?>> malformedPoint(Throwable e, int stored) {
+        JsonProcessingException cause = (JsonProcessingException) NestedExceptionUtils.getMostSpecificCause(e);
+        return respond(HttpStatus.BAD_REQUEST,
+                "Malformed point after " + stored + " stored points: " + cause.getOriginalMessage());
+    }
+
+    private static ResponseEntity<ApiResponseFormated<?>> ok(Object data) {
+        return ResponseEntity.ok(new ApiResponseFormated<>(200, "execute ok", data));
+    }
+
+    private static ResponseEntity<ApiResponseFormated<?>> respond(HttpStatus status, String message) {
+        return ResponseEntity.status(status).contentType(MediaType.APPLICATION_JSON)
+                .body(new ApiResponseFormated<>(status.value(), message, null));
+    }
+}
@@ -1,7 +1,50 @@
 package edu.eci.arsw.blueprints.filters;
 
 import edu.eci.arsw.blueprints.model.Blueprint;
+import edu.eci.arsw.blueprints.model.PointBuffer;
+import edu.eci.arsw.blueprints.model.PointSink;
 
 public interface BlueprintsFilter {
     Blueprint apply(Blueprint bp);
+
+    /**
+     * Etapa de este filtro dentro de un {@link FilterPipeline}: recibe los puntos uno a uno y pasa a
+     * {@code downstream} los que conserva. Su {@code end()} entrega lo pendiente y luego llama a
+     * {@code downstream.end()}. Por defecto acumula los puntos y aplica {@link #apply} al final.
+     */
+    default PointSink stage(PointSink downstream) {
+        PointBuffer.Builder buffered = PointBuffer.builder(16);
+        return new PointSink() {
+            @Override
+            public void accept(int x, int y) { buffered.add(x, y); }
+
+            @Override
+            public void end() {
+                apply(new Blueprint(null, null, buffered.build())).pointBuffer().forEach(downstream);
+                downstream.end();
+            }
+
+            @Override
+            public boolean pending() { return !buffered.isEmpty() || downstream.pending(); }
+        };
+    }
+
+    /**
+     * Si la etapa de este filtro entrega cada punto en cuanto puede decidirlo, de modo que anexar puntos
+     * a la entrada solo anexa puntos a la salida. Permite mantener el resultado al día punto a punto
+     * en vez de recalcularlo.
+     */
+    default boolean incremental() { return false; }
+
+    /**
+     * Si {@code apply(bp)} puede bloquear el hilo que lo llama mientras espera a otros hilos (p. ej. el
+     * {@link ParallelFilter} por encima de su umbral); quien filtra en hilos que no admiten bloqueos
+     * debe pasar esos blueprints a otros.
+     */
+    default boolean blocking(Blueprint bp) { return false; }
+
+    /** Variante configurada con {@code argument}, p. ej. {@code undersampling:3}; por defecto no admite argumentos. */
+    default BlueprintsFilter withArgument(String argument) {
+        throw new IllegalArgumentException(getClass().getSimpleName() + " takes no argument");
+    }
 }
@@ -0,0 +1,74 @@
+package edu.eci.arsw.blueprints.filters;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.StringJoiner;
+import java.util.concurrent.ForkJoinPool;
+
+/**
+ * Todos los filtros registrados como beans, por nombre de bean ({@code identity}, {@code redundancy},
+ * {@code undersampling}, ...). Arma cadenas a partir de especificaciones como
+ * {@code redundancy,undersampling:3}; la cadena por defecto sale de {@code blueprints.filters.default},
+ * que fijan los perfiles {@code redundancy} y {@code undersampling}.
+ */
+@Component
+public class BlueprintsFilterRegistry {
+
+    private final Map<String, BlueprintsFilter> filters;
+    private final FilterPipeline defaultPipeline;
+
+    /** Registro secuencial: ningún filtro se ejecuta en paralelo. */
+    public BlueprintsFilterRegistry(Map<String, BlueprintsFilter> filters, String defaultSpec) {
+        this(filters, defaultSpec, Integer.MAX_VALUE);
+    }
+
+    /**
+     * Los filtros divisibles ({@link RangeFilter}) se envuelven en un {@link ParallelFilter} sobre el
+     * pool común de fork/join, que se activa a partir de {@code parallelThreshold} puntos.
+     */
+    @Autowired
+    public BlueprintsFilterRegistry(Map<String, BlueprintsFilter> filters,
+                                    @Value("${blueprints.filters.default:identity}") String defaultSpec,
+                                    @Value("${blueprints.filters.parallel-threshold:262144}") int parallelThreshold) {
+        Map<String, BlueprintsFilter> registered = new HashMap<>();
+        filters.forEach((name, filter) -> registered.put(name, filter instanceof RangeFilter range
+                ? new ParallelFilter(range, parallelThreshold, ForkJoinPool.commonPool())
+                : filter));
+        this.filters = Map.copyOf(registered);
+        this.defaultPipeline = defaultSpec.isBlank() ? new FilterPipeline("", List.of()) : pipeline(defaultSpec);
+    }
+
+    public FilterPipeline defaultPipeline() { return defaultPipeline; }
+
+    /**
+     * Cadena descrita por {@code spec}: nombres separados por comas, cada uno con un argumento
+     * opcional tras {@code ':'}. Una especificación nula o vacía es la cadena por defecto.
+     * @throws IllegalArgumentException si un filtro no existe o no acepta el argumento
+     */
+    public FilterPipeline pipeline(String spec) {
+        if (spec == null || spec.isBlank()) return defaultPipeline;
+        List<BlueprintsFilter> chain = new ArrayList<>();
+        StringJoiner canonical = new StringJoiner(",");
+        for (String token : spec.split(",")) {
+            String[] parts = token.trim().split(":", 2);
+            String name = parts[0].trim();
+            BlueprintsFilter filter = filters.get(name);
+            if (filter == null) throw new IllegalArgumentException("Unknown filter: " + name);
+            if (parts.length == 2) {
+                String argument = parts[1].trim();
+                chain.add(filter.withArgument(argument));
+                canonical.add(name + ":" + argument);
+            } else {
+                chain.add(filter);
+                canonical.add(name);
+            }
+        }
+        return new FilterPipeline(canonical.toString(), chain);
+    }
+}
@@ -0,0 +1,93 @@
+package edu.eci.arsw.blueprints.filters;
+
+import edu.eci.arsw.blueprints.model.Blueprint;
+import edu.eci.arsw.blueprints.model.PointBuffer;
+import org.springframework.stereotype.Component;
+
+import java.util.Arrays;
+import java.util.BitSet;
+
+/**
+ * Simplificación Ramer-Douglas-Peucker: descarta los puntos que se apartan menos de {@code epsilon}
+ * del segmento que los abarca, conservando siempre el primero y el último.
+ * Iterativa, con una pila explícita de tramos, para no desbordar la pila con 10^6 puntos;
+ * solo reserva la pila y un {@link BitSet} de puntos conservados.
+ * Nombre en el registro: "simplify", o "simplify:E" para otra tolerancia (por defecto 1.0).
+ */
+@Component("simplify")
+public class DouglasPeuckerFilter implements BlueprintsFilter {
+
+    private final double epsilon;
+
+    public DouglasPeuckerFilter() { this(1.0); }
+
+    public DouglasPeuckerFilter(double epsilon) {
+        if (!(epsilon >= 0) || Double.isInfinite(epsilon)) {
+            throw new IllegalArgumentException("simplify tolerance must be a non-negative number: " + epsilon);
+        }
+        this.epsilon = epsilon;
+    }
+
+    @Override
+    public Blueprint apply(Blueprint bp) {
+        PointBuffer in = bp.pointBuffer();
+        int n = in.size();
+        if (n <= 2) return bp;
+
+        BitSet keep = new BitSet(n);
+        keep.set(0);
+        keep.set(n - 1);
+        double epsilon2 = epsilon * epsilon;
+        int[] stack = new int[64];
+        int top = 0;
+        stack[top++] = 0;
+        stack[top++] = n - 1;
+        while (top > 0) {
+            int last = stack[--top];
+            int first = stack[--top];
+            if (last - first < 2) continue;
+
+            long x1 = in.x(first), y1 = in.y(first);
+            long dx = in.x(last) - x1, dy = in.y(last) - y1;
+            double len2 = (double) dx * dx + (double) dy * dy;
+            double maxDist2 = -1;
+            int farthest = -1;
+            for (int i = first + 1; i < last; i++) {
+                long px = in.x(i) - x1, py = in.y(i) - y1;
+                double dist2;
+                if (len2 == 0) {
+                    dist2 = (double) px * px + (double) py * py;
+                } else {
+                    // Squared distance to the line through first and last: cross^2 / |segment|^2
+                    double cross = (double) dx * py - (double) dy * px;
+                    dist2 = cross * cross / len2;
+                }
+                if (dist2 > maxDist2) {
+                    maxDist2 = dist2;
+                    farthest = i;
+                }
+            }
+            if (maxDist2 > epsilon2) {
+                keep.set(farthest);
+                if (top + 4 > stack.length) stack = Arrays.copyOf(stack, stack.length * 2);
+                stack[top++] = first;
+                stack[top++] = farthest;
+                stack[top++] = farthest;
+                stack[top++] = last;
+            }
+        }
+
+        PointBuffer.Builder out = PointBuffer.builder(keep.cardinality());
+        for (int i = keep.nextSetBit(0); i >= 0; i = keep.nextSetBit(i + 1)) out.add(in.x(i), in.y(i));
+        return new Blueprint(bp.getAuthor(), bp.getName(), out.build());
+    }
+
+    @Override
+    public BlueprintsFilter withArgument(String argument) {
+        try {
+            return new DouglasPeuckerFilter(Double.parseDouble(argument));
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException("simplify tolerance must be a number: " + argument);
+        }
+    }
+}
@@ -0,0 +1,63 @@
+package edu.eci.arsw.blueprints.filters;
+
+import edu.eci.arsw.blueprints.model.Blueprint;
+import edu.eci.arsw.blueprints.model.PointBuffer;
+import edu.eci.arsw.blueprints.model.PointSink;
+
+import java.util.List;
+
+/**
+ * Cadena de filtros aplicada en una sola pasada: las etapas ({@link BlueprintsFilter#stage}) se
+ * encadenan y cada punto las atraviesa todas antes de leer el siguiente, sin listas ni blueprints
+ * intermedios. {@link #spec()} es la forma canónica de la cadena, p. ej. {@code redundancy,undersampling:3}.
+ */
+public final class FilterPipeline implements BlueprintsFilter {
+
+    private final String spec;
+    private final List<BlueprintsFilter> filters;
+
+    public FilterPipeline(String spec, List<BlueprintsFilter> filters) {
+        this.spec = spec;
+        this.filters = List.copyOf(filters);
+    }
+
+    public String spec() { return spec; }
+
+    /** Si la cadena devuelve los puntos sin cambios (vacía o solo {@code identity}). */
+    public boolean isIdentity() {
+        return filters.stream().allMatch(IdentityFilter.class::isInstance);
+    }
+
+    @Override
+    public Blueprint apply(Blueprint bp) {
+        if (filters.isEmpty()) return bp;
+        // A single filter keeps its own apply, which may return bp itself when nothing changes
+        if (filters.size() == 1) return filters.get(0).apply(bp);
+        PointBuffer in = bp.pointBuffer();
+        PointBuffer.Builder out = PointBuffer.builder(in.size());
+        PointSink head = stage(out);
+        in.forEach(head);
+        head.end();
+        return new Blueprint(bp.getAuthor(), bp.getName(), out.build());
+    }
+
+    @Override
+    public PointSink stage(PointSink downstream) {
+        PointSink head = downstream;
+        for (int i = filters.size() - 1; i >= 0; i--) head = filters.get(i).stage(head);
+        return head;
+    }
+
+    @Override
+    public boolean incremental() {
+        return filters.stream().allMatch(BlueprintsFilter::incremental);
+    }
+
+    @Override
+    public boolean blocking(Blueprint bp) {
+        return filters.stream().anyMatch(f -> f.blocking(bp));
+    }
+
+    @Override
+    public String toString() { return spec; }
+}
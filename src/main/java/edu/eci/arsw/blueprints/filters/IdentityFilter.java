@@ -1,16 +1,21 @@
 package edu.eci.arsw.blueprints.filters;
 
 import edu.eci.arsw.blueprints.model.Blueprint;
-import org.springframework.context.annotation.Profile;
+import edu.eci.arsw.blueprints.model.PointSink;
 import org.springframework.stereotype.Component;
 
 /**
  * Default filter: returns the blueprint unchanged.
  * This matches the baseline behavior of the reference lab before students implement custom filters.
  */
-@Profile("!redundancy && !undersampling")
-@Component
+@Component("identity")
 public class IdentityFilter implements BlueprintsFilter {
     @Override
     public Blueprint apply(Blueprint bp) { return bp; }
+
+    @Override
+    public PointSink stage(PointSink downstream) { return downstream; }
+
+    @Override
+    public boolean incremental() { return true; }
 }
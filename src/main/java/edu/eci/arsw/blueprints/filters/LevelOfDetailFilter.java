@@ -0,0 +1,76 @@
+package edu.eci.arsw.blueprints.filters;
+
+import edu.eci.arsw.blueprints.model.Blueprint;
+import edu.eci.arsw.blueprints.model.PointBuffer;
+import edu.eci.arsw.blueprints.model.PointSink;
+import org.springframework.stereotype.Component;
+
+/**
+ * Nivel de detalle N: conserva los puntos cuyo índice es múltiplo de 2^N, empezando por el primero.
+ * A diferencia de {@link UndersamplingFilter} no devuelve enteros los blueprints cortos, así que un nivel más
+ * grueso nunca tiene más puntos que uno más fino: de n puntos quedan {@code ceil(n / 2^N)}.
+ * Nombre en el registro: "lod:N", con N entre 0 y {@link #MAX_LEVEL}.
+ */
+@Component("lod")
+public class LevelOfDetailFilter implements RangeFilter {
+
+    /** Nivel más grueso: uno de cada 2^30 puntos. */
+    public static final int MAX_LEVEL = 30;
+
+    private final int step;
+
+    public LevelOfDetailFilter() { this(0); }
+
+    public LevelOfDetailFilter(int level) {
+        if (level < 0 || level > MAX_LEVEL) {
+            throw new IllegalArgumentException("lod must be between 0 and " + MAX_LEVEL + ": " + level);
+        }
+        this.step = 1 << level;
+    }
+
+    @Override
+    public Blueprint apply(Blueprint bp) {
+        if (step == 1) return bp;
+        PointBuffer in = bp.pointBuffer();
+        PointBuffer.Builder out = PointBuffer.builder((in.size() + step - 1) / step);
+        applyRange(in, 0, in.size(), out);
+        return new Blueprint(bp.getAuthor(), bp.getName(), out.build());
+    }
+
+    @Override
+    public void applyRange(PointBuffer in, int from, int to, PointSink out) {
+        long first = (from + (long) step - 1) / step * step;
+        for (long i = first; i < to; i += step) out.accept(in.x((int) i), in.y((int) i));
+    }
+
+    @Override
+    public PointSink stage(PointSink downstream) {
+        if (step == 1) return downstream;
+        return new PointSink() {
+            private long index;
+
+            @Override
+            public void accept(int x, int y) {
+                if (index++ % step == 0) downstream.accept(x, y);
+            }
+
+            @Override
+            public void end() { downstream.end(); }
+
+            @Override
+            public boolean pending() { return downstream.pending(); }
+        };
+    }
+
+    @Override
+    public boolean incremental() { return true; }
+
+    @Override
+    public BlueprintsFilter withArgument(String argument) {
+        try {
+            return new LevelOfDetailFilter(Integer.parseInt(argument));
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException("lod must be an integer: " + argument);
+        }
+    }
+}
@@ -0,0 +1,82 @@
+package edu.eci.arsw.blueprints.filters;
+
+import edu.eci.arsw.blueprints.model.Blueprint;
+import edu.eci.arsw.blueprints.model.PointBuffer;
+import edu.eci.arsw.blueprints.model.PointSink;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+import java.util.concurrent.RecursiveAction;
+
+/**
+ * Ejecuta un {@link RangeFilter} en paralelo sobre un {@link ForkJoinPool} cuando el blueprint tiene
+ * al menos {@code threshold} puntos: cada trozo se filtra en su propio buffer y los resultados se
+ * concatenan en orden con una sola copia. Por debajo del umbral delega en el filtro secuencial.
+ */
+public final class ParallelFilter implements BlueprintsFilter {
+
+    /** Trozo mínimo: por debajo de esto repartir cuesta más que filtrar. */
+    static final int MIN_CHUNK_POINTS = 4096;
+
+    private final RangeFilter delegate;
+    private final int threshold;
+    private final ForkJoinPool pool;
+
+    public ParallelFilter(RangeFilter delegate, int threshold, ForkJoinPool pool) {
+        this.delegate = delegate;
+        this.threshold = threshold;
+        this.pool = pool;
+    }
+
+    @Override
+    public Blueprint apply(Blueprint bp) {
+        if (!blocking(bp)) return delegate.apply(bp);
+        PointBuffer in = bp.pointBuffer();
+        int n = in.size();
+
+        // A few chunks per worker so that a slow chunk does not leave the others idle
+        int chunks = Math.min(pool.getParallelism() * 4, n / MIN_CHUNK_POINTS);
+        PointBuffer[] parts = new PointBuffer[chunks];
+        List<ForkJoinTask<?>> tasks = new ArrayList<>(chunks);
+        for (int c = 0; c < chunks; c++) {
+            int index = c;
+            int from = (int) ((long) n * c / chunks), to = (int) ((long) n * (c + 1) / chunks);
+            tasks.add(ForkJoinTask.adapt(() -> {
+                PointBuffer.Builder out = PointBuffer.builder((to - from) / 2);
+                delegate.applyRange(in, from, to, out);
+                parts[index] = out.build();
+            }));
+        }
+        pool.invoke(new RecursiveAction() {
+            @Override
+            protected void compute() { invokeAll(tasks); }
+        });
+
+        int total = 0;
+        for (PointBuffer part : parts) total += part.size();
+        PointBuffer.Builder out = PointBuffer.builder(total);
+        for (PointBuffer part : parts) out.addAll(part);
+        return new Blueprint(bp.getAuthor(), bp.getName(), out.build());
+    }
+
+    @Override
+    public PointSink stage(PointSink downstream) { return delegate.stage(downstream); }
+
+    @Override
+    public boolean incremental() { return delegate.incremental(); }
+
+    /** Si {@code apply(bp)} reparte el blueprint en el pool; en ese caso espera a que terminen todos los trozos. */
+    @Override
+    public boolean blocking(Blueprint bp) {
+        int n = bp.pointBuffer().size();
+        return n >= threshold && n >= 2 * MIN_CHUNK_POINTS && pool.getParallelism() >= 2;
+    }
+
+    @Override
+    public BlueprintsFilter withArgument(String argument) {
+        BlueprintsFilter configured = delegate.withArgument(argument);
+        return configured instanceof RangeFilter range ? new ParallelFilter(range, threshold, pool) : configured;
+    }
+}
@@ -0,0 +1,18 @@
+package edu.eci.arsw.blueprints.filters;
+
+import edu.eci.arsw.blueprints.model.PointBuffer;
+import edu.eci.arsw.blueprints.model.PointSink;
+
+/**
+ * Filtro que puede procesar cualquier tramo de los puntos por separado, mirando el resto del buffer
+ * solo para ajustar el borde del tramo. Es lo que permite a {@link ParallelFilter} repartir un
+ * blueprint grande en trozos.
+ */
+public interface RangeFilter extends BlueprintsFilter {
+
+    /**
+     * Entrega a {@code out}, en orden, los puntos de {@code [from, to)} que conservaría {@link #apply}
+     * sobre todo {@code in}. Tramos contiguos concatenados deben dar exactamente ese resultado.
+     */
+    void applyRange(PointBuffer in, int from, int to, PointSink out);
+}
@@ -1,32 +1,67 @@
 package edu.eci.arsw.blueprints.filters;
 
 import edu.eci.arsw.blueprints.model.Blueprint;
-import edu.eci.arsw.blueprints.model.Point;
-import org.springframework.context.annotation.Profile;
+import edu.eci.arsw.blueprints.model.PointBuffer;
+import edu.eci.arsw.blueprints.model.PointSink;
 import org.springframework.stereotype.Component;
 
-import java.util.ArrayList;
-import java.util.List;
-
 /**
  * Elimina puntos consecutivos duplicados (x,y) para reducir redundancia.
- * Perfil: "redundancy"
+ * Nombre en el registro: "redundancy"
  */
-@Component
-@Profile("redundancy")
-public class RedundancyFilter implements BlueprintsFilter {
+@Component("redundancy")
+public class RedundancyFilter implements RangeFilter {
     @Override
     public Blueprint apply(Blueprint bp) {
-        List<Point> in = bp.getPoints();
+        PointBuffer in = bp.pointBuffer();
         if (in.isEmpty()) return bp;
-        List<Point> out = new ArrayList<>();
-        Point prev = null;
-        for (Point p : in) {
-            if (prev == null || !(prev.x()==p.x() && prev.y()==p.y())) {
-                out.add(p);
-                prev = p;
-            }
+        PointBuffer.Builder out = PointBuffer.builder(in.size());
+        PointSink stage = stage(out);
+        in.forEach(stage);
+        stage.end();
+        return new Blueprint(bp.getAuthor(), bp.getName(), out.build());
+    }
+
+    /** El borde solo depende del punto anterior al tramo: se conserva cada punto distinto de su predecesor. */
+    @Override
+    public void applyRange(PointBuffer in, int from, int to, PointSink out) {
+        int prevX = 0, prevY = 0;
+        if (from > 0) {
+            prevX = in.x(from - 1);
+            prevY = in.y(from - 1);
+        }
+        for (int i = from; i < to; i++) {
+            int x = in.x(i), y = in.y(i);
+            if (i == 0 || x != prevX || y != prevY) out.accept(x, y);
+            prevX = x;
+            prevY = y;
         }
-        return new Blueprint(bp.getAuthor(), bp.getName(), out);
     }
+
+    @Override
+    public PointSink stage(PointSink downstream) {
+        return new PointSink() {
+            private boolean first = true;
+            private int prevX, prevY;
+
+            @Override
+            public void accept(int x, int y) {
+                if (first || x != prevX || y != prevY) {
+                    downstream.accept(x, y);
+                    first = false;
+                    prevX = x;
+                    prevY = y;
+                }
+            }
+
+            @Override
+            public void end() { downstream.end(); }
+
+            @Override
+            public boolean pending() { return downstream.pending(); }
+        };
+    }
+
+    @Override
+    public boolean incremental() { return true; }
 }
@@ -1,28 +1,85 @@
 package edu.eci.arsw.blueprints.filters;
 
 import edu.eci.arsw.blueprints.model.Blueprint;
-import edu.eci.arsw.blueprints.model.Point;
-import org.springframework.context.annotation.Profile;
+import edu.eci.arsw.blueprints.model.PointBuffer;
+import edu.eci.arsw.blueprints.model.PointSink;
 import org.springframework.stereotype.Component;
 
-import java.util.ArrayList;
-import java.util.List;
-
 /**
- * Undersampling: conserva 1 de cada 2 puntos (índices pares), reduciendo la densidad.
- * Perfil: "undersampling"
+ * Undersampling: conserva 1 de cada {@code step} puntos (por defecto 2, los índices pares), reduciendo
+ * la densidad. Un blueprint de {@code step} puntos o menos se devuelve sin cambios.
+ * Nombre en el registro: "undersampling", o "undersampling:N" para otro paso.
  */
-@Component
-@Profile("undersampling")
-public class UndersamplingFilter implements BlueprintsFilter {
+@Component("undersampling")
+public class UndersamplingFilter implements RangeFilter {
+
+    private final int step;
+
+    public UndersamplingFilter() { this(2); }
+
+    public UndersamplingFilter(int step) {
+        if (step < 1) throw new IllegalArgumentException("undersampling step must be positive: " + step);
+        this.step = step;
+    }
+
     @Override
     public Blueprint apply(Blueprint bp) {
-        List<Point> in = bp.getPoints();
-        if (in.size() <= 2) return bp;
-        List<Point> out = new ArrayList<>();
-        for (int i = 0; i < in.size(); i++) {
-            if (i % 2 == 0) out.add(in.get(i));
+        PointBuffer in = bp.pointBuffer();
+        if (in.size() <= step) return bp;
+        PointBuffer.Builder out = PointBuffer.builder((in.size() + step - 1) / step);
+        applyRange(in, 0, in.size(), out);
+        return new Blueprint(bp.getAuthor(), bp.getName(), out.build());
+    }
+
+    /** El borde solo depende del índice: el tramo empieza en el primer múltiplo de {@code step} dentro de él. */
+    @Override
+    public void applyRange(PointBuffer in, int from, int to, PointSink out) {
+        if (in.size() <= step) {
+            for (int i = from; i < to; i++) out.accept(in.x(i), in.y(i));
+            return;
+        }
+        long first = (from + (long) step - 1) / step * step;
+        for (long i = first; i < to; i += step) out.accept(in.x((int) i), in.y((int) i));
+    }
+
+    @Override
+    public PointSink stage(PointSink downstream) {
+        return new PointSink() {
+            private long index;
+            // Points 1..step-1, emitted at the end only if the input turns out to have step points or fewer
+            private PointBuffer pending = new PointBuffer();
+
+            @Override
+            public void accept(int x, int y) {
+                long i = index++;
+                if (i % step == 0) {
+                    if (i == step) pending = null;
+                    downstream.accept(x, y);
+                } else if (pending != null) {
+                    pending.add(x, y);
+                }
+            }
+
+            @Override
+            public void end() {
+                if (pending != null) pending.forEach(downstream);
+                downstream.end();
+            }
+
+            @Override
+            public boolean pending() { return (pending != null && !pending.isEmpty()) || downstream.pending(); }
+        };
+    }
+
+    @Override
+    public boolean incremental() { return true; }
+
+    @Override
+    public BlueprintsFilter withArgument(String argument) {
+        try {
+            return new UndersamplingFilter(Integer.parseInt(argument));
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException("undersampling step must be an integer: " + argument);
         }
-        return new Blueprint(bp.getAuthor(), bp.getName(), out);
     }
 }
@@ -1,37 +1,47 @@
 package edu.eci.arsw.blueprints.model;
 
-import jakarta.persistence.*;
+import com.fasterxml.jackson.databind.annotation.JsonDeserialize;
+import com.fasterxml.jackson.databind.annotation.JsonSerialize;
 
-import java.util.ArrayList;
-import java.util.Collections;
+import java.util.Collection;
 import java.util.List;
 import java.util.Objects;
 
-@Entity
-@Table(name = "blueprints")
+@JsonSerialize(using = BlueprintJson.BlueprintSerializer.class)
+@JsonDeserialize(using = BlueprintJson.BlueprintDeserializer.class)
 public class Blueprint {
-    @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
-    private Long id;
-    private String author;
-    private String name;
-    @ElementCollection
-    @CollectionTable(name = "blueprint_points", joinColumns = @JoinColumn(name = "blueprint_id"))
-    private final List<Point> points = new ArrayList<>();
-
-    protected Blueprint() {}
+    private final String author;
+    private final String name;
+    private final PointBuffer points;
 
     public Blueprint(String author, String name, List<Point> pts) {
+        this(author, name, pts == null ? new PointBuffer() : PointBuffer.of(pts));
+    }
+
+    /** Usa {@code points} directamente, sin copiarlo. */
+    public Blueprint(String author, String name, PointBuffer points) {
         this.author = author;
         this.name = name;
-        if (pts != null) points.addAll(pts);
+        this.points = points;
     }
 
     public String getAuthor() { return author; }
     public String getName() { return name; }
-    public List<Point> getPoints() { return Collections.unmodifiableList(points); }
+    /** Instantánea de los puntos: no cambia aunque otro hilo anexe mientras se recorre o serializa. */
+    public List<Point> getPoints() { return points.snapshot().asList(); }
+
+    /**
+     * Instantánea primitiva de los puntos, para recorrerlos sin crear un {@link Point} por elemento.
+     * Escribir en ella no afecta al blueprint.
+     */
+    public PointBuffer pointBuffer() { return points.snapshot(); }
+
+    public void addPoint(Point p) { points.add(p.x(), p.y()); }
+    public void addPoint(int x, int y) { points.add(x, y); }
 
-    public void addPoint(Point p) { points.add(p); }
+    /** Anexa {@code pts} de forma atómica respecto a otros anexos y lectores. */
+    public void addPoints(Collection<Point> pts) { points.addAll(PointBuffer.of(pts)); }
+    public void addPoints(PointBuffer pts) { points.addAll(pts); }
 
     @Override
     public boolean equals(Object o) {
@@ -0,0 +1,5 @@
+package edu.eci.arsw.blueprints.model;
+
+/** Un blueprint en los resultados de una búsqueda por área: su clave y su caja, sin los puntos. */
+public record BlueprintBounds(String author, String name, BoundingBox bounds) {
+}
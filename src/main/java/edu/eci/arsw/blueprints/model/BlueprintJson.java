@@ -0,0 +1,147 @@
+package edu.eci.arsw.blueprints.model;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+import com.fasterxml.jackson.databind.DeserializationContext;
+import com.fasterxml.jackson.databind.SerializerProvider;
+import com.fasterxml.jackson.databind.deser.std.StdDeserializer;
+import com.fasterxml.jackson.databind.ser.std.StdSerializer;
+
+import java.io.IOException;
+
+/**
+ * Serialización JSON escrita a mano de {@link Blueprint} y {@link Point}, sin introspección de beans.
+ * El formato es el de siempre ({@code {"author", "name", "points": [{"x", "y"}, ...]}}), pero los puntos de un
+ * blueprint se escriben directamente desde su {@link PointBuffer} y se leen directamente a uno, sin crear
+ * un {@link Point} por elemento. Se registran con anotaciones en las clases, así las usa cualquier
+ * {@code ObjectMapper}: el de MVC, el de WebFlux y el de los benchmarks.
+ *
+ * <p>Los puntos siguen como objetos y no como un arreglo plano {@code [x0, y0, x1, ...]} porque ese es el
+ * formato público de la API (esquema OpenAPI, validación de altas, NDJSON y clientes existentes) y cambiarlo
+ * rompería a todos. Con gzip el arreglo plano solo ahorraría un 15 % más, y quien necesite un formato
+ * compacto ya tiene {@code application/x-blueprint}.
+ */
+public final class BlueprintJson {
+
+    private BlueprintJson() {}
+
+    public static final class BlueprintSerializer extends StdSerializer<Blueprint> {
+        public BlueprintSerializer() { super(Blueprint.class); }
+
+        @Override
+        public void serialize(Blueprint bp, JsonGenerator gen, SerializerProvider provider) throws IOException {
+            gen.writeStartObject(bp);
+            gen.writeStringField("author", bp.getAuthor());
+            gen.writeStringField("name", bp.getName());
+            gen.writeFieldName("points");
+            PointBuffer points = bp.pointBuffer();
+            int n = points.size();
+            gen.writeStartArray(points, n);
+            for (int i = 0; i < n; i++) writePoint(points.x(i), points.y(i), gen);
+            gen.writeEndArray();
+            gen.writeEndObject();
+        }
+    }
+
+    public static final class BlueprintDeserializer extends StdDeserializer<Blueprint> {
+        private final PointDeserializer point = new PointDeserializer();
+
+        public BlueprintDeserializer() { super(Blueprint.class); }
+
+        @Override
+        public Blueprint deserialize(JsonParser p, DeserializationContext ctxt) throws IOException {
+            String author = null, name = null;
+            PointBuffer points = new PointBuffer();
+            for (JsonToken t = startObject(p, ctxt, Blueprint.class); t == JsonToken.FIELD_NAME; t = p.nextToken()) {
+                String field = p.currentName();
+                JsonToken value = p.nextToken();
+                switch (field) {
+                    case "author" -> author = readString(p, ctxt);
+                    case "name" -> name = readString(p, ctxt);
+                    case "points" -> points = value == JsonToken.VALUE_NULL ? new PointBuffer() : readPoints(p, ctxt);
+                    default -> ctxt.handleUnknownProperty(p, this, Blueprint.class, field);
+                }
+            }
+            return new Blueprint(author, name, points);
+        }
+
+        /** Texto del valor actual; como por defecto, {@code null} queda nulo y los números y booleanos se aceptan. */
+        private static String readString(JsonParser p, DeserializationContext ctxt) throws IOException {
+            JsonToken t = p.currentToken();
+            if (t == JsonToken.VALUE_NULL) return null;
+            if (t.isScalarValue()) return p.getValueAsString();
+            return (String) ctxt.handleUnexpectedToken(String.class, p);
+        }
+
+        /** Lee un arreglo de puntos directamente a un buffer; el parser queda en su {@code END_ARRAY}. */
+        private PointBuffer readPoints(JsonParser p, DeserializationContext ctxt) throws IOException {
+            if (!p.isExpectedStartArrayToken()) return (PointBuffer) ctxt.handleUnexpectedToken(PointBuffer.class, p);
+            PointBuffer.Builder points = PointBuffer.builder(16);
+            int[] xy = new int[2];
+            for (JsonToken t = p.nextToken(); t != JsonToken.END_ARRAY; t = p.nextToken()) {
+                if (t == JsonToken.VALUE_NULL) {
+                    ctxt.reportInputMismatch(this, "Null point at index %d", points.size());
+                }
+                point.read(p, ctxt, xy);
+                points.add(xy[0], xy[1]);
+            }
+            return points.build();
+        }
+    }
+
+    public static final class PointSerializer extends StdSerializer<Point> {
+        public PointSerializer() { super(Point.class); }
+
+        @Override
+        public void serialize(Point point, JsonGenerator gen, SerializerProvider provider) throws IOException {
+            writePoint(point.x(), point.y(), gen);
+        }
+    }
+
+    public static final class PointDeserializer extends StdDeserializer<Point> {
+        public PointDeserializer() { super(Point.class); }
+
+        @Override
+        public Point deserialize(JsonParser p, DeserializationContext ctxt) throws IOException {
+            int[] xy = new int[2];
+            read(p, ctxt, xy);
+            return new Point(xy[0], xy[1]);
+        }
+
+        /**
+         * Lee un {@code {"x", "y"}} en {@code xy}. Como la deserialización por defecto, una coordenada ausente
+         * vale 0, se aceptan las mismas coerciones (p. ej. {@code "3"}) y las propiedades desconocidas siguen
+         * {@code FAIL_ON_UNKNOWN_PROPERTIES}.
+         */
+        void read(JsonParser p, DeserializationContext ctxt, int[] xy) throws IOException {
+            xy[0] = 0;
+            xy[1] = 0;
+            for (JsonToken t = startObject(p, ctxt, Point.class); t == JsonToken.FIELD_NAME; t = p.nextToken()) {
+                String field = p.currentName();
+                p.nextToken();
+                switch (field) {
+                    case "x" -> xy[0] = _parseIntPrimitive(p, ctxt);
+                    case "y" -> xy[1] = _parseIntPrimitive(p, ctxt);
+                    default -> ctxt.handleUnknownProperty(p, this, Point.class, field);
+                }
+            }
+        }
+    }
+
+    private static void writePoint(int x, int y, JsonGenerator gen) throws IOException {
+        gen.writeStartObject();
+        gen.writeNumberField("x", x);
+        gen.writeNumberField("y", y);
+        gen.writeEndObject();
+    }
+
+    /** Avanza al primer nombre de campo (o al cierre) de un objeto que empieza en el token actual. */
+    private static JsonToken startObject(JsonParser p, DeserializationContext ctxt, Class<?> type) throws IOException {
+        JsonToken t = p.currentToken();
+        if (t == JsonToken.START_OBJECT) return p.nextToken();
+        if (t == JsonToken.FIELD_NAME || t == JsonToken.END_OBJECT) return t;
+        ctxt.handleUnexpectedToken(type, p);
+        return JsonToken.END_OBJECT;
+    }
+}
@@ -0,0 +1,25 @@
+package edu.eci.arsw.blueprints.model;
+
+import java.util.Comparator;
+
+/**
+ * Identificador compuesto (author, name) de un blueprint.
+ * Su orden natural (autor y luego nombre) es el que usa la paginación por cursor.
+ */
+public record BlueprintKey(String author, String name) implements Comparable<BlueprintKey> {
+
+    private static final Comparator<BlueprintKey> ORDER =
+            Comparator.comparing(BlueprintKey::author).thenComparing(BlueprintKey::name);
+
+    public static BlueprintKey of(Blueprint bp) {
+        return new BlueprintKey(bp.getAuthor(), bp.getName());
+    }
+
+    @Override
+    public int compareTo(BlueprintKey other) {
+        return ORDER.compare(this, other);
+    }
+
+    @Override
+    public String toString() { return author + "/" + name; }
+}
@@ -0,0 +1,11 @@
+package edu.eci.arsw.blueprints.model;
+
+import java.time.Instant;
+
+/**
+ * Versión de un blueprint: un contador que crece con cada escritura y el instante de la última.
+ * Se lee sin cargar los puntos, así que basta para responder a un GET condicional.
+ * {@code updatedAt} es nulo en filas anteriores a la columna.
+ */
+public record BlueprintVersion(long version, Instant updatedAt) {
+}
@@ -0,0 +1,66 @@
+package edu.eci.arsw.blueprints.model;
+
+/**
+ * Rectángulo alineado con los ejes, con los bordes incluidos. Es el rectángulo mínimo que contiene
+ * los puntos de un blueprint y también la ventana de las búsquedas por área.
+ */
+public record BoundingBox(int minX, int minY, int maxX, int maxY) {
+
+    public BoundingBox {
+        if (minX > maxX || minY > maxY) {
+            throw new IllegalArgumentException("Empty bounding box: min must not exceed max");
+        }
+    }
+
+    /** Caja de los puntos, o {@code null} si no hay ninguno. */
+    public static BoundingBox of(PointBuffer points) {
+        if (points.isEmpty()) return null;
+        int[] b = {Integer.MAX_VALUE, Integer.MAX_VALUE, Integer.MIN_VALUE, Integer.MIN_VALUE};
+        points.forEach((x, y) -> {
+            b[0] = Math.min(b[0], x);
+            b[1] = Math.min(b[1], y);
+            b[2] = Math.max(b[2], x);
+            b[3] = Math.max(b[3], y);
+        });
+        return new BoundingBox(b[0], b[1], b[2], b[3]);
+    }
+
+    /**
+     * Lee {@code minX,minY,maxX,maxY}, el formato del parámetro {@code bbox}.
+     * @throws IllegalArgumentException si no son cuatro enteros o el mínimo supera al máximo
+     */
+    public static BoundingBox parse(String spec) {
+        String[] parts = spec.split(",");
+        if (parts.length != 4) throw new IllegalArgumentException("bbox must be minX,minY,maxX,maxY");
+        try {
+            return new BoundingBox(Integer.parseInt(parts[0].strip()), Integer.parseInt(parts[1].strip()),
+                    Integer.parseInt(parts[2].strip()), Integer.parseInt(parts[3].strip()));
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException("bbox must be minX,minY,maxX,maxY", e);
+        }
+    }
+
+    /** Caja que cubre esta y {@code other}; {@code other} puede ser nula. */
+    public BoundingBox union(BoundingBox other) {
+        if (other == null) return this;
+        return new BoundingBox(Math.min(minX, other.minX), Math.min(minY, other.minY),
+                Math.max(maxX, other.maxX), Math.max(maxY, other.maxY));
+    }
+
+    public boolean intersects(BoundingBox other) {
+        return minX <= other.maxX && other.minX <= maxX && minY <= other.maxY && other.minY <= maxY;
+    }
+
+    public boolean contains(BoundingBox other) {
+        return minX <= other.minX && other.maxX <= maxX && minY <= other.minY && other.maxY <= maxY;
+    }
+
+    public boolean contains(int x, int y) {
+        return minX <= x && x <= maxX && minY <= y && y <= maxY;
+    }
+
+    @Override
+    public String toString() {
+        return minX + "," + minY + "," + maxX + "," + maxY;
+    }
+}
@@ -1,12 +1,14 @@
 package edu.eci.arsw.blueprints.model;
 
-import com.fasterxml.jackson.annotation.JsonCreator;
-import com.fasterxml.jackson.annotation.JsonProperty;
+import com.fasterxml.jackson.databind.annotation.JsonDeserialize;
+import com.fasterxml.jackson.databind.annotation.JsonSerialize;
 import jakarta.persistence.Embeddable;
 
 import java.util.Objects;
 
 @Embeddable
+@JsonSerialize(using = BlueprintJson.PointSerializer.class)
+@JsonDeserialize(using = BlueprintJson.PointDeserializer.class)
 public class Point {
 
     private int x;
@@ -14,9 +16,7 @@ public class Point {
 
     protected Point() {}
 
-    @JsonCreator
-    public Point(@JsonProperty("x") int x,
-                 @JsonProperty("y") int y) {
+    public Point(int x, int y) {
         this.x = x;
         this.y = y;
     }
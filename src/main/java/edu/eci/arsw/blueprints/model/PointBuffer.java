@@ -0,0 +1,207 @@
+package edu.eci.arsw.blueprints.model;
+
+import java.util.AbstractList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.List;
+import java.util.Objects;
+import java.util.RandomAccess;
+
+/**
+ * Secuencia de puntos almacenada como un único {@code int[]} intercalado (x0, y0, x1, y1, ...).
+ * Evita un objeto {@link Point} por coordenada; {@link #asList()} ofrece la vista de solo lectura
+ * como {@code List<Point>} para quien necesite el contrato anterior.
+ *
+ * <p>Los anexos se serializan con el monitor del propio buffer y las lecturas no bloquean: cada punto
+ * se escribe antes de publicar el nuevo {@code size} (volátil) y un arreglo solo se reemplaza por una
+ * copia más grande, así que el prefijo {@code [0, size)} que ve un lector nunca cambia.
+ * {@link #snapshot()} fija ese prefijo sin copiarlo.
+ */
+public final class PointBuffer {
+
+    private static final int DEFAULT_CAPACITY = 8;
+
+    private volatile int[] coords;
+    private volatile int size;
+    // The array is shared with the buffer this snapshot was taken from; copy it before writing
+    private boolean shared;
+
+    public PointBuffer() { this(DEFAULT_CAPACITY); }
+
+    public PointBuffer(int capacity) {
+        coords = new int[Math.max(capacity, 1) * 2];
+    }
+
+    private PointBuffer(int[] coords, int size, boolean shared) {
+        this.coords = coords;
+        this.size = size;
+        this.shared = shared;
+    }
+
+    /**
+     * Constructor de un solo hilo para resultados que aún nadie más ve (p. ej. la salida de un filtro):
+     * escribe en un arreglo propio sin monitor ni escrituras volátiles y lo entrega en {@link Builder#build()}.
+     */
+    public static Builder builder(int capacity) { return new Builder(capacity); }
+
+    public static PointBuffer of(Collection<Point> points) {
+        Builder buf = builder(points.size());
+        for (Point p : points) buf.add(p.x(), p.y());
+        return buf.build();
+    }
+
+    /** Los puntos de {@code batches} uno tras otro, en un solo buffer. */
+    public static PointBuffer concat(Collection<PointBuffer> batches) {
+        int total = 0;
+        for (PointBuffer b : batches) total += b.size();
+        Builder buf = builder(total);
+        for (PointBuffer b : batches) buf.addAll(b);
+        return buf.build();
+    }
+
+    public synchronized void add(int x, int y) {
+        int n = size;
+        int[] c = ensureCapacity(n + 1);
+        c[n * 2] = x;
+        c[n * 2 + 1] = y;
+        size = n + 1;
+    }
+
+    /** Anexa todos los puntos de {@code other} como una sola operación: ningún lector ve la mitad. */
+    public synchronized void addAll(PointBuffer other) {
+        int m = other.size;
+        int[] src = other.coords;
+        int n = size;
+        int[] c = ensureCapacity(n + m);
+        System.arraycopy(src, 0, c, n * 2, m * 2);
+        size = n + m;
+    }
+
+    private int[] ensureCapacity(int points) {
+        int[] c = coords;
+        if (points * 2 > c.length || shared) {
+            c = Arrays.copyOf(c, Math.max(points * 2, c.length * 2));
+            coords = c;
+            shared = false;
+        }
+        return c;
+    }
+
+    public int size() { return size; }
+    public boolean isEmpty() { return size == 0; }
+
+    // size must be read before coords: any array published after that size still holds the same prefix
+    public int x(int i) {
+        int n = size;
+        int[] c = coords;
+        return c[Objects.checkIndex(i, n) * 2];
+    }
+
+    public int y(int i) {
+        int n = size;
+        int[] c = coords;
+        return c[Objects.checkIndex(i, n) * 2 + 1];
+    }
+
+    public Point get(int i) { return new Point(x(i), y(i)); }
+
+    /** Entrega a {@code sink}, en orden, los puntos anexados hasta ahora; no llama a {@code end()}. */
+    public void forEach(PointSink sink) {
+        int n = size;
+        int[] c = coords;
+        for (int i = 0; i < n * 2; i += 2) sink.accept(c[i], c[i + 1]);
+    }
+
+    /** Vista inmutable de los puntos anexados hasta ahora; comparte el arreglo, no lo copia. */
+    public PointBuffer snapshot() {
+        int n = size;
+        return new PointBuffer(coords, n, true);
+    }
+
+    public PointBuffer copy() {
+        int n = size;
+        int[] c = coords;
+        PointBuffer copy = new PointBuffer(n);
+        System.arraycopy(c, 0, copy.coords, 0, n * 2);
+        copy.size = n;
+        return copy;
+    }
+
+    /** Copia de los puntos desde el índice {@code from} hasta el final; vacía si no hay ninguno después. */
+    public PointBuffer tail(int from) {
+        int n = size;
+        int[] c = coords;
+        int start = Math.min(Math.max(from, 0), n);
+        PointBuffer tail = new PointBuffer(n - start);
+        System.arraycopy(c, start * 2, tail.coords, 0, (n - start) * 2);
+        tail.size = n - start;
+        return tail;
+    }
+
+    /** Vista de solo lectura; cada {@code get} crea el {@link Point} al vuelo. */
+    public List<Point> asList() { return new View(); }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) return true;
+        if (!(o instanceof PointBuffer other)) return false;
+        int n = size, m = other.size;
+        return Arrays.equals(coords, 0, n * 2, other.coords, 0, m * 2);
+    }
+
+    @Override
+    public int hashCode() {
+        int n = size;
+        int[] c = coords;
+        int h = 1;
+        for (int i = 0; i < n * 2; i++) h = 31 * h + c[i];
+        return h;
+    }
+
+    private final class View extends AbstractList<Point> implements RandomAccess {
+        @Override
+        public Point get(int index) { return PointBuffer.this.get(index); }
+
+        @Override
+        public int size() { return size; }
+    }
+
+    public static final class Builder implements PointSink {
+        private int[] coords;
+        private int size;
+
+        private Builder(int capacity) {
+            coords = new int[Math.max(capacity, 1) * 2];
+        }
+
+        @Override
+        public void accept(int x, int y) { add(x, y); }
+
+        public void add(int x, int y) {
+            int i = size * 2;
+            if (i == coords.length) coords = Arrays.copyOf(coords, coords.length * 2);
+            coords[i] = x;
+            coords[i + 1] = y;
+            size++;
+        }
+
+        public void addAll(PointBuffer other) {
+            int m = other.size;
+            int[] src = other.coords;
+            int needed = (size + m) * 2;
+            if (needed > coords.length) coords = Arrays.copyOf(coords, Math.max(needed, coords.length * 2));
+            System.arraycopy(src, 0, coords, size * 2, m * 2);
+            size += m;
+        }
+
+        public int size() { return size; }
+        public boolean isEmpty() { return size == 0; }
+
+        /** Entrega el arreglo al buffer resultante; el constructor no debe usarse después. */
+        public PointBuffer build() {
+            PointBuffer built = new PointBuffer(coords, size, false);
+            coords = null;
+            return built;
+        }
+    }
+}
@@ -0,0 +1,20 @@
+package edu.eci.arsw.blueprints.model;
+
+/**
+ * Consumidor de puntos como pares de enteros, sin crear un {@link Point} por elemento.
+ * {@link #end()} indica que no llegarán más puntos.
+ */
+@FunctionalInterface
+public interface PointSink {
+
+    void accept(int x, int y);
+
+    default void end() {}
+
+    /**
+     * Si retiene puntos que solo entregaría en {@link #end()}; mientras sea {@code false}, lo emitido
+     * hasta ahora es el resultado completo para lo recibido. Las etapas encadenadas consultan también
+     * a la siguiente.
+     */
+    default boolean pending() { return false; }
+}
@@ -0,0 +1,16 @@
+package edu.eci.arsw.blueprints.model;
+
+import java.util.List;
+
+/**
+ * Los puntos anexados a un blueprint a partir del índice {@code since}, junto con el total de puntos
+ * y la versión a la que corresponden, leídos en una misma consulta.
+ * Un cliente que ya tiene los primeros {@code since} puntos anexa {@code points} y pide el siguiente
+ * delta con {@code since = total}.
+ */
+public record PointsDelta(int since, int total, long version, List<Point> points) {
+
+    public PointsDelta(int since, int total, long version, PointBuffer points) {
+        this(since, total, version, points.asList());
+    }
+}
@@ -0,0 +1,291 @@
+package edu.eci.arsw.blueprints.persistence;
+
+import edu.eci.arsw.blueprints.model.BlueprintKey;
+import edu.eci.arsw.blueprints.model.PointBuffer;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.BufferedInputStream;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.Closeable;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InterruptedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.ClosedChannelException;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Stream;
+import java.util.zip.CRC32;
+
+/**
+ * Registro local de los anexos aceptados y aún no escritos en la base, para rehacerlos tras una caída.
+ * Cada anexo es un registro con su longitud, su CRC32 y su contenido (autor, nombre, índice del primer punto
+ * y los puntos), y se fuerza a disco antes de confirmarlo. Un registro a medio escribir al caer el proceso
+ * falla la comprobación y se descarta al recuperar, junto con lo que le siga en su segmento.
+ *
+ * <p>Escribir un registro ({@link #append}) y esperar al disco ({@link #sync}) van por separado: mientras un
+ * {@code fsync} está en curso otros anexos escriben los suyos, y el siguiente {@code fsync} los cubre a todos.
+ *
+ * <p>El registro se reparte en segmentos de unos {@code segmentBytes}. Cada segmento cuenta sus registros
+ * pendientes y se borra cuando ya no le queda ninguno y se está escribiendo en otro.
+ */
+final class BlueprintAppendLog implements Closeable {
+
+    private static final Logger log = LoggerFactory.getLogger(BlueprintAppendLog.class);
+    private static final String PREFIX = "appends-";
+    private static final String SUFFIX = ".log";
+    /** Cota de la longitud de un registro al recuperar, para que una longitud corrupta no reserve memoria. */
+    private static final int MAX_RECORD_BYTES = 1 << 28;
+
+    private final Path dir;
+    private final long segmentBytes;
+    private final List<Path> recovered;
+    // Guarded by this
+    private final Map<Long, Integer> live = new HashMap<>();
+    private long segment;
+    private FileChannel channel;
+    /** Número del último registro escrito. */
+    private long written;
+
+    private final Object syncMonitor = new Object();
+    // Guarded by syncMonitor
+    private long synced;
+    private boolean syncing;
+    private long syncs;
+    /** Tras un {@code fsync} fallido no se sabe qué llegó al disco, así que no se confirma nada más. */
+    private volatile IOException syncFailure;
+
+    private BlueprintAppendLog(Path dir, long segmentBytes, List<Path> recovered, long nextSegment) {
+        this.dir = dir;
+        this.segmentBytes = segmentBytes;
+        this.recovered = recovered;
+        this.segment = nextSegment;
+    }
+
+    /** Abre el directorio del registro; los segmentos que ya tenía quedan para {@link #recover()}. */
+    static BlueprintAppendLog open(Path dir, long segmentBytes) throws IOException {
+        Files.createDirectories(dir);
+        List<Path> existing;
+        try (Stream<Path> files = Files.list(dir)) {
+            // Zero-padded numbers sort in the order the segments were written
+            existing = new ArrayList<>(files.filter(f -> segmentNumber(f) >= 0).sorted().toList());
+        }
+        long next = existing.isEmpty() ? 0 : segmentNumber(existing.get(existing.size() - 1)) + 1;
+        return new BlueprintAppendLog(dir, segmentBytes, existing, next);
+    }
+
+    /** Registros de los segmentos que había al abrir, en el orden en que se escribieron. */
+    List<Record> recover() throws IOException {
+        List<Record> records = new ArrayList<>();
+        for (Path file : recovered) {
+            try (DataInputStream in = new DataInputStream(new BufferedInputStream(Files.newInputStream(file)))) {
+                while (true) {
+                    Record record = read(in);
+                    if (record == null) break;
+                    records.add(record);
+                }
+            } catch (CorruptRecordException e) {
+                log.warn("Discarding the rest of {}: {}", file.getFileName(), e.getMessage());
+            }
+        }
+        return records;
+    }
+
+    /** Borra los segmentos recuperados, una vez que sus anexos ya están en la base. */
+    synchronized void discardRecovered() throws IOException {
+        for (Path file : recovered) Files.deleteIfExists(file);
+        recovered.clear();
+    }
+
+    /**
+     * Escribe el anexo de {@code points} a {@code key}, a partir del punto {@code from}, sin esperar al disco;
+     * no está confirmado hasta que {@link #sync} devuelve.
+     */
+    Appended append(BlueprintKey key, int from, PointBuffer points) throws IOException {
+        ByteBuffer record = encode(key, from, points);
+        synchronized (this) {
+            if (syncFailure != null) throw new IOException("Append log unusable after a failed fsync", syncFailure);
+            if (channel == null || (channel.size() > 0 && channel.size() + record.remaining() > segmentBytes)) roll();
+            while (record.hasRemaining()) channel.write(record);
+            live.merge(segment, 1, Integer::sum);
+            return new Appended(segment, ++written);
+        }
+    }
+
+    /**
+     * Espera a que el registro {@code sequence} esté en disco. Un solo hilo hace el {@code fsync} y cubre
+     * todo lo escrito hasta ese momento; los que llegan mientras tanto esperan al siguiente.
+     */
+    void sync(long sequence) throws IOException {
+        synchronized (syncMonitor) {
+            while (synced < sequence) {
+                if (syncFailure != null) throw new IOException("Append log fsync failed", syncFailure);
+                if (!syncing) break;
+                try {
+                    syncMonitor.wait();
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    throw new InterruptedIOException("Interrupted waiting for the append log fsync");
+                }
+            }
+            if (synced >= sequence) return;
+            syncing = true;
+        }
+        long upTo;
+        FileChannel current;
+        synchronized (this) {
+            upTo = written;
+            current = channel;
+        }
+        IOException failure = null;
+        try {
+            // Outside the monitor, so the next group keeps writing while this one reaches the disk
+            if (current != null) current.force(false);
+        } catch (ClosedChannelException e) {
+            // Rolled or closed meanwhile, which forces first: every record up to upTo is already on disk
+        } catch (IOException e) {
+            failure = e;
+        }
+        synchronized (syncMonitor) {
+            syncing = false;
+            if (failure != null) {
+                syncFailure = failure;
+            } else {
+                synced = upTo;
+                syncs++;
+            }
+            syncMonitor.notifyAll();
+        }
+        if (failure != null) throw failure;
+    }
+
+    /** Número de {@code fsync} hechos por {@link #sync}; comparado con el de anexos, muestra cuánto se agrupan. */
+    long syncs() {
+        synchronized (syncMonitor) {
+            return syncs;
+        }
+    }
+
+    /** Marca como escrito en la base un anexo del segmento {@code number}. */
+    synchronized void release(long number) throws IOException {
+        Integer left = live.merge(number, -1, Integer::sum);
+        if (left != null && left == 0) {
+            live.remove(number);
+            if (number != segment) Files.deleteIfExists(segmentPath(number));
+        }
+    }
+
+    @Override
+    public synchronized void close() throws IOException {
+        if (channel != null) {
+            channel.force(false);
+            channel.close();
+        }
+        channel = null;
+    }
+
+    private void roll() throws IOException {
+        if (channel != null) {
+            // A group fsync may still be on its way to this channel; closing it must not leave its records unforced
+            channel.force(false);
+            channel.close();
+            // The segment being left behind may already be fully written to the database
+            if (!live.containsKey(segment)) Files.deleteIfExists(segmentPath(segment));
+            segment++;
+        }
+        channel = FileChannel.open(segmentPath(segment),
+                StandardOpenOption.CREATE, StandardOpenOption.WRITE, StandardOpenOption.APPEND);
+    }
+
+    private Path segmentPath(long number) {
+        return dir.resolve(PREFIX + "%020d".formatted(number) + SUFFIX);
+    }
+
+    private static long segmentNumber(Path file) {
+        String name = file.getFileName().toString();
+        if (!name.startsWith(PREFIX) || !name.endsWith(SUFFIX)) return -1;
+        try {
+            return Long.parseLong(name.substring(PREFIX.length(), name.length() - SUFFIX.length()));
+        } catch (NumberFormatException e) {
+            return -1;
+        }
+    }
+
+    private static ByteBuffer encode(BlueprintKey key, int from, PointBuffer points) throws IOException {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream(32 + 8 * points.size());
+        DataOutputStream out = new DataOutputStream(bytes);
+        out.writeUTF(key.author());
+        out.writeUTF(key.name());
+        out.writeInt(from);
+        out.writeInt(points.size());
+        for (int i = 0; i < points.size(); i++) {
+            out.writeInt(points.x(i));
+            out.writeInt(points.y(i));
+        }
+        byte[] payload = bytes.toByteArray();
+        CRC32 crc = new CRC32();
+        crc.update(payload);
+        return ByteBuffer.allocate(8 + payload.length)
+                .putInt(payload.length)
+                .putInt((int) crc.getValue())
+                .put(payload)
+                .flip();
+    }
+
+    /** El siguiente registro, o {@code null} al final limpio del segmento. */
+    private static Record read(DataInputStream in) throws IOException {
+        int length;
+        try {
+            length = in.readInt();
+        } catch (EOFException e) {
+            return null;
+        }
+        if (length < 0 || length > MAX_RECORD_BYTES) throw new CorruptRecordException("invalid length " + length);
+        int expected;
+        byte[] payload;
+        try {
+            expected = in.readInt();
+            payload = in.readNBytes(length);
+        } catch (EOFException e) {
+            throw new CorruptRecordException("truncated record");
+        }
+        if (payload.length < length) throw new CorruptRecordException("truncated record");
+        CRC32 crc = new CRC32();
+        crc.update(payload);
+        if ((int) crc.getValue() != expected) throw new CorruptRecordException("checksum mismatch");
+        return decode(new ByteArrayInputStream(payload));
+    }
+
+    private static Record decode(InputStream payload) throws IOException {
+        DataInputStream in = new DataInputStream(payload);
+        BlueprintKey key = new BlueprintKey(in.readUTF(), in.readUTF());
+        int from = in.readInt();
+        int count = in.readInt();
+        PointBuffer.Builder points = PointBuffer.builder(count);
+        for (int i = 0; i < count; i++) points.add(in.readInt(), in.readInt());
+        return new Record(key, from, points.build());
+    }
+
+    /** Un anexo escrito: su segmento, que se entrega a {@link #release(long)}, y su número, para {@link #sync}. */
+    record Appended(long segment, long sequence) {}
+
+    /** Un anexo recuperado: {@code points} iban a partir del punto {@code from} de {@code key}. */
+    record Record(BlueprintKey key, int from, PointBuffer points) {}
+
+    private static final class CorruptRecordException extends IOException {
+        CorruptRecordException(String message) {
+            super(message);
+        }
+    }
+}
@@ -0,0 +1,58 @@
+package edu.eci.arsw.blueprints.persistence;
+
+import edu.eci.arsw.blueprints.model.BoundingBox;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.ApplicationArguments;
+import org.springframework.boot.ApplicationRunner;
+import org.springframework.context.annotation.Profile;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+
+/**
+ * Calcula al arranque la caja de los blueprints guardados antes de que existieran las columnas
+ * {@code min_x..max_y}, en las dos tablas. Es idempotente: solo toca las filas con puntos y sin caja,
+ * no cambia su versión, y se desactiva con {@code blueprints.storage.backfill-bounds=false}.
+ */
+@Component
+@Profile("!reactive")
+public class BlueprintBoundsMigration implements ApplicationRunner {
+
+    private static final Logger log = LoggerFactory.getLogger(BlueprintBoundsMigration.class);
+
+    private static final String BACKFILL_POINTS = """
+            update blueprints b set
+                min_x = (select min(p.x) from blueprint_points p where p.blueprint_id = b.id),
+                min_y = (select min(p.y) from blueprint_points p where p.blueprint_id = b.id),
+                max_x = (select max(p.x) from blueprint_points p where p.blueprint_id = b.id),
+                max_y = (select max(p.y) from blueprint_points p where p.blueprint_id = b.id)
+            where b.min_x is null and exists (select 1 from blueprint_points p where p.blueprint_id = b.id)
+            """;
+    private static final String PACKED_WITHOUT_BOUNDS =
+            "select id, points from blueprints_packed where min_x is null and octet_length(points) > 0";
+    private static final String SET_PACKED_BOUNDS =
+            "update blueprints_packed set min_x = ?, min_y = ?, max_x = ?, max_y = ? where id = ? and min_x is null";
+
+    private final JdbcTemplate jdbc;
+    private final boolean enabled;
+
+    public BlueprintBoundsMigration(JdbcTemplate jdbc,
+                                    @Value("${blueprints.storage.backfill-bounds:true}") boolean enabled) {
+        this.jdbc = jdbc;
+        this.enabled = enabled;
+    }
+
+    @Override
+    public void run(ApplicationArguments args) {
+        if (!enabled) return;
+        int filled = jdbc.update(BACKFILL_POINTS);
+        int[] packed = {0};
+        // The packed column can only be decoded here, one row at a time
+        jdbc.query(PACKED_WITHOUT_BOUNDS, rs -> {
+            BoundingBox box = BoundingBox.of(PackedPointsConverter.unpack(rs.getBytes(2)));
+            packed[0] += jdbc.update(SET_PACKED_BOUNDS, box.minX(), box.minY(), box.maxX(), box.maxY(), rs.getLong(1));
+        });
+        if (filled + packed[0] > 0) log.info("Computed bounding boxes of {} blueprints", filled + packed[0]);
+    }
+}
@@ -0,0 +1,90 @@
+package edu.eci.arsw.blueprints.persistence;
+
+import edu.eci.arsw.blueprints.model.Blueprint;
+import edu.eci.arsw.blueprints.model.BoundingBox;
+import edu.eci.arsw.blueprints.model.Point;
+import edu.eci.arsw.blueprints.model.PointBuffer;
+import jakarta.persistence.*;
+import org.hibernate.annotations.BatchSize;
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Fila de {@code blueprints} con sus puntos en {@code blueprint_points}, una fila por punto
+ * ordenada por {@code point_index}.
+ * El modelo de dominio ({@link Blueprint}) guarda los puntos en memoria primitiva; esta clase
+ * solo existe para el mapeo JPA.
+ */
+@Entity
+@Table(name = "blueprints",
+        indexes = {
+                @Index(name = "ux_blueprints_author_name", columnList = "author, name", unique = true),
+                // Range scan on min_x, with the other three bounds checked from the index entries
+                @Index(name = "ix_blueprints_bbox", columnList = "min_x, max_x, min_y, max_y")
+        })
+public class BlueprintEntity {
+    /** Cuántas colecciones de puntos se cargan por consulta {@code IN (...)} cuando no se usa join fetch. */
+    public static final int POINTS_BATCH_SIZE = 100;
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+    private String author;
+    private String name;
+    // Bumped by every write, including the native appends, which never load the entity
+    @Version
+    @Column(columnDefinition = "bigint default 0 not null")
+    private long version;
+    @Column(name = "updated_at")
+    private Instant updatedAt;
+    // Bounding box of the points, null while there are none; the native appends widen it
+    @Column(name = "min_x")
+    private Integer minX;
+    @Column(name = "min_y")
+    private Integer minY;
+    @Column(name = "max_x")
+    private Integer maxX;
+    @Column(name = "max_y")
+    private Integer maxY;
+    @ElementCollection
+    @BatchSize(size = POINTS_BATCH_SIZE)
+    @CollectionTable(name = "blueprint_points", joinColumns = @JoinColumn(name = "blueprint_id"))
+    @OrderColumn(name = "point_index")
+    private final List<Point> points = new ArrayList<>();
+
+    protected BlueprintEntity() {}
+
+    public BlueprintEntity(Blueprint bp) {
+        this.author = bp.getAuthor();
+        this.name = bp.getName();
+        this.points.addAll(bp.getPoints());
+        setBounds(BoundingBox.of(bp.pointBuffer()));
+    }
+
+    private void setBounds(BoundingBox box) {
+        if (box == null) return;
+        minX = box.minX();
+        minY = box.minY();
+        maxX = box.maxX();
+        maxY = box.maxY();
+    }
+
+    @PrePersist
+    @PreUpdate
+    void touch() {
+        updatedAt = Instant.now();
+    }
+
+    public String getAuthor() { return author; }
+    public String getName() { return name; }
+    public List<Point> getPoints() { return points; }
+    public long getVersion() { return version; }
+    public Instant getUpdatedAt() { return updatedAt; }
+    public BoundingBox getBounds() { return minX == null ? null : new BoundingBox(minX, minY, maxX, maxY); }
+
+    public Blueprint toBlueprint() {
+        return new Blueprint(author, name, PointBuffer.of(points));
+    }
+}
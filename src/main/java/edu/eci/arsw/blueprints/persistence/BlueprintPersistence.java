@@ -1,8 +1,19 @@
 package edu.eci.arsw.blueprints.persistence;
 
 import edu.eci.arsw.blueprints.model.Blueprint;
+import edu.eci.arsw.blueprints.model.BlueprintBounds;
+import edu.eci.arsw.blueprints.model.BlueprintKey;
+import edu.eci.arsw.blueprints.model.BlueprintVersion;
+import edu.eci.arsw.blueprints.model.BoundingBox;
+import edu.eci.arsw.blueprints.model.Point;
+import edu.eci.arsw.blueprints.model.PointBuffer;
+import edu.eci.arsw.blueprints.model.PointsDelta;
+import org.springframework.dao.OptimisticLockingFailureException;
 
+import java.util.Collection;
+import java.util.List;
 import java.util.Set;
+import java.util.function.Consumer;
 
 public interface BlueprintPersistence {
 
@@ -10,9 +21,97 @@ public interface BlueprintPersistence {
 
     Blueprint getBlueprint(String author, String name) throws BlueprintNotFoundException;
 
+    /** Current version of the blueprint, read without loading its points. */
+    BlueprintVersion getVersion(String author, String name) throws BlueprintNotFoundException;
+
+    /**
+     * Points from index {@code since} to the end, read as a range instead of loading the whole list,
+     * together with the total point count and the version they were read at.
+     * An index at or past the end yields no points.
+     */
+    PointsDelta getPointsSince(String author, String name, int since) throws BlueprintNotFoundException;
+
+    /**
+     * Blueprints whose bounding box intersects {@code window}, ordered by (author, name), answered from
+     * the stored boxes without reading any points. Blueprints without points have no box and never match.
+     */
+    List<BlueprintBounds> findIntersecting(BoundingBox window);
+
+    /** Points of the blueprint that fall inside {@code window}, edges included, in their original order. */
+    List<Point> getPointsInside(String author, String name, BoundingBox window) throws BlueprintNotFoundException;
+
     Set<Blueprint> getBlueprintsByAuthor(String author) throws BlueprintNotFoundException;
 
     Set<Blueprint> getAllBlueprints();
 
+    /**
+     * Keyset pagination ordered by (author, name).
+     * @param after last key of the previous page, or {@code null} for the first page
+     * @param limit maximum number of blueprints to return
+     */
+    List<Blueprint> getBlueprintsPage(BlueprintKey after, int limit);
+
+    /**
+     * Hands every blueprint, ordered by (author, name), to {@code action} as it is read,
+     * without materializing the whole collection.
+     */
+    void forEachBlueprint(Consumer<Blueprint> action);
+
     void addPoint(String author, String name, int x, int y) throws BlueprintNotFoundException;
+
+    /** Appends {@code points}, in iteration order, as one batch. */
+    void addPoints(String author, String name, Collection<Point> points) throws BlueprintNotFoundException;
+
+    /**
+     * Like {@link #addPoints(String, String, Collection)}, but only while the blueprint is still at
+     * {@code expectedVersion}; every successful append moves it to the next version.
+     * @throws OptimisticLockingFailureException if another write got there first
+     */
+    void addPoints(String author, String name, Collection<Point> points, long expectedVersion)
+            throws BlueprintNotFoundException;
+
+    /**
+     * Like {@link #addPoint}, but may return before the append is durable: reads see it at once, and it is
+     * durable when the returned {@link Durability#await()} returns. Callers holding a lock release it before
+     * awaiting, so concurrent appends can share one flush to disk. By default the append is already durable.
+     */
+    default Durability addPointDeferred(String author, String name, int x, int y) throws BlueprintNotFoundException {
+        addPoint(author, name, x, y);
+        return Durability.DURABLE;
+    }
+
+    /** Like {@link #addPointDeferred}, for {@link #addPoints(String, String, Collection)}. */
+    default Durability addPointsDeferred(String author, String name, Collection<Point> points)
+            throws BlueprintNotFoundException {
+        addPoints(author, name, points);
+        return Durability.DURABLE;
+    }
+
+    /** Like {@link #addPointDeferred}, for {@link #addPoints(String, String, Collection, long)}. */
+    default Durability addPointsDeferred(String author, String name, Collection<Point> points, long expectedVersion)
+            throws BlueprintNotFoundException {
+        addPoints(author, name, points, expectedVersion);
+        return Durability.DURABLE;
+    }
+
+    /**
+     * Appends several batches, in order, in a single write (a group commit). The result is the same as
+     * calling {@link #addPoints(String, String, Collection)} once per batch: the version advances once for
+     * every non-empty batch.
+     */
+    void addPointBatches(String author, String name, List<PointBuffer> batches) throws BlueprintNotFoundException;
+
+    /** Durability of an append that has already been accepted and is visible to reads. */
+    @FunctionalInterface
+    interface Durability {
+
+        Durability DURABLE = () -> {};
+
+        /**
+         * Returns once the append is durable.
+         * @throws org.springframework.dao.DataAccessException if it could not be made durable; the append
+         *         itself stays accepted
+         */
+        void await();
+    }
 }
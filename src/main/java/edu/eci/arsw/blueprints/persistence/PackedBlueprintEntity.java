@@ -0,0 +1,74 @@
+package edu.eci.arsw.blueprints.persistence;
+
+import edu.eci.arsw.blueprints.model.Blueprint;
+import edu.eci.arsw.blueprints.model.BoundingBox;
+import edu.eci.arsw.blueprints.model.PointBuffer;
+import jakarta.persistence.*;
+
+import java.time.Instant;
+
+/**
+ * Fila de {@code blueprints_packed}: el blueprint con todos sus puntos en una única columna {@code bytea}.
+ * Se carga con un solo fetch de fila, sin una fila ni un objeto gestionado por punto.
+ */
+@Entity
+@Table(name = "blueprints_packed",
+        indexes = {
+                @Index(name = "ux_blueprints_packed_author_name", columnList = "author, name", unique = true),
+                // Range scan on min_x, with the other three bounds checked from the index entries
+                @Index(name = "ix_blueprints_packed_bbox", columnList = "min_x, max_x, min_y, max_y")
+        })
+public class PackedBlueprintEntity {
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+    private String author;
+    private String name;
+    @Version
+    @Column(columnDefinition = "bigint default 0 not null")
+    private long version;
+    @Column(name = "updated_at")
+    private Instant updatedAt;
+    // Bounding box of the points, null while there are none; the native appends widen it
+    @Column(name = "min_x")
+    private Integer minX;
+    @Column(name = "min_y")
+    private Integer minY;
+    @Column(name = "max_x")
+    private Integer maxX;
+    @Column(name = "max_y")
+    private Integer maxY;
+    @Convert(converter = PackedPointsConverter.class)
+    @Column(name = "points", columnDefinition = "bytea", nullable = false)
+    private PointBuffer points = new PointBuffer();
+
+    protected PackedBlueprintEntity() {}
+
+    public PackedBlueprintEntity(Blueprint bp) {
+        this.author = bp.getAuthor();
+        this.name = bp.getName();
+        this.points = bp.pointBuffer().copy();
+        BoundingBox box = BoundingBox.of(this.points);
+        if (box != null) {
+            minX = box.minX();
+            minY = box.minY();
+            maxX = box.maxX();
+            maxY = box.maxY();
+        }
+    }
+
+    @PrePersist
+    @PreUpdate
+    void touch() {
+        updatedAt = Instant.now();
+    }
+
+    public String getAuthor() { return author; }
+    public String getName() { return name; }
+    public long getVersion() { return version; }
+    public Instant getUpdatedAt() { return updatedAt; }
+
+    public Blueprint toBlueprint() {
+        return new Blueprint(author, name, points.copy());
+    }
+}
@@ -0,0 +1,252 @@
+package edu.eci.arsw.blueprints.persistence;
+
+import edu.eci.arsw.blueprints.model.Blueprint;
+import edu.eci.arsw.blueprints.model.BlueprintBounds;
+import edu.eci.arsw.blueprints.model.BlueprintKey;
+import edu.eci.arsw.blueprints.model.BlueprintVersion;
+import edu.eci.arsw.blueprints.model.BoundingBox;
+import edu.eci.arsw.blueprints.model.Point;
+import edu.eci.arsw.blueprints.model.PointBuffer;
+import edu.eci.arsw.blueprints.model.PointsDelta;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.Query;
+import org.springframework.context.annotation.Primary;
+import org.springframework.context.annotation.Profile;
+import org.springframework.dao.OptimisticLockingFailureException;
+import org.springframework.data.domain.Limit;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.nio.ByteBuffer;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Set;
+import java.util.function.Consumer;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+/**
+ * Persistencia en PostgreSQL con los puntos empaquetados en una columna (tabla {@code blueprints_packed}).
+ * Perfil: "packed"
+ */
+@Repository
+@Primary
+@Profile("packed & !reactive")
+public class PackedBlueprintPersistence implements BlueprintPersistence {
+
+    private static final String POINTS_SINCE = """
+            select version, octet_length(points), substring(points from :from)
+            from blueprints_packed where author = :author and name = :name
+            """;
+    private static final String INTERSECTING = """
+            select author, name, min_x, min_y, max_x, max_y from blueprints_packed
+            where min_x <= :maxX and max_x >= :minX and min_y <= :maxY and max_y >= :minY
+            order by author, name
+            """;
+    // The column is only shipped when the box says some point may fall inside the window
+    private static final String POINTS_IF_INTERSECTING = """
+            select case when min_x <= :maxX and max_x >= :minX and min_y <= :maxY and max_y >= :minY
+                        then points end
+            from blueprints_packed where author = :author and name = :name
+            """;
+
+    private final PackedBlueprintRepository repo;
+    private final EntityManager entityManager;
+
+    public PackedBlueprintPersistence(PackedBlueprintRepository repo, EntityManager entityManager) {
+        this.repo = repo;
+        this.entityManager = entityManager;
+    }
+
+    @Override
+    public void saveBlueprint(Blueprint bp) throws BlueprintPersistenceException {
+        if (repo.existsByAuthorAndName(bp.getAuthor(), bp.getName())) {
+            throw new BlueprintPersistenceException("Blueprint already exists: "
+                    + bp.getAuthor() + "/" + bp.getName());
+        }
+        repo.save(new PackedBlueprintEntity(bp));
+    }
+
+    @Override
+    public Blueprint getBlueprint(String author, String name) throws BlueprintNotFoundException {
+        return findEntity(author, name).toBlueprint();
+    }
+
+    private PackedBlueprintEntity findEntity(String author, String name) throws BlueprintNotFoundException {
+        return repo.findByAuthorAndName(author, name)
+                .orElseThrow(() -> new BlueprintNotFoundException(
+                        "Blueprint not found: %s/%s".formatted(author, name)));
+    }
+
+    @Override
+    public BlueprintVersion getVersion(String author, String name) throws BlueprintNotFoundException {
+        return repo.findVersionByAuthorAndName(author, name)
+                .orElseThrow(() -> new BlueprintNotFoundException(
+                        "Blueprint not found: %s/%s".formatted(author, name)));
+    }
+
+    /** Lee solo el tramo de la columna a partir del punto {@code since}; el ancho fijo da su desplazamiento. */
+    @Override
+    public PointsDelta getPointsSince(String author, String name, int since) throws BlueprintNotFoundException {
+        List<?> rows = entityManager.createNativeQuery(POINTS_SINCE)
+                .setParameter("from", (long) since * PackedPointsConverter.BYTES_PER_POINT + 1)
+                .setParameter("author", author)
+                .setParameter("name", name)
+                .getResultList();
+        if (rows.isEmpty()) throw new BlueprintNotFoundException("Blueprint not found: %s/%s".formatted(author, name));
+        Object[] row = (Object[]) rows.get(0);
+        int total = (int) (((Number) row[1]).longValue() / PackedPointsConverter.BYTES_PER_POINT);
+        return new PointsDelta(since, total, ((Number) row[0]).longValue(), PackedPointsConverter.unpack((byte[]) row[2]));
+    }
+
+    @Override
+    public List<BlueprintBounds> findIntersecting(BoundingBox window) {
+        List<?> rows = window(entityManager.createNativeQuery(INTERSECTING), window).getResultList();
+        return rows.stream().map(r -> {
+            Object[] row = (Object[]) r;
+            return new BlueprintBounds((String) row[0], (String) row[1], new BoundingBox(((Number) row[2]).intValue(),
+                    ((Number) row[3]).intValue(), ((Number) row[4]).intValue(), ((Number) row[5]).intValue()));
+        }).toList();
+    }
+
+    /** La caja se compara en la base; los puntos de dentro se separan aquí, al desempaquetar la columna. */
+    @Override
+    public List<Point> getPointsInside(String author, String name, BoundingBox window) throws BlueprintNotFoundException {
+        List<?> rows = window(entityManager.createNativeQuery(POINTS_IF_INTERSECTING), window)
+                .setParameter("author", author)
+                .setParameter("name", name)
+                .getResultList();
+        if (rows.isEmpty()) throw new BlueprintNotFoundException("Blueprint not found: %s/%s".formatted(author, name));
+        byte[] packed = (byte[]) rows.get(0);
+        if (packed == null) return List.of();
+        List<Point> inside = new ArrayList<>();
+        PackedPointsConverter.unpack(packed).forEach((x, y) -> {
+            if (window.contains(x, y)) inside.add(new Point(x, y));
+        });
+        return inside;
+    }
+
+    private static Query window(Query query, BoundingBox window) {
+        return query.setParameter("minX", window.minX())
+                .setParameter("minY", window.minY())
+                .setParameter("maxX", window.maxX())
+                .setParameter("maxY", window.maxY());
+    }
+
+    @Override
+    public Set<Blueprint> getBlueprintsByAuthor(String author) throws BlueprintNotFoundException {
+        List<PackedBlueprintEntity> list = repo.findByAuthor(author);
+        if (list.isEmpty()) throw new BlueprintNotFoundException(
+                "No blueprints for author: " + author);
+        return list.stream().map(PackedBlueprintEntity::toBlueprint).collect(Collectors.toSet());
+    }
+
+    @Override
+    public Set<Blueprint> getAllBlueprints() {
+        return repo.findAll().stream().map(PackedBlueprintEntity::toBlueprint).collect(Collectors.toSet());
+    }
+
+    @Override
+    public List<Blueprint> getBlueprintsPage(BlueprintKey after, int limit) {
+        List<PackedBlueprintEntity> page = after == null
+                ? repo.findAllByOrderByAuthorAscNameAsc(Limit.of(limit))
+                : repo.findPageAfter(after.author(), after.name(), Limit.of(limit));
+        return page.stream().map(PackedBlueprintEntity::toBlueprint).toList();
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public void forEachBlueprint(Consumer<Blueprint> action) {
+        try (Stream<PackedBlueprintEntity> stream = repo.streamAllOrdered()) {
+            stream.forEach(entity -> {
+                entityManager.detach(entity);
+                action.accept(entity.toBlueprint());
+            });
+        }
+    }
+
+    /**
+     * Anexa el punto concatenando sus 8 bytes a la columna en un solo UPDATE, sin cargar la entidad.
+     * La fila se bloquea antes para que los anexos concurrentes se apliquen uno tras otro;
+     * el mismo UPDATE sube la versión.
+     */
+    @Override
+    @Transactional
+    public void addPoint(String author, String name, int x, int y) throws BlueprintNotFoundException {
+        repo.appendPacked(lockId(author, name),
+                ByteBuffer.allocate(PackedPointsConverter.BYTES_PER_POINT).putInt(x).putInt(y).array(), 1, Instant.now(),
+                x, y, x, y);
+    }
+
+    /** Todo el lote se concatena en un único UPDATE. */
+    @Override
+    @Transactional
+    public void addPoints(String author, String name, Collection<Point> points) throws BlueprintNotFoundException {
+        long id = lockId(author, name);
+        if (!points.isEmpty()) append(id, points, 1);
+    }
+
+    /** La versión se compara con la fila ya bloqueada, así que nadie puede adelantarse entre la comprobación y el UPDATE. */
+    @Override
+    @Transactional
+    public void addPoints(String author, String name, Collection<Point> points, long expectedVersion)
+            throws BlueprintNotFoundException {
+        long id = lockId(author, name);
+        long current = repo.versionOf(id);
+        if (current != expectedVersion) {
+            throw new OptimisticLockingFailureException("Blueprint %s/%s is at version %d, not %d"
+                    .formatted(author, name, current, expectedVersion));
+        }
+        if (!points.isEmpty()) append(id, points, 1);
+    }
+
+    /** Los lotes se concatenan en un único UPDATE que sube la versión una vez por lote. */
+    @Override
+    @Transactional
+    public void addPointBatches(String author, String name, List<PointBuffer> batches) throws BlueprintNotFoundException {
+        long id = lockId(author, name);
+        int appends = (int) batches.stream().filter(b -> !b.isEmpty()).count();
+        if (appends > 0) append(id, PointBuffer.concat(batches).asList(), appends);
+    }
+
+    /**
+     * Un anexo ya es durable al confirmar su transacción. Se sobrescriben solo para abrirla aquí: la versión
+     * por defecto llama a {@link #addPoints} sobre la misma instancia, sin pasar por el proxy transaccional.
+     */
+    @Override
+    @Transactional
+    public Durability addPointDeferred(String author, String name, int x, int y) throws BlueprintNotFoundException {
+        addPoint(author, name, x, y);
+        return Durability.DURABLE;
+    }
+
+    @Override
+    @Transactional
+    public Durability addPointsDeferred(String author, String name, Collection<Point> points)
+            throws BlueprintNotFoundException {
+        addPoints(author, name, points);
+        return Durability.DURABLE;
+    }
+
+    @Override
+    @Transactional
+    public Durability addPointsDeferred(String author, String name, Collection<Point> points, long expectedVersion)
+            throws BlueprintNotFoundException {
+        addPoints(author, name, points, expectedVersion);
+        return Durability.DURABLE;
+    }
+
+    private void append(long id, Collection<Point> points, int appends) {
+        BoundingBox box = BoundingBox.of(PointBuffer.of(points));
+        repo.appendPacked(id, PackedPointsConverter.pack(points), appends, Instant.now(),
+                box.minX(), box.minY(), box.maxX(), box.maxY());
+    }
+
+    private long lockId(String author, String name) throws BlueprintNotFoundException {
+        return repo.lockIdByAuthorAndName(author, name)
+                .orElseThrow(() -> new BlueprintNotFoundException(
+                        "Blueprint not found: %s/%s".formatted(author, name)));
+    }
+}
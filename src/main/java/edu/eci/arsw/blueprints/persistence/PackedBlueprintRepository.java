@@ -0,0 +1,65 @@
+package edu.eci.arsw.blueprints.persistence;
+
+import edu.eci.arsw.blueprints.model.BlueprintVersion;
+import jakarta.persistence.QueryHint;
+import org.springframework.data.domain.Limit;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
+
+import java.time.Instant;
+import java.util.List;
+import java.util.Optional;
+import java.util.stream.Stream;
+
+import static org.hibernate.jpa.HibernateHints.HINT_FETCH_SIZE;
+
+public interface PackedBlueprintRepository extends JpaRepository<PackedBlueprintEntity, Long> {
+    Optional<PackedBlueprintEntity> findByAuthorAndName(String author, String name);
+    List<PackedBlueprintEntity> findByAuthor(String author);
+    boolean existsByAuthorAndName(String author, String name);
+
+    @Query("""
+            select new edu.eci.arsw.blueprints.model.BlueprintVersion(b.version, b.updatedAt)
+            from PackedBlueprintEntity b where b.author = :author and b.name = :name
+            """)
+    Optional<BlueprintVersion> findVersionByAuthorAndName(@Param("author") String author, @Param("name") String name);
+
+    List<PackedBlueprintEntity> findAllByOrderByAuthorAscNameAsc(Limit limit);
+
+    @Query("""
+            select b from PackedBlueprintEntity b
+            where b.author > :author or (b.author = :author and b.name > :name)
+            order by b.author, b.name
+            """)
+    List<PackedBlueprintEntity> findPageAfter(@Param("author") String author, @Param("name") String name, Limit limit);
+
+    @QueryHints(@QueryHint(name = HINT_FETCH_SIZE, value = "256"))
+    @Query("select b from PackedBlueprintEntity b order by b.author, b.name")
+    Stream<PackedBlueprintEntity> streamAllOrdered();
+
+    /** Locks the blueprint row so concurrent appends to it are serialized. */
+    @Query(value = "select id from blueprints_packed where author = :author and name = :name for update",
+            nativeQuery = true)
+    Optional<Long> lockIdByAuthorAndName(@Param("author") String author, @Param("name") String name);
+
+    /**
+     * Concatenates already packed points to the end of the column, widens the bounding box to the points'
+     * {@code minX..maxX, minY..maxY} and moves the row {@code appends} versions forward, one per batch.
+     */
+    @Modifying
+    @Query(value = """
+            update blueprints_packed set points = points || cast(:packed as bytea), version = version + :appends, updated_at = :now,
+                min_x = least(coalesce(min_x, :minX), :minX), min_y = least(coalesce(min_y, :minY), :minY),
+                max_x = greatest(coalesce(max_x, :maxX), :maxX), max_y = greatest(coalesce(max_y, :maxY), :maxY)
+            where id = :id
+            """, nativeQuery = true)
+    void appendPacked(@Param("id") long id, @Param("packed") byte[] packed, @Param("appends") int appends,
+                      @Param("now") Instant now,
+                      @Param("minX") int minX, @Param("minY") int minY, @Param("maxX") int maxX, @Param("maxY") int maxY);
+
+    @Query(value = "select version from blueprints_packed where id = :id", nativeQuery = true)
+    long versionOf(@Param("id") long id);
+}
@@ -0,0 +1,49 @@
+package edu.eci.arsw.blueprints.persistence;
+
+import edu.eci.arsw.blueprints.model.Point;
+import edu.eci.arsw.blueprints.model.PointBuffer;
+import jakarta.persistence.AttributeConverter;
+import jakarta.persistence.Converter;
+
+import java.nio.ByteBuffer;
+import java.util.Collection;
+
+/**
+ * Empaqueta la lista de puntos en una sola columna binaria: 8 bytes por punto (x, y como int big-endian).
+ * El ancho fijo permite anexar puntos concatenando bytes y leer un rango por desplazamiento.
+ */
+@Converter
+public class PackedPointsConverter implements AttributeConverter<PointBuffer, byte[]> {
+
+    public static final int BYTES_PER_POINT = 2 * Integer.BYTES;
+
+    /** Empaqueta puntos sueltos en el mismo formato, para anexarlos a una columna existente. */
+    public static byte[] pack(Collection<Point> points) {
+        ByteBuffer buf = ByteBuffer.allocate(points.size() * BYTES_PER_POINT);
+        for (Point p : points) buf.putInt(p.x()).putInt(p.y());
+        return buf.array();
+    }
+
+    @Override
+    public byte[] convertToDatabaseColumn(PointBuffer points) {
+        if (points == null) return new byte[0];
+        PointBuffer fixed = points.snapshot();
+        ByteBuffer buf = ByteBuffer.allocate(fixed.size() * BYTES_PER_POINT);
+        fixed.forEach((x, y) -> buf.putInt(x).putInt(y));
+        return buf.array();
+    }
+
+    @Override
+    public PointBuffer convertToEntityAttribute(byte[] packed) {
+        return unpack(packed);
+    }
+
+    /** Desempaqueta una columna completa o cualquier tramo que empiece en el límite de un punto. */
+    public static PointBuffer unpack(byte[] packed) {
+        if (packed == null) return new PointBuffer();
+        ByteBuffer buf = ByteBuffer.wrap(packed);
+        PointBuffer.Builder points = PointBuffer.builder(packed.length / BYTES_PER_POINT);
+        while (buf.remaining() >= BYTES_PER_POINT) points.add(buf.getInt(), buf.getInt());
+        return points.build();
+    }
+}
@@ -0,0 +1,72 @@
+package edu.eci.arsw.blueprints.persistence;
+
+import edu.eci.arsw.blueprints.model.BlueprintKey;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.ApplicationArguments;
+import org.springframework.boot.ApplicationRunner;
+import org.springframework.context.annotation.Profile;
+import org.springframework.data.domain.Limit;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.List;
+
+/**
+ * Copia al arranque los blueprints de las tablas {@code blueprints}/{@code blueprint_points}
+ * que aún no existen en {@code blueprints_packed}. Es idempotente: se puede dejar activa
+ * mientras conviven ambos esquemas y desactivar con {@code blueprints.storage.migrate-legacy=false}.
+ * Perfil: "packed"
+ */
+@Component
+@Profile("packed & !reactive")
+public class PackedPointsMigration implements ApplicationRunner {
+
+    private static final Logger log = LoggerFactory.getLogger(PackedPointsMigration.class);
+
+    private final PersistentBlueprintRepository legacy;
+    private final PackedBlueprintRepository packed;
+    private final TransactionTemplate tx;
+    private final boolean enabled;
+
+    public PackedPointsMigration(PersistentBlueprintRepository legacy, PackedBlueprintRepository packed,
+                                 TransactionTemplate tx,
+                                 @Value("${blueprints.storage.migrate-legacy:true}") boolean enabled) {
+        this.legacy = legacy;
+        this.packed = packed;
+        this.tx = tx;
+        this.enabled = enabled;
+    }
+
+    @Override
+    public void run(ApplicationArguments args) {
+        if (!enabled) return;
+        int migrated = 0;
+        Batch batch = new Batch(null, 0);
+        do {
+            BlueprintKey after = batch.last();
+            batch = tx.execute(status -> migratePage(after));
+            migrated += batch.copied();
+        } while (batch.last() != null);
+        if (migrated > 0) log.info("Migrated {} blueprints to packed point storage", migrated);
+    }
+
+    private Batch migratePage(BlueprintKey after) {
+        Limit limit = Limit.of(BlueprintEntity.POINTS_BATCH_SIZE);
+        List<BlueprintEntity> page = after == null
+                ? legacy.findAllByOrderByAuthorAscNameAsc(limit)
+                : legacy.findPageAfter(after.author(), after.name(), limit);
+        if (page.isEmpty()) return new Batch(null, 0);
+        List<PackedBlueprintEntity> missing = page.stream()
+                .filter(e -> !packed.existsByAuthorAndName(e.getAuthor(), e.getName()))
+                .map(e -> new PackedBlueprintEntity(e.toBlueprint()))
+                .toList();
+        packed.saveAll(missing);
+        BlueprintEntity last = page.get(page.size() - 1);
+        return new Batch(new BlueprintKey(last.getAuthor(), last.getName()), missing.size());
+    }
+
+    /** Última clave leída de la tabla origen ({@code null} al agotarla) y filas copiadas en la página. */
+    private record Batch(BlueprintKey last, int copied) {}
+}
@@ -1,12 +1,97 @@
 package edu.eci.arsw.blueprints.persistence;
 
-import edu.eci.arsw.blueprints.model.Blueprint;
+import edu.eci.arsw.blueprints.model.BlueprintVersion;
+import jakarta.persistence.QueryHint;
+import org.springframework.data.domain.Limit;
+import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
 
+import java.time.Instant;
 import java.util.List;
 import java.util.Optional;
+import java.util.stream.Stream;
 
-public interface PersistentBlueprintRepository extends JpaRepository<Blueprint, Long> {
-    Optional<Blueprint> findByAuthorAndName(String author, String name);
-    List<Blueprint> findByAuthor(String author);
+import static org.hibernate.jpa.HibernateHints.HINT_FETCH_SIZE;
+
+public interface PersistentBlueprintRepository extends JpaRepository<BlueprintEntity, Long> {
+    @EntityGraph(attributePaths = "points")
+    Optional<BlueprintEntity> findByAuthorAndName(String author, String name);
+
+    @EntityGraph(attributePaths = "points")
+    List<BlueprintEntity> findByAuthor(String author);
+
+    @Override
+    @EntityGraph(attributePaths = "points")
+    List<BlueprintEntity> findAll();
+
+    boolean existsByAuthorAndName(String author, String name);
+
+    @Query("""
+            select new edu.eci.arsw.blueprints.model.BlueprintVersion(b.version, b.updatedAt)
+            from BlueprintEntity b where b.author = :author and b.name = :name
+            """)
+    Optional<BlueprintVersion> findVersionByAuthorAndName(@Param("author") String author, @Param("name") String name);
+
+    // Pages and streams cannot join fetch a collection under a row limit; their points are
+    // batch loaded instead (see @BatchSize on BlueprintEntity.points)
+    List<BlueprintEntity> findAllByOrderByAuthorAscNameAsc(Limit limit);
+
+    @Query("""
+            select b from BlueprintEntity b
+            where b.author > :author or (b.author = :author and b.name > :name)
+            order by b.author, b.name
+            """)
+    List<BlueprintEntity> findPageAfter(@Param("author") String author, @Param("name") String name, Limit limit);
+
+    @QueryHints(@QueryHint(name = HINT_FETCH_SIZE, value = "256"))
+    @Query("select b from BlueprintEntity b order by b.author, b.name")
+    Stream<BlueprintEntity> streamAllOrdered();
+
+    /** Locks the blueprint row so concurrent appends to it are serialized. */
+    @Query(value = "select id from blueprints where author = :author and name = :name for update", nativeQuery = true)
+    Optional<Long> lockIdByAuthorAndName(@Param("author") String author, @Param("name") String name);
+
+    /**
+     * Moves the blueprint {@code appends} versions forward (one per appended batch) and widens its bounding
+     * box to cover the appended points, whose own box is {@code minX..maxX, minY..maxY}. The updated row
+     * stays locked until commit, so it also serializes concurrent appends to the blueprint.
+     * Returns 0 when it does not exist.
+     */
+    @Modifying
+    @Query(value = """
+            update blueprints set version = version + :appends, updated_at = :now,
+                min_x = least(coalesce(min_x, :minX), :minX), min_y = least(coalesce(min_y, :minY), :minY),
+                max_x = greatest(coalesce(max_x, :maxX), :maxX), max_y = greatest(coalesce(max_y, :maxY), :maxY)
+            where author = :author and name = :name
+            """, nativeQuery = true)
+    int bumpVersion(@Param("author") String author, @Param("name") String name, @Param("appends") int appends,
+                    @Param("now") Instant now, @Param("minX") int minX, @Param("minY") int minY, @Param("maxX") int maxX, @Param("maxY") int maxY);
+
+    /** Same as {@link #bumpVersion} for one batch, but only while the blueprint is still at {@code expected}. */
+    @Modifying
+    @Query(value = """
+            update blueprints set version = version + 1, updated_at = :now,
+                min_x = least(coalesce(min_x, :minX), :minX), min_y = least(coalesce(min_y, :minY), :minY),
+                max_x = greatest(coalesce(max_x, :maxX), :maxX), max_y = greatest(coalesce(max_y, :maxY), :maxY)
+            where author = :author and name = :name and version = :expected
+            """, nativeQuery = true)
+    int bumpVersionIf(@Param("author") String author, @Param("name") String name,
+                      @Param("expected") long expected, @Param("now") Instant now,
+                      @Param("minX") int minX, @Param("minY") int minY, @Param("maxX") int maxX, @Param("maxY") int maxY);
+
+    @Modifying
+    @Query(value = """
+            insert into blueprint_points (blueprint_id, point_index, x, y)
+            select b.id, (select coalesce(max(p.point_index) + 1, 0) from blueprint_points p where p.blueprint_id = b.id), :x, :y
+            from blueprints b where b.author = :author and b.name = :name
+            """, nativeQuery = true)
+    void appendPoint(@Param("author") String author, @Param("name") String name, @Param("x") int x, @Param("y") int y);
+
+    @Query(value = "select coalesce(max(point_index) + 1, 0) from blueprint_points where blueprint_id = :id",
+            nativeQuery = true)
+    int nextPointIndex(@Param("id") long id);
 }
@@ -1,57 +1,300 @@
 package edu.eci.arsw.blueprints.persistence;
 
 import edu.eci.arsw.blueprints.model.Blueprint;
+import edu.eci.arsw.blueprints.model.BlueprintBounds;
+import edu.eci.arsw.blueprints.model.BlueprintKey;
+import edu.eci.arsw.blueprints.model.BlueprintVersion;
+import edu.eci.arsw.blueprints.model.BoundingBox;
 import edu.eci.arsw.blueprints.model.Point;
+import edu.eci.arsw.blueprints.model.PointBuffer;
+import edu.eci.arsw.blueprints.model.PointsDelta;
+import jakarta.persistence.EntityManager;
 import org.springframework.context.annotation.Primary;
+import org.springframework.context.annotation.Profile;
+import org.springframework.dao.OptimisticLockingFailureException;
+import org.springframework.data.domain.Limit;
+import org.springframework.jdbc.core.JdbcTemplate;
 import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
 
-import java.util.HashSet;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Collection;
 import java.util.List;
 import java.util.Set;
+import java.util.function.Consumer;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
 
 @Repository
 @Primary
+@Profile("!packed & !reactive")
 public class PostgresBlueprintPersistence implements BlueprintPersistence {
 
+    private static final String INSERT_POINT =
+            "insert into blueprint_points (blueprint_id, point_index, x, y) values (?, ?, ?, ?)";
+    private static final int INSERT_BATCH_SIZE = 500;
+    // Version, total and tail come from one statement, so they always describe the same state;
+    // the range and the max() are both answered from the (blueprint_id, point_index) key
+    private static final String POINTS_SINCE = """
+            select b.version,
+                   (select coalesce(max(c.point_index) + 1, 0) from blueprint_points c where c.blueprint_id = b.id),
+                   p.x, p.y
+            from blueprints b left join blueprint_points p on p.blueprint_id = b.id and p.point_index >= ?
+            where b.author = ? and b.name = ?
+            order by p.point_index
+            """;
+    // The range on min_x is read from ix_blueprints_bbox, which also carries the other three bounds
+    private static final String INTERSECTING = """
+            select author, name, min_x, min_y, max_x, max_y from blueprints
+            where min_x <= ? and max_x >= ? and min_y <= ? and max_y >= ?
+            order by author, name
+            """;
+    // Blueprints whose box misses the window are discarded before their points are touched
+    private static final String POINTS_INSIDE = """
+            select p.x, p.y
+            from blueprints b join blueprint_points p on p.blueprint_id = b.id
+            where b.author = ? and b.name = ?
+              and b.min_x <= ? and b.max_x >= ? and b.min_y <= ? and b.max_y >= ?
+              and p.x between ? and ? and p.y between ? and ?
+            order by p.point_index
+            """;
+
     private final PersistentBlueprintRepository repo;
+    private final EntityManager entityManager;
+    private final JdbcTemplate jdbc;
 
-    public PostgresBlueprintPersistence(PersistentBlueprintRepository repo) {
+    public PostgresBlueprintPersistence(PersistentBlueprintRepository repo, EntityManager entityManager,
+                                        JdbcTemplate jdbc) {
         this.repo = repo;
+        this.entityManager = entityManager;
+        this.jdbc = jdbc;
     }
 
     @Override
     public void saveBlueprint(Blueprint bp) throws BlueprintPersistenceException {
-        if (repo.findByAuthorAndName(bp.getAuthor(), bp.getName()).isPresent()) {
+        if (repo.existsByAuthorAndName(bp.getAuthor(), bp.getName())) {
             throw new BlueprintPersistenceException("Blueprint already exists: "
                     + bp.getAuthor() + "/" + bp.getName());
         }
-        repo.save(bp);
+        repo.save(new BlueprintEntity(bp));
     }
 
     @Override
     public Blueprint getBlueprint(String author, String name) throws BlueprintNotFoundException {
+        return findEntity(author, name).toBlueprint();
+    }
+
+    private BlueprintEntity findEntity(String author, String name) throws BlueprintNotFoundException {
         return repo.findByAuthorAndName(author, name)
                 .orElseThrow(() -> new BlueprintNotFoundException(
                         "Blueprint not found: %s/%s".formatted(author, name)));
     }
 
+    @Override
+    public BlueprintVersion getVersion(String author, String name) throws BlueprintNotFoundException {
+        return repo.findVersionByAuthorAndName(author, name)
+                .orElseThrow(() -> notFound(author, name));
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public PointsDelta getPointsSince(String author, String name, int since) throws BlueprintNotFoundException {
+        long[] header = {-1, 0};
+        PointBuffer.Builder tail = PointBuffer.builder(16);
+        jdbc.query(POINTS_SINCE, rs -> {
+            header[0] = rs.getLong(1);
+            header[1] = rs.getInt(2);
+            int x = rs.getInt(3);
+            // A blueprint with nothing past since still comes back as one row with null coordinates
+            if (!rs.wasNull()) tail.add(x, rs.getInt(4));
+        }, since, author, name);
+        if (header[0] < 0) throw notFound(author, name);
+        return new PointsDelta(since, (int) header[1], header[0], tail.build());
+    }
+
+    @Override
+    public List<BlueprintBounds> findIntersecting(BoundingBox window) {
+        return jdbc.query(INTERSECTING, (rs, row) -> new BlueprintBounds(rs.getString(1), rs.getString(2),
+                        new BoundingBox(rs.getInt(3), rs.getInt(4), rs.getInt(5), rs.getInt(6))),
+                window.maxX(), window.minX(), window.maxY(), window.minY());
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public List<Point> getPointsInside(String author, String name, BoundingBox window) throws BlueprintNotFoundException {
+        List<Point> points = jdbc.query(POINTS_INSIDE, (rs, row) -> new Point(rs.getInt(1), rs.getInt(2)),
+                author, name, window.maxX(), window.minX(), window.maxY(), window.minY(),
+                window.minX(), window.maxX(), window.minY(), window.maxY());
+        // No rows is either a miss or a missing blueprint; only the miss is worth an answer
+        if (points.isEmpty() && !repo.existsByAuthorAndName(author, name)) throw notFound(author, name);
+        return points;
+    }
+
     @Override
     public Set<Blueprint> getBlueprintsByAuthor(String author) throws BlueprintNotFoundException {
-        List<Blueprint> list = repo.findByAuthor(author);
+        List<BlueprintEntity> list = repo.findByAuthor(author);
         if (list.isEmpty()) throw new BlueprintNotFoundException(
                 "No blueprints for author: " + author);
-        return new HashSet<>(list);
+        return list.stream().map(BlueprintEntity::toBlueprint).collect(Collectors.toSet());
     }
 
     @Override
     public Set<Blueprint> getAllBlueprints() {
-        return new HashSet<>(repo.findAll());
+        return repo.findAll().stream().map(BlueprintEntity::toBlueprint).collect(Collectors.toSet());
     }
 
     @Override
+    @Transactional(readOnly = true)
+    public List<Blueprint> getBlueprintsPage(BlueprintKey after, int limit) {
+        List<BlueprintEntity> page = after == null
+                ? repo.findAllByOrderByAuthorAscNameAsc(Limit.of(limit))
+                : repo.findPageAfter(after.author(), after.name(), Limit.of(limit));
+        // Each uninitialized collection pulls in the next POINTS_BATCH_SIZE ones with it
+        return page.stream().map(BlueprintEntity::toBlueprint).toList();
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public void forEachBlueprint(Consumer<Blueprint> action) {
+        List<BlueprintEntity> chunk = new ArrayList<>(BlueprintEntity.POINTS_BATCH_SIZE);
+        try (Stream<BlueprintEntity> stream = repo.streamAllOrdered()) {
+            stream.forEach(entity -> {
+                chunk.add(entity);
+                if (chunk.size() == BlueprintEntity.POINTS_BATCH_SIZE) flushChunk(chunk, action);
+            });
+        }
+        flushChunk(chunk, action);
+    }
+
+    private void flushChunk(List<BlueprintEntity> chunk, Consumer<Blueprint> action) {
+        if (chunk.isEmpty()) return;
+        // Touching one collection batch loads the points of the whole chunk in a single query
+        chunk.get(0).getPoints().size();
+        for (BlueprintEntity entity : chunk) {
+            Blueprint bp = entity.toBlueprint();
+            // Detach each row once converted so the persistence context does not grow with the table
+            entityManager.detach(entity);
+            action.accept(bp);
+        }
+        chunk.clear();
+    }
+
+    /**
+     * Anexa el punto con un único INSERT al final de {@code blueprint_points}, sin cargar la entidad.
+     * Antes sube la versión del blueprint y extiende su caja: ese UPDATE bloquea su fila y serializa los
+     * anexos concurrentes para que el índice no se repita.
+     */
+    @Override
+    @Transactional
     public void addPoint(String author, String name, int x, int y) throws BlueprintNotFoundException {
-        Blueprint bp = getBlueprint(author, name);
-        bp.addPoint(new Point(x, y));
-        repo.save(bp);
+        if (repo.bumpVersion(author, name, 1, Instant.now(), x, y, x, y) == 0) throw notFound(author, name);
+        repo.appendPoint(author, name, x, y);
+    }
+
+    /**
+     * Anexa todos los puntos con inserts JDBC por lotes (ver {@code reWriteBatchedInserts} en la URL),
+     * numerándolos a continuación del último {@code point_index} bajo el mismo bloqueo de fila.
+     * Un lote vacío solo comprueba que el blueprint existe y no cambia su versión.
+     */
+    @Override
+    @Transactional
+    public void addPoints(String author, String name, Collection<Point> points) throws BlueprintNotFoundException {
+        if (points.isEmpty()) {
+            lockId(author, name);
+            return;
+        }
+        BoundingBox box = BoundingBox.of(PointBuffer.of(points));
+        if (repo.bumpVersion(author, name, 1, Instant.now(), box.minX(), box.minY(), box.maxX(), box.maxY()) == 0) {
+            throw notFound(author, name);
+        }
+        insertAfterLast(lockId(author, name), points);
+    }
+
+    /** Todos los lotes van en un único UPDATE de la versión y una única tanda de inserts. */
+    @Override
+    @Transactional
+    public void addPointBatches(String author, String name, List<PointBuffer> batches) throws BlueprintNotFoundException {
+        int appends = (int) batches.stream().filter(b -> !b.isEmpty()).count();
+        if (appends == 0) {
+            lockId(author, name);
+            return;
+        }
+        PointBuffer points = PointBuffer.concat(batches);
+        BoundingBox box = BoundingBox.of(points);
+        if (repo.bumpVersion(author, name, appends, Instant.now(),
+                box.minX(), box.minY(), box.maxX(), box.maxY()) == 0) {
+            throw notFound(author, name);
+        }
+        insertAfterLast(lockId(author, name), points.asList());
+    }
+
+    @Override
+    @Transactional
+    public void addPoints(String author, String name, Collection<Point> points, long expectedVersion)
+            throws BlueprintNotFoundException {
+        if (points.isEmpty()) {
+            long current = getVersion(author, name).version();
+            if (current != expectedVersion) throw conflict(author, name, expectedVersion);
+            return;
+        }
+        BoundingBox box = BoundingBox.of(PointBuffer.of(points));
+        if (repo.bumpVersionIf(author, name, expectedVersion, Instant.now(),
+                box.minX(), box.minY(), box.maxX(), box.maxY()) == 0) {
+            if (repo.existsByAuthorAndName(author, name)) throw conflict(author, name, expectedVersion);
+            throw notFound(author, name);
+        }
+        insertAfterLast(lockId(author, name), points);
+    }
+
+    /**
+     * Un anexo ya es durable al confirmar su transacción. Se sobrescriben solo para abrirla aquí: la versión
+     * por defecto llama a {@link #addPoints} sobre la misma instancia, sin pasar por el proxy transaccional.
+     */
+    @Override
+    @Transactional
+    public Durability addPointDeferred(String author, String name, int x, int y) throws BlueprintNotFoundException {
+        addPoint(author, name, x, y);
+        return Durability.DURABLE;
+    }
+
+    @Override
+    @Transactional
+    public Durability addPointsDeferred(String author, String name, Collection<Point> points)
+            throws BlueprintNotFoundException {
+        addPoints(author, name, points);
+        return Durability.DURABLE;
+    }
+
+    @Override
+    @Transactional
+    public Durability addPointsDeferred(String author, String name, Collection<Point> points, long expectedVersion)
+            throws BlueprintNotFoundException {
+        addPoints(author, name, points, expectedVersion);
+        return Durability.DURABLE;
+    }
+
+    private void insertAfterLast(long id, Collection<Point> points) {
+        int first = repo.nextPointIndex(id);
+        int[] index = {first};
+        jdbc.batchUpdate(INSERT_POINT, points, INSERT_BATCH_SIZE, (ps, p) -> {
+            ps.setLong(1, id);
+            ps.setInt(2, index[0]++);
+            ps.setInt(3, p.x());
+            ps.setInt(4, p.y());
+        });
+    }
+
+    private long lockId(String author, String name) throws BlueprintNotFoundException {
+        return repo.lockIdByAuthorAndName(author, name).orElseThrow(() -> notFound(author, name));
+    }
+
+    private static BlueprintNotFoundException notFound(String author, String name) {
+        return new BlueprintNotFoundException("Blueprint not found: %s/%s".formatted(author, name));
+    }
+
+    private static OptimisticLockingFailureException conflict(String author, String name, long expectedVersion) {
+        return new OptimisticLockingFailureException(
+                "Blueprint %s/%s is no longer at version %d".formatted(author, name, expectedVersion));
     }
-}
\ No newline at end of file
+}
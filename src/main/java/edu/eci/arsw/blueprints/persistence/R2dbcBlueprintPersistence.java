@@ -0,0 +1,254 @@
+package edu.eci.arsw.blueprints.persistence;
+
+import edu.eci.arsw.blueprints.model.Blueprint;
+import edu.eci.arsw.blueprints.model.BlueprintKey;
+import edu.eci.arsw.blueprints.model.BoundingBox;
+import edu.eci.arsw.blueprints.model.Point;
+import edu.eci.arsw.blueprints.model.PointBuffer;
+import io.r2dbc.spi.Connection;
+import io.r2dbc.spi.ConnectionFactory;
+import io.r2dbc.spi.R2dbcDataIntegrityViolationException;
+import io.r2dbc.spi.Readable;
+import io.r2dbc.spi.Result;
+import io.r2dbc.spi.Statement;
+import org.springframework.beans.factory.InitializingBean;
+import org.springframework.context.annotation.Profile;
+import org.springframework.stereotype.Repository;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.function.Function;
+
+/**
+ * Mismo esquema que {@link PostgresBlueprintPersistence} ({@code blueprints} y {@code blueprint_points}),
+ * leído y escrito con R2DBC. Con el perfil {@code reactive} no hay JPA, así que al arrancar crea las tablas
+ * que falten con el mismo DDL que genera Hibernate.
+ * Cada blueprint sale de un único {@code left join} ordenado por (author, name, point_index) cuyas filas
+ * se agrupan a medida que llegan, así que las listas se leen al ritmo que pide el suscriptor.
+ */
+@Repository
+@Profile("reactive")
+public class R2dbcBlueprintPersistence implements ReactiveBlueprintPersistence, InitializingBean {
+
+    private static final List<String> SCHEMA = List.of(
+            "create table if not exists blueprints (id bigint generated by default as identity, "
+                    + "author varchar(255), name varchar(255), primary key (id))",
+            // Same version and bounding box columns as BlueprintEntity, also on tables created before they existed
+            "alter table blueprints add column if not exists version bigint default 0 not null",
+            "alter table blueprints add column if not exists updated_at timestamp(6) with time zone",
+            "alter table blueprints add column if not exists min_x integer",
+            "alter table blueprints add column if not exists min_y integer",
+            "alter table blueprints add column if not exists max_x integer",
+            "alter table blueprints add column if not exists max_y integer",
+            "create unique index if not exists ux_blueprints_author_name on blueprints (author, name)",
+            "create index if not exists ix_blueprints_bbox on blueprints (min_x, max_x, min_y, max_y)",
+            "create table if not exists blueprint_points (blueprint_id bigint not null references blueprints (id), "
+                    + "point_index integer not null, x integer not null, y integer not null, "
+                    + "primary key (blueprint_id, point_index))");
+
+    private static final String SELECT_WITH_POINTS = """
+            select b.id, b.author, b.name, p.x, p.y
+            from (%s) b left join blueprint_points p on p.blueprint_id = b.id
+            order by b.author, b.name, p.point_index
+            """;
+    private static final String ALL = SELECT_WITH_POINTS.formatted("select id, author, name from blueprints");
+    private static final String BY_AUTHOR = SELECT_WITH_POINTS.formatted(
+            "select id, author, name from blueprints where author = $1");
+    private static final String BY_KEY = SELECT_WITH_POINTS.formatted(
+            "select id, author, name from blueprints where author = $1 and name = $2");
+    private static final String FIRST_PAGE = SELECT_WITH_POINTS.formatted(
+            "select id, author, name from blueprints order by author, name limit $1");
+    private static final String PAGE_AFTER = SELECT_WITH_POINTS.formatted("""
+            select id, author, name from blueprints
+            where author > $1 or (author = $1 and name > $2)
+            order by author, name limit $3""");
+
+    private static final String EXISTS = "select 1 from blueprints where author = $1 and name = $2";
+    private static final String INSERT_BLUEPRINT = """
+            insert into blueprints (author, name, version, updated_at, min_x, min_y, max_x, max_y)
+            values ($1, $2, 0, current_timestamp, $3, $4, $5, $6)
+            """;
+    private static final String LOCK_ID = "select id from blueprints where author = $1 and name = $2 for update";
+    private static final String BUMP_VERSION = """
+            update blueprints set version = version + 1, updated_at = current_timestamp,
+                min_x = least(coalesce(min_x, $2), $2), min_y = least(coalesce(min_y, $3), $3),
+                max_x = greatest(coalesce(max_x, $4), $4), max_y = greatest(coalesce(max_y, $5), $5)
+            where id = $1
+            """;
+    private static final String NEXT_INDEX =
+            "select coalesce(max(point_index) + 1, 0) from blueprint_points where blueprint_id = $1";
+    private static final String APPEND_POINT = """
+            insert into blueprint_points (blueprint_id, point_index, x, y)
+            select $1, coalesce(max(point_index) + 1, 0), $2, $3 from blueprint_points where blueprint_id = $1
+            """;
+    private static final String INSERT_POINT =
+            "insert into blueprint_points (blueprint_id, point_index, x, y) values ($1, $2, $3, $4)";
+    /** Igual que el fetch size del stream JPA: cuántas filas se piden a la base de una vez. */
+    private static final int FETCH_SIZE = 256;
+
+    private final ConnectionFactory connections;
+
+    public R2dbcBlueprintPersistence(ConnectionFactory connections) {
+        this.connections = connections;
+    }
+
+    @Override
+    public void afterPropertiesSet() {
+        // Runs once at startup, before any request, so blocking here is fine
+        Flux.usingWhen(connections.create(),
+                conn -> Flux.fromIterable(SCHEMA).concatMap(ddl -> execute(conn.createStatement(ddl))),
+                Connection::close).blockLast();
+    }
+
+    @Override
+    public Mono<Void> saveBlueprint(Blueprint bp) {
+        return inTransaction(conn -> exists(conn, bp.getAuthor(), bp.getName())
+                .flatMap(exists -> exists
+                        ? Mono.error(alreadyExists(bp))
+                        : insertBlueprint(conn, bp)))
+                // A concurrent insert of the same key loses on the unique (author, name) index
+                .onErrorMap(R2dbcDataIntegrityViolationException.class, e -> alreadyExists(bp))
+                .then();
+    }
+
+    private static BlueprintPersistenceException alreadyExists(Blueprint bp) {
+        return new BlueprintPersistenceException("Blueprint already exists: " + bp.getAuthor() + "/" + bp.getName());
+    }
+
+    private static Mono<Boolean> exists(Connection conn, String author, String name) {
+        return Flux.from(conn.createStatement(EXISTS).bind(0, author).bind(1, name).execute())
+                .flatMap(result -> result.map(row -> Boolean.TRUE))
+                .hasElements();
+    }
+
+    private static Mono<Void> insertBlueprint(Connection conn, Blueprint bp) {
+        Statement insert = conn.createStatement(INSERT_BLUEPRINT)
+                .bind(0, bp.getAuthor()).bind(1, bp.getName())
+                .returnGeneratedValues("id");
+        BoundingBox box = BoundingBox.of(bp.pointBuffer());
+        if (box == null) {
+            for (int i = 2; i < 6; i++) insert.bindNull(i, Integer.class);
+        } else {
+            insert.bind(2, box.minX()).bind(3, box.minY()).bind(4, box.maxX()).bind(5, box.maxY());
+        }
+        return Flux.from(insert.execute())
+                .flatMap(result -> result.map(row -> row.get(0, Long.class)))
+                .single()
+                .flatMap(id -> insertPoints(conn, id, 0, bp.pointBuffer()));
+    }
+
+    @Override
+    public Mono<Blueprint> getBlueprint(String author, String name) {
+        return query(BY_KEY, author, name).next()
+                .switchIfEmpty(Mono.error(() -> new BlueprintNotFoundException(
+                        "Blueprint not found: %s/%s".formatted(author, name))));
+    }
+
+    @Override
+    public Flux<Blueprint> getBlueprintsByAuthor(String author) {
+        return query(BY_AUTHOR, author)
+                .switchIfEmpty(Mono.error(() -> new BlueprintNotFoundException("No blueprints for author: " + author)));
+    }
+
+    @Override
+    public Flux<Blueprint> getAllBlueprints() {
+        return query(ALL);
+    }
+
+    @Override
+    public Flux<Blueprint> getBlueprintsPage(BlueprintKey after, int limit) {
+        return after == null
+                ? query(FIRST_PAGE, limit)
+                : query(PAGE_AFTER, after.author(), after.name(), limit);
+    }
+
+    /**
+     * Anexa el punto con un único INSERT bajo el bloqueo de la fila del blueprint y sube su versión y su caja,
+     * para que las ETags y las búsquedas por área de la API MVC sobre la misma tabla sigan siendo válidas.
+     */
+    @Override
+    public Mono<Void> addPoint(String author, String name, int x, int y) {
+        return inTransaction(conn -> lockId(conn, author, name)
+                .flatMap(id -> bumpVersion(conn, id, new BoundingBox(x, y, x, y))
+                        .then(execute(conn.createStatement(APPEND_POINT).bind(0, id).bind(1, x).bind(2, y)))));
+    }
+
+    @Override
+    public Mono<Void> addPoints(String author, String name, Collection<Point> points) {
+        return inTransaction(conn -> lockId(conn, author, name)
+                .filter(id -> !points.isEmpty())
+                .flatMap(id -> bumpVersion(conn, id, BoundingBox.of(PointBuffer.of(points))).then(Flux.from(conn.createStatement(NEXT_INDEX).bind(0, id).execute())
+                        .flatMap(result -> result.map(row -> row.get(0, Integer.class)))
+                        .single()
+                        .flatMap(first -> insertPoints(conn, id, first, PointBuffer.of(points))))));
+    }
+
+    /** Sube la versión y extiende la caja del blueprint para cubrir {@code box}, la del lote anexado. */
+    private static Mono<Void> bumpVersion(Connection conn, long id, BoundingBox box) {
+        return execute(conn.createStatement(BUMP_VERSION).bind(0, id)
+                .bind(1, box.minX()).bind(2, box.minY()).bind(3, box.maxX()).bind(4, box.maxY()));
+    }
+
+    private static Mono<Long> lockId(Connection conn, String author, String name) {
+        return Flux.from(conn.createStatement(LOCK_ID).bind(0, author).bind(1, name).execute())
+                .flatMap(result -> result.map(row -> row.get(0, Long.class)))
+                .next()
+                .switchIfEmpty(Mono.error(() -> new BlueprintNotFoundException(
+                        "Blueprint not found: %s/%s".formatted(author, name))));
+    }
+
+    /** Un solo statement con un juego de parámetros por punto, que el driver envía en lote. */
+    private static Mono<Void> insertPoints(Connection conn, long id, int first, PointBuffer points) {
+        if (points.isEmpty()) return Mono.empty();
+        Statement insert = conn.createStatement(INSERT_POINT);
+        int[] index = {first};
+        points.forEach((x, y) -> {
+            if (index[0] > first) insert.add();
+            insert.bind(0, id).bind(1, index[0]++).bind(2, x).bind(3, y);
+        });
+        return execute(insert);
+    }
+
+    private static Mono<Void> execute(Statement statement) {
+        return Flux.from(statement.execute()).flatMap(Result::getRowsUpdated).then();
+    }
+
+    private Flux<Blueprint> query(String sql, Object... args) {
+        return Flux.usingWhen(connections.create(), conn -> {
+                    Statement select = conn.createStatement(sql).fetchSize(FETCH_SIZE);
+                    for (int i = 0; i < args.length; i++) select.bind(i, args[i]);
+                    return Flux.from(select.execute()).flatMap(result -> result.map(PointRow::of));
+                }, Connection::close)
+                .bufferUntilChanged(PointRow::id)
+                .map(R2dbcBlueprintPersistence::toBlueprint);
+    }
+
+    private static Blueprint toBlueprint(List<PointRow> rows) {
+        PointBuffer.Builder points = PointBuffer.builder(rows.size());
+        for (PointRow row : rows) {
+            // A blueprint without points comes back as one row with null coordinates
+            if (row.x() != null) points.add(row.x(), row.y());
+        }
+        PointRow first = rows.get(0);
+        return new Blueprint(first.author(), first.name(), points.build());
+    }
+
+    /** Abre una conexión, ejecuta {@code work} en una transacción y la confirma, o la revierte si falla. */
+    private <T> Mono<T> inTransaction(Function<Connection, Mono<T>> work) {
+        return Mono.usingWhen(connections.create(),
+                conn -> Mono.usingWhen(Mono.from(conn.beginTransaction()).thenReturn(conn), work,
+                        Connection::commitTransaction,
+                        (c, e) -> c.rollbackTransaction(),
+                        Connection::rollbackTransaction),
+                Connection::close);
+    }
+
+    private record PointRow(long id, String author, String name, Integer x, Integer y) {
+        static PointRow of(Readable row) {
+            return new PointRow(row.get("id", Long.class), row.get("author", String.class), row.get("name", String.class),
+                    row.get("x", Integer.class), row.get("y", Integer.class));
+        }
+    }
+}
@@ -0,0 +1,40 @@
+package edu.eci.arsw.blueprints.persistence;
+
+import edu.eci.arsw.blueprints.model.Blueprint;
+import edu.eci.arsw.blueprints.model.BlueprintKey;
+import edu.eci.arsw.blueprints.model.Point;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.util.Collection;
+
+/**
+ * Non-blocking counterpart of {@link BlueprintPersistence}. Failures are signalled as errors carrying
+ * the same exceptions: {@link BlueprintNotFoundException} and {@link BlueprintPersistenceException}.
+ */
+public interface ReactiveBlueprintPersistence {
+
+    Mono<Void> saveBlueprint(Blueprint bp);
+
+    Mono<Blueprint> getBlueprint(String author, String name);
+
+    Flux<Blueprint> getBlueprintsByAuthor(String author);
+
+    /**
+     * Every blueprint ordered by (author, name), read from storage only as fast as the subscriber
+     * requests them.
+     */
+    Flux<Blueprint> getAllBlueprints();
+
+    /**
+     * Keyset pagination ordered by (author, name).
+     * @param after last key of the previous page, or {@code null} for the first page
+     * @param limit maximum number of blueprints to return
+     */
+    Flux<Blueprint> getBlueprintsPage(BlueprintKey after, int limit);
+
+    Mono<Void> addPoint(String author, String name, int x, int y);
+
+    /** Appends {@code points}, in iteration order, as one batch. */
+    Mono<Void> addPoints(String author, String name, Collection<Point> points);
+}
@@ -0,0 +1,528 @@
+package edu.eci.arsw.blueprints.persistence;
+
+import edu.eci.arsw.blueprints.model.Blueprint;
+import edu.eci.arsw.blueprints.model.BlueprintBounds;
+import edu.eci.arsw.blueprints.model.BlueprintKey;
+import edu.eci.arsw.blueprints.model.BlueprintVersion;
+import edu.eci.arsw.blueprints.model.BoundingBox;
+import edu.eci.arsw.blueprints.model.Point;
+import edu.eci.arsw.blueprints.model.PointBuffer;
+import edu.eci.arsw.blueprints.model.PointsDelta;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.beans.factory.InitializingBean;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Primary;
+import org.springframework.context.annotation.Profile;
+import org.springframework.dao.DataAccessResourceFailureException;
+import org.springframework.dao.OptimisticLockingFailureException;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.LockSupport;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Consumer;
+
+/**
+ * Escritura diferida (write-behind) de los anexos de puntos sobre otra persistencia. Perfil: "write-behind".
+ * Un anexo se confirma en cuanto entra en la cola de su blueprint (y, si hay {@code log-dir}, en el registro
+ * local en disco, con un {@code fsync} compartido por los anexos concurrentes); un hilo lo escribe después junto con los demás anexos pendientes del mismo blueprint en
+ * una sola transacción ({@link BlueprintPersistence#addPointBatches}), cada {@code flush-interval-ms} o en
+ * cuanto el blueprint acumula {@code max-batch-points}.
+ *
+ * <p>Cada anexo pendiente sabe en qué índice empieza y a qué versión lleva el blueprint, así que las lecturas
+ * combinan lo guardado con lo pendiente por índice: lo que ya está en la base no se repite aunque se escriba
+ * mientras se lee, y el número de versión sigue subiendo en uno por anexo como sin buffer.
+ * Si lo pendiente supera {@code max-pending-points}, quien anexa escribe los anexos pendientes de su blueprint
+ * y despierta al hilo; si aun así no cabe, el anexo se rechaza.
+ * Supone que solo esta instancia escribe en la base.
+ *
+ * <p>Es la {@link BlueprintPersistence} primaria del perfil; el almacén al que escribe se inyecta con el
+ * calificador {@link #DELEGATE} (ver {@code WriteBehindConfig}).
+ *
+ * <p>Sin {@code log-dir} los anexos confirmados y no escritos se pierden si el proceso cae. Con él, al arrancar
+ * se rehacen los que falten en la base antes de aceptar nuevos.
+ */
+@Component
+@Primary
+@Profile("write-behind & !reactive")
+public class WriteBehindBlueprintPersistence implements BlueprintPersistence, InitializingBean, DisposableBean {
+
+    /** Calificador del almacén en el que escribe el buffer. */
+    public static final String DELEGATE = "writeBehindDelegate";
+
+    private static final Logger log = LoggerFactory.getLogger(WriteBehindBlueprintPersistence.class);
+    private static final int STRIPES = 64;
+    private static final long NOT_LOGGED = -1;
+
+    private final BlueprintPersistence delegate;
+    private final BlueprintAppendLog appendLog;
+    private final int maxBatchPoints;
+    private final long maxPendingPoints;
+    private final long flushIntervalNanos;
+
+    private final ConcurrentMap<BlueprintKey, Pending> pending = new ConcurrentHashMap<>();
+    /** Ordenan, por franja, los anexos y la retirada de lo ya escrito; ninguno se toma durante una escritura. */
+    private final ReentrantLock[] stripeLocks = new ReentrantLock[STRIPES];
+    /** Una sola escritura a la vez, así los lotes de un blueprint llegan a la base en orden. */
+    private final ReentrantLock flushLock = new ReentrantLock();
+    private final AtomicLong pendingPoints = new AtomicLong();
+    private volatile boolean running;
+    private Thread flusher;
+
+    public WriteBehindBlueprintPersistence(@Qualifier(DELEGATE) BlueprintPersistence delegate,
+                                           @Value("${blueprints.write-behind.log-dir:}") String logDir,
+                                           @Value("${blueprints.write-behind.segment-bytes:67108864}") long segmentBytes,
+                                           @Value("${blueprints.write-behind.max-batch-points:5000}") int maxBatchPoints,
+                                           @Value("${blueprints.write-behind.max-pending-points:100000}") long maxPendingPoints,
+                                           @Value("${blueprints.write-behind.flush-interval-ms:50}") long flushIntervalMs)
+            throws IOException {
+        this.delegate = delegate;
+        this.appendLog = logDir.isBlank() ? null : BlueprintAppendLog.open(Path.of(logDir), segmentBytes);
+        this.maxBatchPoints = maxBatchPoints;
+        this.maxPendingPoints = maxPendingPoints;
+        this.flushIntervalNanos = TimeUnit.MILLISECONDS.toNanos(flushIntervalMs);
+        for (int i = 0; i < STRIPES; i++) stripeLocks[i] = new ReentrantLock();
+    }
+
+    /** Rehace los anexos del registro que no llegaron a la base y arranca el hilo de escritura. */
+    @Override
+    public void afterPropertiesSet() throws IOException {
+        if (appendLog != null) replay();
+        running = true;
+        flusher = Thread.ofPlatform().daemon().name("blueprint-write-behind").start(this::flushLoop);
+    }
+
+    /** Detiene el hilo y escribe lo que quede pendiente; lo que no se pueda escribir sigue en el registro. */
+    @Override
+    public void destroy() throws IOException, InterruptedException {
+        running = false;
+        if (flusher != null) {
+            LockSupport.unpark(flusher);
+            flusher.join();
+        }
+        try {
+            flush();
+        } finally {
+            if (appendLog != null) appendLog.close();
+        }
+    }
+
+    /**
+     * Cada registro se compara con el total de puntos guardado: los que terminan antes ya se escribieron en
+     * una escritura confirmada antes de la caída, y los demás se escriben ahora, un lote por registro.
+     */
+    private void replay() throws IOException {
+        Map<BlueprintKey, List<BlueprintAppendLog.Record>> byKey = new LinkedHashMap<>();
+        for (BlueprintAppendLog.Record r : appendLog.recover()) {
+            byKey.computeIfAbsent(r.key(), k -> new ArrayList<>()).add(r);
+        }
+        int replayed = 0;
+        for (Map.Entry<BlueprintKey, List<BlueprintAppendLog.Record>> e : byKey.entrySet()) {
+            BlueprintKey key = e.getKey();
+            try {
+                int total = delegate.getPointsSince(key.author(), key.name(), Integer.MAX_VALUE).total();
+                List<PointBuffer> missing = new ArrayList<>();
+                for (BlueprintAppendLog.Record r : e.getValue()) {
+                    int end = r.from() + r.points().size();
+                    if (end <= total) continue;
+                    if (r.from() > total) log.warn("Append log of {} skips from point {} to {}", key, total, r.from());
+                    PointBuffer unseen = r.points().tail(total - r.from());
+                    missing.add(unseen);
+                    total += unseen.size();
+                }
+                delegate.addPointBatches(key.author(), key.name(), missing);
+                replayed += missing.size();
+            } catch (BlueprintNotFoundException ex) {
+                log.warn("Dropping the logged appends to {}: the blueprint no longer exists", key);
+            }
+        }
+        appendLog.discardRecovered();
+        if (replayed > 0) log.info("Replayed {} logged appends to {} blueprints", replayed, byKey.size());
+    }
+
+    private void flushLoop() {
+        while (running) {
+            LockSupport.parkNanos(this, flushIntervalNanos);
+            try {
+                flush();
+            } catch (RuntimeException e) {
+                log.warn("Write-behind flush failed, retrying in the next round", e);
+            }
+        }
+    }
+
+    /** Escribe ya en la persistencia todos los anexos pendientes, una transacción por blueprint. */
+    public void flush() {
+        flushLock.lock();
+        try {
+            for (BlueprintKey key : pending.keySet()) flush(key);
+        } finally {
+            flushLock.unlock();
+        }
+    }
+
+    /** {@code fsync} hechos en el registro local hasta ahora; 0 sin {@code log-dir}. */
+    public long logSyncs() {
+        return appendLog == null ? 0 : appendLog.syncs();
+    }
+
+    private void flush(BlueprintKey key) {
+        List<Batch> batches = snapshot(key);
+        if (batches.isEmpty()) return;
+        boolean gone = false;
+        try {
+            delegate.addPointBatches(key.author(), key.name(), batches.stream().map(Batch::points).toList());
+        } catch (BlueprintNotFoundException e) {
+            log.error("Dropping {} pending appends to {}: the blueprint no longer exists", batches.size(), key);
+            gone = true;
+        } catch (RuntimeException e) {
+            // Left in place: the next round writes them together with whatever arrives meanwhile
+            log.warn("Could not write {} pending appends to {}", batches.size(), key, e);
+            return;
+        }
+        int written = 0;
+        ReentrantLock lock = lockOf(key);
+        lock.lock();
+        try {
+            Pending p = pending.get(key);
+            // Appends that arrived during the write stay queued after the ones just written
+            p.batches.subList(0, batches.size()).clear();
+            for (Batch b : batches) written += b.points().size();
+            p.points -= written;
+            // An empty entry keeps the stored total and version, so the next append needs no read
+            if (gone && p.batches.isEmpty()) pending.remove(key);
+        } finally {
+            lock.unlock();
+        }
+        pendingPoints.addAndGet(-written);
+        if (appendLog != null) {
+            try {
+                for (Batch b : batches) appendLog.release(b.segment());
+            } catch (IOException e) {
+                log.warn("Could not release written appends from the log", e);
+            }
+        }
+    }
+
+    /** Encola el anexo; el registro, si lo hay, se fuerza a disco al esperar el resultado. */
+    private Durability enqueue(String author, String name, PointBuffer points, Long expectedVersion)
+            throws BlueprintNotFoundException {
+        BlueprintKey key = new BlueprintKey(author, name);
+        if (pendingPoints.get() + points.size() > maxPendingPoints) {
+            // The caller may hold the cache stripe of this blueprint: it writes only its own queue, and only if
+            // no round is running, so other blueprints of the stripe never wait on their database writes
+            if (flusher != null) LockSupport.unpark(flusher);
+            if (flushLock.tryLock()) {
+                try {
+                    flush(key);
+                } finally {
+                    flushLock.unlock();
+                }
+            }
+            if (pendingPoints.get() + points.size() > maxPendingPoints) {
+                throw new DataAccessResourceFailureException("Too many appends waiting to be written");
+            }
+        }
+        boolean full;
+        BlueprintAppendLog.Appended logged = null;
+        ReentrantLock lock = lockOf(key);
+        lock.lock();
+        try {
+            Pending p = pending.get(key);
+            if (p == null) {
+                // First append to this blueprint: the stored state is current, and it cannot move while the
+                // stripe is held
+                PointsDelta head = delegate.getPointsSince(author, name, Integer.MAX_VALUE);
+                p = new Pending(head.total(), head.version());
+                pending.put(key, p);
+            }
+            if (expectedVersion != null && p.version != expectedVersion) {
+                throw new OptimisticLockingFailureException("Blueprint %s is at version %d, not %d"
+                        .formatted(key, p.version, expectedVersion));
+            }
+            if (points.isEmpty()) return Durability.DURABLE;
+            if (appendLog != null) {
+                try {
+                    logged = appendLog.append(key, p.total, points);
+                } catch (IOException e) {
+                    throw new DataAccessResourceFailureException("Could not write the append log", e);
+                }
+            }
+            p.add(points, logged == null ? NOT_LOGGED : logged.segment());
+            full = p.points >= maxBatchPoints;
+        } finally {
+            lock.unlock();
+        }
+        pendingPoints.addAndGet(points.size());
+        if (full && flusher != null) LockSupport.unpark(flusher);
+        if (logged == null) return Durability.DURABLE;
+        long sequence = logged.sequence();
+        return () -> {
+            try {
+                appendLog.sync(sequence);
+            } catch (IOException e) {
+                // Already queued and written by the flusher, but never confirmed as durable
+                throw new DataAccessResourceFailureException("Could not force the append log to disk", e);
+            }
+        };
+    }
+
+    /** Copia de los anexos pendientes del blueprint, en orden; vacía si no tiene ninguno. */
+    private List<Batch> snapshot(BlueprintKey key) {
+        if (!pending.containsKey(key)) return List.of();
+        ReentrantLock lock = lockOf(key);
+        lock.lock();
+        try {
+            Pending p = pending.get(key);
+            return p == null ? List.of() : List.copyOf(p.batches);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private Map<BlueprintKey, List<Batch>> snapshotAll() {
+        Map<BlueprintKey, List<Batch>> all = new HashMap<>();
+        for (BlueprintKey key : pending.keySet()) {
+            List<Batch> batches = snapshot(key);
+            if (!batches.isEmpty()) all.put(key, batches);
+        }
+        return all;
+    }
+
+    /**
+     * {@code stored} con los puntos de {@code batches} que aún no tiene. Los anexos se tomaron antes de leer
+     * {@code stored}, así que lo que falte en ella sigue en ellos.
+     */
+    private static Blueprint merged(Blueprint stored, List<Batch> batches) {
+        if (batches == null || batches.isEmpty()) return stored;
+        PointBuffer points = stored.pointBuffer();
+        List<PointBuffer> parts = new ArrayList<>(batches.size() + 1);
+        parts.add(points);
+        int total = points.size();
+        for (Batch b : batches) {
+            PointBuffer unseen = b.unseen(total);
+            parts.add(unseen);
+            total += unseen.size();
+        }
+        return new Blueprint(stored.getAuthor(), stored.getName(), PointBuffer.concat(parts));
+    }
+
+    private ReentrantLock lockOf(BlueprintKey key) {
+        return stripeLocks[(key.hashCode() & Integer.MAX_VALUE) % STRIPES];
+    }
+
+    @Override
+    public void saveBlueprint(Blueprint bp) throws BlueprintPersistenceException {
+        delegate.saveBlueprint(bp);
+    }
+
+    @Override
+    public Blueprint getBlueprint(String author, String name) throws BlueprintNotFoundException {
+        List<Batch> batches = snapshot(new BlueprintKey(author, name));
+        return merged(delegate.getBlueprint(author, name), batches);
+    }
+
+    @Override
+    public BlueprintVersion getVersion(String author, String name) throws BlueprintNotFoundException {
+        List<Batch> batches = snapshot(new BlueprintKey(author, name));
+        BlueprintVersion stored = delegate.getVersion(author, name);
+        if (batches.isEmpty()) return stored;
+        Batch last = batches.get(batches.size() - 1);
+        // Versions only grow, so the newer of the two is the current one
+        return last.version() > stored.version() ? new BlueprintVersion(last.version(), last.at()) : stored;
+    }
+
+    @Override
+    public PointsDelta getPointsSince(String author, String name, int since) throws BlueprintNotFoundException {
+        List<Batch> batches = snapshot(new BlueprintKey(author, name));
+        PointsDelta stored = delegate.getPointsSince(author, name, since);
+        if (batches.isEmpty()) return stored;
+        PointBuffer.Builder tail = PointBuffer.builder(stored.points().size());
+        for (Point p : stored.points()) tail.add(p.x(), p.y());
+        int total = stored.total();
+        long version = stored.version();
+        for (Batch b : batches) {
+            PointBuffer unseen = b.unseen(total);
+            if (unseen.isEmpty()) continue;
+            // Only the part at or past since belongs in the delta
+            tail.addAll(unseen.tail(since - total));
+            total += unseen.size();
+            version = b.version();
+        }
+        return new PointsDelta(since, total, version, tail.build());
+    }
+
+    /**
+     * Las cajas guardadas, ensanchadas con los puntos pendientes. Un blueprint que solo entra en la ventana
+     * por sus puntos pendientes se lee entero para conocer su caja completa.
+     */
+    @Override
+    public List<BlueprintBounds> findIntersecting(BoundingBox window) {
+        Map<BlueprintKey, List<Batch>> queued = snapshotAll();
+        List<BlueprintBounds> stored = delegate.findIntersecting(window);
+        if (queued.isEmpty()) return stored;
+        Map<BlueprintKey, BoundingBox> boxes = new LinkedHashMap<>();
+        for (BlueprintBounds b : stored) boxes.put(new BlueprintKey(b.author(), b.name()), b.bounds());
+        queued.forEach((key, batches) -> {
+            // Boxes only grow, so widening with points already stored changes nothing
+            BoundingBox box = null;
+            for (Batch b : batches) box = BoundingBox.of(b.points()).union(box);
+            BoundingBox known = boxes.get(key);
+            if (known != null) {
+                boxes.put(key, box.union(known));
+            } else if (box.intersects(window)) {
+                try {
+                    boxes.put(key, box.union(BoundingBox.of(delegate.getBlueprint(key.author(), key.name()).pointBuffer())));
+                } catch (BlueprintNotFoundException e) {
+                    // Its pending appends will be dropped on the next flush
+                }
+            }
+        });
+        List<BlueprintBounds> result = new ArrayList<>(boxes.size());
+        boxes.entrySet().stream().sorted(Map.Entry.comparingByKey())
+                .forEach(e -> result.add(new BlueprintBounds(e.getKey().author(), e.getKey().name(), e.getValue())));
+        return result;
+    }
+
+    @Override
+    public List<Point> getPointsInside(String author, String name, BoundingBox window) throws BlueprintNotFoundException {
+        List<Batch> batches = snapshot(new BlueprintKey(author, name));
+        if (batches.isEmpty()) return delegate.getPointsInside(author, name, window);
+        List<Point> inside = new ArrayList<>();
+        merged(delegate.getBlueprint(author, name), batches).pointBuffer().forEach((x, y) -> {
+            if (window.contains(x, y)) inside.add(new Point(x, y));
+        });
+        return inside;
+    }
+
+    @Override
+    public Set<Blueprint> getBlueprintsByAuthor(String author) throws BlueprintNotFoundException {
+        Map<BlueprintKey, List<Batch>> queued = snapshotAll();
+        return mergedSet(delegate.getBlueprintsByAuthor(author), queued);
+    }
+
+    @Override
+    public Set<Blueprint> getAllBlueprints() {
+        Map<BlueprintKey, List<Batch>> queued = snapshotAll();
+        return mergedSet(delegate.getAllBlueprints(), queued);
+    }
+
+    private static Set<Blueprint> mergedSet(Set<Blueprint> stored, Map<BlueprintKey, List<Batch>> queued) {
+        if (queued.isEmpty()) return stored;
+        Set<Blueprint> result = new HashSet<>();
+        for (Blueprint bp : stored) result.add(merged(bp, queued.get(BlueprintKey.of(bp))));
+        return result;
+    }
+
+    @Override
+    public List<Blueprint> getBlueprintsPage(BlueprintKey after, int limit) {
+        Map<BlueprintKey, List<Batch>> queued = snapshotAll();
+        List<Blueprint> page = delegate.getBlueprintsPage(after, limit);
+        if (queued.isEmpty()) return page;
+        return page.stream().map(bp -> merged(bp, queued.get(BlueprintKey.of(bp)))).toList();
+    }
+
+    @Override
+    public void forEachBlueprint(Consumer<Blueprint> action) {
+        Map<BlueprintKey, List<Batch>> queued = snapshotAll();
+        delegate.forEachBlueprint(queued.isEmpty() ? action : bp -> action.accept(merged(bp, queued.get(BlueprintKey.of(bp)))));
+    }
+
+    @Override
+    public void addPoint(String author, String name, int x, int y) throws BlueprintNotFoundException {
+        addPointDeferred(author, name, x, y).await();
+    }
+
+    @Override
+    public void addPoints(String author, String name, Collection<Point> points) throws BlueprintNotFoundException {
+        addPointsDeferred(author, name, points).await();
+    }
+
+    @Override
+    public void addPoints(String author, String name, Collection<Point> points, long expectedVersion)
+            throws BlueprintNotFoundException {
+        addPointsDeferred(author, name, points, expectedVersion).await();
+    }
+
+    @Override
+    public Durability addPointDeferred(String author, String name, int x, int y) throws BlueprintNotFoundException {
+        PointBuffer.Builder point = PointBuffer.builder(1);
+        point.add(x, y);
+        return enqueue(author, name, point.build(), null);
+    }
+
+    @Override
+    public Durability addPointsDeferred(String author, String name, Collection<Point> points)
+            throws BlueprintNotFoundException {
+        return enqueue(author, name, PointBuffer.of(points), null);
+    }
+
+    /** La versión se compara con la del blueprint contando sus anexos pendientes. */
+    @Override
+    public Durability addPointsDeferred(String author, String name, Collection<Point> points, long expectedVersion)
+            throws BlueprintNotFoundException {
+        return enqueue(author, name, PointBuffer.of(points), expectedVersion);
+    }
+
+    @Override
+    public void addPointBatches(String author, String name, List<PointBuffer> batches) throws BlueprintNotFoundException {
+        Durability last = Durability.DURABLE;
+        for (PointBuffer batch : batches) {
+            Durability durability = enqueue(author, name, batch, null);
+            // Waiting for the last record covers the earlier ones: a fsync reaches every record written before it
+            if (durability != Durability.DURABLE) last = durability;
+        }
+        last.await();
+    }
+
+    /**
+     * Un anexo pendiente: {@code points} van a partir del índice {@code from} y dejan el blueprint en
+     * {@code version}. {@code segment} es el del registro que lo contiene, si hay registro.
+     */
+    private record Batch(int from, long version, Instant at, PointBuffer points, long segment) {
+        /** Los puntos del anexo desde el índice {@code total} en adelante: los que aún no se han leído. */
+        PointBuffer unseen(int total) {
+            return total <= from ? points : points.tail(total - from);
+        }
+    }
+
+    /**
+     * Anexos pendientes de un blueprint y el estado al que lo llevan. Se conserva vacío tras escribirlos, como
+     * copia del total y la versión guardados. Solo se usa con su franja bloqueada.
+     */
+    private static final class Pending {
+        final List<Batch> batches = new ArrayList<>();
+        int total;
+        long version;
+        int points;
+
+        Pending(int total, long version) {
+            this.total = total;
+            this.version = version;
+        }
+
+        void add(PointBuffer batch, long segment) {
+            version++;
+            batches.add(new Batch(total, version, Instant.now(), batch, segment));
+            total += batch.size();
+            points += batch.size();
+        }
+    }
+}
@@ -0,0 +1,108 @@
+package edu.eci.arsw.blueprints.persistence.old;
+
+import edu.eci.arsw.blueprints.model.BlueprintBounds;
+import edu.eci.arsw.blueprints.model.BlueprintKey;
+import edu.eci.arsw.blueprints.model.BoundingBox;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+/**
+ * Índice espacial en memoria de las cajas de los blueprints: una rejilla uniforme de celdas de
+ * {@value #CELL_SIZE} unidades en la que cada blueprint figura en las celdas que toca su caja.
+ * Una búsqueda solo mira los blueprints de las celdas de la ventana, en vez de recorrerlos todos.
+ *
+ * <p>Las cajas solo crecen (los puntos no se borran), así que actualizar es añadir celdas.
+ * Las cajas que tocan más de {@value #MAX_CELLS} celdas van a una lista aparte que se revisa siempre,
+ * para que un blueprint enorme no ocupe miles de celdas.
+ * Las actualizaciones de un mismo blueprint deben llegar de una en una; las búsquedas pueden ir en paralelo.
+ */
+class BlueprintGridIndex {
+
+    static final int CELL_SIZE = 256;
+    static final int MAX_CELLS = 64;
+
+    private final ConcurrentMap<BlueprintKey, BoundingBox> bounds = new ConcurrentHashMap<>();
+    private final ConcurrentMap<Long, Set<BlueprintKey>> cells = new ConcurrentHashMap<>();
+    private final Set<BlueprintKey> oversized = ConcurrentHashMap.newKeySet();
+
+    /** Extiende la caja de {@code key} para cubrir {@code box}; una caja nula (sin puntos) no cambia nada. */
+    void expand(BlueprintKey key, BoundingBox box) {
+        if (box == null) return;
+        BoundingBox old = bounds.get(key);
+        BoundingBox grown = box.union(old);
+        if (grown.equals(old)) return;
+        bounds.put(key, grown);
+        if (oversized.contains(key)) return;
+        if (cellCount(grown) > MAX_CELLS) {
+            // Listed as oversized before leaving its cells, so a concurrent search always finds it somewhere
+            oversized.add(key);
+            if (old != null) forEachCell(old, cell -> {
+                Set<BlueprintKey> keys = cells.get(cell);
+                if (keys != null) keys.remove(key);
+            });
+            return;
+        }
+        forEachCell(grown, cell -> cells.computeIfAbsent(cell, c -> ConcurrentHashMap.newKeySet()).add(key));
+    }
+
+    /** Caja actual de {@code key}, o {@code null} si no tiene puntos. */
+    BoundingBox boundsOf(BlueprintKey key) {
+        return bounds.get(key);
+    }
+
+    /** Blueprints cuya caja corta {@code window}, ordenados por (author, name). */
+    List<BlueprintBounds> search(BoundingBox window) {
+        List<BlueprintBounds> result = new ArrayList<>();
+        if (cellCount(window) > cells.size()) {
+            // A window wider than the occupied grid is cheaper to answer by scanning every box
+            for (Map.Entry<BlueprintKey, BoundingBox> e : bounds.entrySet()) {
+                if (e.getValue().intersects(window)) result.add(bounds(e.getKey(), e.getValue()));
+            }
+        } else {
+            Set<BlueprintKey> candidates = new HashSet<>(oversized);
+            forEachCell(window, cell -> {
+                Set<BlueprintKey> keys = cells.get(cell);
+                if (keys != null) candidates.addAll(keys);
+            });
+            for (BlueprintKey key : candidates) {
+                BoundingBox box = bounds.get(key);
+                if (box != null && box.intersects(window)) result.add(bounds(key, box));
+            }
+        }
+        result.sort((a, b) -> new BlueprintKey(a.author(), a.name()).compareTo(new BlueprintKey(b.author(), b.name())));
+        return result;
+    }
+
+    private static BlueprintBounds bounds(BlueprintKey key, BoundingBox box) {
+        return new BlueprintBounds(key.author(), key.name(), box);
+    }
+
+    private static long cellCount(BoundingBox box) {
+        long columns = (long) cellOf(box.maxX()) - cellOf(box.minX()) + 1;
+        long rows = (long) cellOf(box.maxY()) - cellOf(box.minY()) + 1;
+        return columns * rows;
+    }
+
+    private static void forEachCell(BoundingBox box, CellAction action) {
+        for (int cx = cellOf(box.minX()); cx <= cellOf(box.maxX()); cx++) {
+            for (int cy = cellOf(box.minY()); cy <= cellOf(box.maxY()); cy++) {
+                action.accept(((long) cx << 32) | (cy & 0xffffffffL));
+            }
+        }
+    }
+
+    private static int cellOf(int coordinate) {
+        return Math.floorDiv(coordinate, CELL_SIZE);
+    }
+
+    @FunctionalInterface
+    private interface CellAction {
+        void accept(long cell);
+    }
+}
@@ -1,20 +1,40 @@
 package edu.eci.arsw.blueprints.persistence.old;
 
 import edu.eci.arsw.blueprints.model.Blueprint;
+import edu.eci.arsw.blueprints.model.BlueprintBounds;
+import edu.eci.arsw.blueprints.model.BlueprintKey;
+import edu.eci.arsw.blueprints.model.BlueprintVersion;
+import edu.eci.arsw.blueprints.model.BoundingBox;
 import edu.eci.arsw.blueprints.model.Point;
+import edu.eci.arsw.blueprints.model.PointBuffer;
+import edu.eci.arsw.blueprints.model.PointsDelta;
 import edu.eci.arsw.blueprints.persistence.BlueprintNotFoundException;
 import edu.eci.arsw.blueprints.persistence.BlueprintPersistence;
 import edu.eci.arsw.blueprints.persistence.BlueprintPersistenceException;
+import org.springframework.dao.OptimisticLockingFailureException;
 import org.springframework.stereotype.Repository;
 
+import java.time.Instant;
 import java.util.*;
 import java.util.concurrent.ConcurrentHashMap;
-import java.util.stream.Collectors;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ConcurrentNavigableMap;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.function.Consumer;
 
 @Repository
 public class InMemoryBlueprintPersistence implements BlueprintPersistence {
 
-    private final Map<String, Blueprint> blueprints = new ConcurrentHashMap<>();
+    // Ordered by (author, name) for listing and keyset pages
+    private final ConcurrentNavigableMap<BlueprintKey, Blueprint> blueprints = new ConcurrentSkipListMap<>();
+    // Secondary index author -> name -> blueprint; by-author lookups cost O(k) and point
+    // lookups go through it without building a key
+    private final ConcurrentMap<String, ConcurrentMap<String, Blueprint>> byAuthor = new ConcurrentHashMap<>();
+    // Appends to a blueprint run inside compute() on its entry, so they are applied one at a time
+    private final ConcurrentMap<BlueprintKey, BlueprintVersion> versions = new ConcurrentHashMap<>();
+    private static final BlueprintVersion INITIAL = new BlueprintVersion(0, null);
+    // Bounding boxes, widened inside the same compute() as the append that grows them
+    private final BlueprintGridIndex grid = new BlueprintGridIndex();
 
     public InMemoryBlueprintPersistence() {
         // Sample data 1:1 style (author/name key)
@@ -24,35 +44,87 @@ public class InMemoryBlueprintPersistence implements BlueprintPersistence {
                 List.of(new Point(5,5), new Point(15,5), new Point(15,15)));
         Blueprint bp3 = new Blueprint("jane", "garden",
                 List.of(new Point(2,2), new Point(3,4), new Point(6,7)));
-        blueprints.put(keyOf(bp1), bp1);
-        blueprints.put(keyOf(bp2), bp2);
-        blueprints.put(keyOf(bp3), bp3);
+        index(bp1);
+        index(bp2);
+        index(bp3);
     }
 
-    private String keyOf(Blueprint bp) { return bp.getAuthor() + ":" + bp.getName(); }
-    private String keyOf(String author, String name) { return author + ":" + name; }
+    /** Registers {@code bp} unless its (author, name) is taken; the author index decides uniqueness. */
+    private boolean index(Blueprint bp) {
+        Map<String, Blueprint> names = byAuthor.computeIfAbsent(bp.getAuthor(), a -> new ConcurrentHashMap<>());
+        if (names.putIfAbsent(bp.getName(), bp) != null) return false;
+        BlueprintKey key = BlueprintKey.of(bp);
+        versions.compute(key, (k, current) -> {
+            grid.expand(k, BoundingBox.of(bp.pointBuffer()));
+            return new BlueprintVersion(0, Instant.now());
+        });
+        blueprints.put(key, bp);
+        return true;
+    }
 
     @Override
     public void saveBlueprint(Blueprint bp) throws BlueprintPersistenceException {
-        String k = keyOf(bp);
-        if (blueprints.containsKey(k)) throw new BlueprintPersistenceException("Blueprint already exists: " + k);
-        blueprints.put(k, bp);
+        if (!index(bp)) throw new BlueprintPersistenceException("Blueprint already exists: " + BlueprintKey.of(bp));
     }
 
     @Override
     public Blueprint getBlueprint(String author, String name) throws BlueprintNotFoundException {
-        Blueprint bp = blueprints.get(keyOf(author, name));
+        Map<String, Blueprint> names = byAuthor.get(author);
+        Blueprint bp = names == null ? null : names.get(name);
         if (bp == null) throw new BlueprintNotFoundException("Blueprint not found: %s/%s".formatted(author, name));
         return bp;
     }
 
+    @Override
+    public BlueprintVersion getVersion(String author, String name) throws BlueprintNotFoundException {
+        getBlueprint(author, name);
+        // Null only while index() is still registering the blueprint
+        return versions.getOrDefault(new BlueprintKey(author, name), INITIAL);
+    }
+
+    @Override
+    public PointsDelta getPointsSince(String author, String name, int since) throws BlueprintNotFoundException {
+        Blueprint bp = getBlueprint(author, name);
+        PointsDelta[] delta = new PointsDelta[1];
+        // Appends also run in compute(), so the points and the version read here belong together
+        versions.compute(BlueprintKey.of(bp), (key, current) -> {
+            PointBuffer points = bp.pointBuffer();
+            delta[0] = new PointsDelta(since, points.size(), current == null ? 0 : current.version(), points.tail(since));
+            return current;
+        });
+        return delta[0];
+    }
+
+    @Override
+    public List<BlueprintBounds> findIntersecting(BoundingBox window) {
+        return grid.search(window);
+    }
+
+    @Override
+    public List<Point> getPointsInside(String author, String name, BoundingBox window) throws BlueprintNotFoundException {
+        Blueprint bp = getBlueprint(author, name);
+        BoundingBox[] box = new BoundingBox[1];
+        PointBuffer[] points = new PointBuffer[1];
+        // The box and the points must be read together, or a point appended in between could escape the window
+        versions.compute(BlueprintKey.of(bp), (key, current) -> {
+            box[0] = grid.boundsOf(key);
+            if (box[0] != null && box[0].intersects(window)) points[0] = bp.pointBuffer();
+            return current;
+        });
+        if (points[0] == null) return List.of();
+        if (window.contains(box[0])) return points[0].asList();
+        List<Point> inside = new ArrayList<>();
+        points[0].forEach((x, y) -> {
+            if (window.contains(x, y)) inside.add(new Point(x, y));
+        });
+        return inside;
+    }
+
     @Override
     public Set<Blueprint> getBlueprintsByAuthor(String author) throws BlueprintNotFoundException {
-        Set<Blueprint> set = blueprints.values().stream()
-                .filter(bp -> bp.getAuthor().equals(author))
-                .collect(Collectors.toSet());
-        if (set.isEmpty()) throw new BlueprintNotFoundException("No blueprints for author: " + author);
-        return set;
+        Map<String, Blueprint> names = byAuthor.get(author);
+        if (names == null || names.isEmpty()) throw new BlueprintNotFoundException("No blueprints for author: " + author);
+        return new HashSet<>(names.values());
     }
 
     @Override
@@ -60,9 +132,69 @@ public class InMemoryBlueprintPersistence implements BlueprintPersistence {
         return new HashSet<>(blueprints.values());
     }
 
+    @Override
+    public List<Blueprint> getBlueprintsPage(BlueprintKey after, int limit) {
+        Map<BlueprintKey, Blueprint> tail = after == null ? blueprints : blueprints.tailMap(after, false);
+        return tail.values().stream().limit(limit).toList();
+    }
+
+    @Override
+    public void forEachBlueprint(Consumer<Blueprint> action) {
+        blueprints.values().forEach(action);
+    }
+
     @Override
     public void addPoint(String author, String name, int x, int y) throws BlueprintNotFoundException {
         Blueprint bp = getBlueprint(author, name);
-        bp.addPoint(new Point(x, y));
+        versions.compute(BlueprintKey.of(bp), (key, current) -> {
+            bp.addPoint(x, y);
+            grid.expand(key, new BoundingBox(x, y, x, y));
+            return next(current);
+        });
+    }
+
+    @Override
+    public void addPoints(String author, String name, Collection<Point> points) throws BlueprintNotFoundException {
+        Blueprint bp = getBlueprint(author, name);
+        if (points.isEmpty()) return;
+        versions.compute(BlueprintKey.of(bp), (key, current) -> {
+            bp.addPoints(points);
+            grid.expand(key, BoundingBox.of(PointBuffer.of(points)));
+            return next(current);
+        });
+    }
+
+    @Override
+    public void addPoints(String author, String name, Collection<Point> points, long expectedVersion)
+            throws BlueprintNotFoundException {
+        Blueprint bp = getBlueprint(author, name);
+        versions.compute(BlueprintKey.of(bp), (key, current) -> {
+            long version = current == null ? 0 : current.version();
+            if (version != expectedVersion) {
+                throw new OptimisticLockingFailureException("Blueprint %s is at version %d, not %d"
+                        .formatted(key, version, expectedVersion));
+            }
+            if (points.isEmpty()) return current;
+            bp.addPoints(points);
+            grid.expand(key, BoundingBox.of(PointBuffer.of(points)));
+            return next(current);
+        });
+    }
+
+    @Override
+    public void addPointBatches(String author, String name, List<PointBuffer> batches) throws BlueprintNotFoundException {
+        Blueprint bp = getBlueprint(author, name);
+        long appends = batches.stream().filter(b -> !b.isEmpty()).count();
+        if (appends == 0) return;
+        PointBuffer points = PointBuffer.concat(batches);
+        versions.compute(BlueprintKey.of(bp), (key, current) -> {
+            bp.addPoints(points);
+            grid.expand(key, BoundingBox.of(points));
+            return new BlueprintVersion((current == null ? 0 : current.version()) + appends, Instant.now());
+        });
+    }
+
+    private static BlueprintVersion next(BlueprintVersion current) {
+        return new BlueprintVersion(current == null ? 1 : current.version() + 1, Instant.now());
     }
 }
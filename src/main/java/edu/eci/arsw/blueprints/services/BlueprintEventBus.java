@@ -0,0 +1,195 @@
+package edu.eci.arsw.blueprints.services;
+
+import edu.eci.arsw.blueprints.model.BlueprintKey;
+import edu.eci.arsw.blueprints.model.PointBuffer;
+import edu.eci.arsw.blueprints.model.PointsDelta;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Bus en proceso de los anexos a cada blueprint. Cada suscriptor tiene su propia cola acotada y su hilo
+ * virtual de entrega: publicar solo agrega los puntos a la cola, nunca espera a un consumidor.
+ * Los anexos que se acumulan mientras un consumidor está ocupado se fusionan en un único evento.
+ * Si la cola de un suscriptor supera {@code blueprints.events.max-pending-points}, se descarta:
+ * recibe un evento {@code resync} con el índice desde el que debe volver a suscribirse y se cierra.
+ *
+ * <p>Los eventos {@code points} llevan un {@link PointsDelta}: desde qué índice van los puntos, el total y la
+ * versión resultante. La versión se deduce sin consultar la base porque cada anexo no vacío la sube en uno.
+ */
+@Component
+public class BlueprintEventBus {
+
+    public static final String POINTS_EVENT = "points";
+    public static final String RESYNC_EVENT = "resync";
+
+    private final ConcurrentMap<BlueprintKey, Set<Subscription>> subscribers = new ConcurrentHashMap<>();
+    private final int maxPendingPoints;
+
+    public BlueprintEventBus(@Value("${blueprints.events.max-pending-points:10000}") int maxPendingPoints) {
+        this.maxPendingPoints = maxPendingPoints;
+    }
+
+    /**
+     * Registra {@code sink} en el blueprint y arranca su entrega. El primer evento es {@code initial};
+     * si es nulo (el blueprint aún no existe) el primero será su creación.
+     * Debe llamarse con las escrituras del blueprint detenidas, para que ningún anexo quede entre
+     * {@code initial} y los eventos publicados después.
+     */
+    public Subscription subscribe(BlueprintKey key, PointsDelta initial, Sink sink) {
+        Subscription sub = new Subscription(key, initial, sink);
+        subscribers.computeIfAbsent(key, k -> ConcurrentHashMap.newKeySet()).add(sub);
+        Thread.ofVirtual().name("blueprint-events-" + key).start(sub::deliver);
+        return sub;
+    }
+
+    /** Publica un anexo de puntos; un lote vacío no cambia el blueprint y no se publica. */
+    public void publishAppend(BlueprintKey key, PointBuffer points) {
+        if (!points.isEmpty()) publish(key, points);
+    }
+
+    /** Publica la creación del blueprint con sus puntos iniciales, que lo deja en la versión 0. */
+    public void publishCreated(BlueprintKey key, PointBuffer points) {
+        publish(key, points);
+    }
+
+    private void publish(BlueprintKey key, PointBuffer points) {
+        Set<Subscription> subs = subscribers.get(key);
+        if (subs == null) return;
+        for (Subscription sub : subs) sub.offer(points);
+    }
+
+    /** Número de suscriptores activos del blueprint. */
+    public int subscriberCount(BlueprintKey key) {
+        Set<Subscription> subs = subscribers.get(key);
+        return subs == null ? 0 : subs.size();
+    }
+
+    private void remove(Subscription sub) {
+        subscribers.computeIfPresent(sub.key, (k, subs) -> {
+            subs.remove(sub);
+            return subs.isEmpty() ? null : subs;
+        });
+    }
+
+    /** Destino de los eventos de un suscriptor, p. ej. una conexión SSE. Solo lo usa su hilo de entrega. */
+    public interface Sink {
+        /** @param id total de puntos entregados tras este evento; sirve de {@code Last-Event-ID} */
+        void send(String id, String event, Object data) throws IOException;
+
+        void close();
+    }
+
+    /** Índice desde el que un suscriptor descartado debe volver a pedir los puntos. */
+    public record Resync(int since) {}
+
+    public final class Subscription {
+        private final BlueprintKey key;
+        private final Sink sink;
+        private final ReentrantLock lock = new ReentrantLock();
+        private final Condition ready = lock.newCondition();
+        // Guarded by lock: the appends not yet delivered, already merged into one batch
+        private PointsDelta initial;
+        private PointBuffer.Builder pending;
+        private int pendingAppends;
+        private boolean overflowed;
+        private boolean cancelled;
+        // Only touched by the delivery thread
+        private int total;
+        private long version;
+
+        private Subscription(BlueprintKey key, PointsDelta initial, Sink sink) {
+            this.key = key;
+            this.sink = sink;
+            this.initial = initial;
+            // A blueprint that does not exist yet is created at version 0 with its first points at index 0
+            this.total = initial == null ? 0 : initial.total();
+            this.version = initial == null ? -1 : initial.version();
+        }
+
+        private void offer(PointBuffer points) {
+            lock.lock();
+            try {
+                if (overflowed || cancelled) return;
+                int queued = pending == null ? 0 : pending.size();
+                if (queued + points.size() > maxPendingPoints) {
+                    // Dropping the batch keeps the memory bounded; the consumer reloads from its last index
+                    overflowed = true;
+                    pending = null;
+                    pendingAppends = 0;
+                } else {
+                    if (pending == null) pending = PointBuffer.builder(points.size());
+                    pending.addAll(points);
+                    pendingAppends++;
+                }
+                ready.signal();
+            } finally {
+                lock.unlock();
+            }
+        }
+
+        /** Deja de entregar eventos y libera la cola; lo llama quien ve cerrarse la conexión. */
+        public void cancel() {
+            lock.lock();
+            try {
+                cancelled = true;
+                pending = null;
+                ready.signal();
+            } finally {
+                lock.unlock();
+            }
+            remove(this);
+        }
+
+        private void deliver() {
+            try {
+                while (true) {
+                    PointsDelta first;
+                    PointBuffer batch;
+                    int appends;
+                    boolean resync;
+                    lock.lock();
+                    try {
+                        while (initial == null && pending == null && !overflowed && !cancelled) ready.await();
+                        if (cancelled) return;
+                        first = initial;
+                        resync = overflowed && first == null;
+                        batch = pending == null ? null : pending.build();
+                        appends = pendingAppends;
+                        initial = null;
+                        pending = null;
+                        pendingAppends = 0;
+                    } finally {
+                        lock.unlock();
+                    }
+                    // Sending may block on a slow client; no lock is held, so writers keep queueing meanwhile
+                    if (first != null) sink.send(Integer.toString(total), POINTS_EVENT, first);
+                    if (resync) {
+                        remove(this);
+                        sink.send(Integer.toString(total), RESYNC_EVENT, new Resync(total));
+                        sink.close();
+                        return;
+                    }
+                    if (batch != null) {
+                        int from = total;
+                        total += batch.size();
+                        version += appends;
+                        sink.send(Integer.toString(total), POINTS_EVENT, new PointsDelta(from, total, version, batch));
+                    }
+                }
+            } catch (IOException | RuntimeException e) {
+                // The client went away mid-send; the connection's own callbacks clean up the rest
+                remove(this);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                remove(this);
+            }
+        }
+    }
+}
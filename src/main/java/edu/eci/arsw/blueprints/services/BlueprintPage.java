@@ -0,0 +1,12 @@
+package edu.eci.arsw.blueprints.services;
+
+import edu.eci.arsw.blueprints.model.Blueprint;
+import edu.eci.arsw.blueprints.model.BlueprintKey;
+
+import java.util.List;
+
+/**
+ * Página de blueprints ordenada por (author, name).
+ * {@code next} es la clave desde la que se pide la siguiente página, o {@code null} si no hay más.
+ */
+public record BlueprintPage(List<Blueprint> blueprints, BlueprintKey next) {}
@@ -1,42 +1,288 @@
 package edu.eci.arsw.blueprints.services;
 
-import edu.eci.arsw.blueprints.filters.BlueprintsFilter;
+import edu.eci.arsw.blueprints.filters.BlueprintsFilterRegistry;
+import edu.eci.arsw.blueprints.filters.FilterPipeline;
+import edu.eci.arsw.blueprints.filters.LevelOfDetailFilter;
 import edu.eci.arsw.blueprints.model.Blueprint;
+import edu.eci.arsw.blueprints.model.BlueprintBounds;
+import edu.eci.arsw.blueprints.model.BlueprintKey;
+import edu.eci.arsw.blueprints.model.BlueprintVersion;
+import edu.eci.arsw.blueprints.model.BoundingBox;
+import edu.eci.arsw.blueprints.model.Point;
+import edu.eci.arsw.blueprints.model.PointBuffer;
+import edu.eci.arsw.blueprints.model.PointsDelta;
 import edu.eci.arsw.blueprints.persistence.BlueprintNotFoundException;
 import edu.eci.arsw.blueprints.persistence.BlueprintPersistence;
 import edu.eci.arsw.blueprints.persistence.BlueprintPersistenceException;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.context.annotation.Profile;
 import org.springframework.stereotype.Service;
 
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.List;
 import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+import java.util.function.Consumer;
 
 @Service
+@Profile("!reactive")
 public class BlueprintsServices {
 
+    /** Nivel de detalle más grueso: uno de cada 2^30 puntos. */
+    public static final int MAX_LOD = LevelOfDetailFilter.MAX_LEVEL;
+
     private final BlueprintPersistence persistence;
-    private final BlueprintsFilter filter;
+    private final BlueprintsFilterRegistry filters;
+    private final FilteredBlueprintCache cache;
+    private final Executor filterExecutor;
+    private final BlueprintEventBus events;
 
-    public BlueprintsServices(BlueprintPersistence persistence, BlueprintsFilter filter) {
+    public BlueprintsServices(BlueprintPersistence persistence, BlueprintsFilterRegistry filters,
+                              FilteredBlueprintCache cache,
+                              @Qualifier("blueprintFilterExecutor") Executor filterExecutor,
+                              BlueprintEventBus events) {
         this.persistence = persistence;
-        this.filter = filter;
+        this.filters = filters;
+        this.cache = cache;
+        this.filterExecutor = filterExecutor;
+        this.events = events;
     }
 
     public void addNewBlueprint(Blueprint bp) throws BlueprintPersistenceException {
-        persistence.saveBlueprint(bp);
+        BlueprintKey key = BlueprintKey.of(bp);
+        // Saved and published under the blueprint's write lock, like appends, so a concurrent subscribe
+        // either finds it in storage or receives its creation
+        cache.exclusive(key, () -> {
+            persistence.saveBlueprint(bp);
+            events.publishCreated(key, bp.pointBuffer());
+        });
+        cache.invalidate(key);
+    }
+
+    /**
+     * Suscribe {@code sink} a los anexos del blueprint. El primer evento trae los puntos desde {@code since};
+     * si el blueprint aún no existe, el primero será su creación. Los eventos se entregan en otro hilo.
+     */
+    public BlueprintEventBus.Subscription subscribe(String author, String name, int since, BlueprintEventBus.Sink sink) {
+        if (since < 0) throw new IllegalArgumentException("since must not be negative");
+        BlueprintKey key = new BlueprintKey(author, name);
+        BlueprintEventBus.Subscription[] subscription = new BlueprintEventBus.Subscription[1];
+        // Reading the tail and registering with appends paused leaves no gap and no overlap between them
+        cache.exclusive(key, () -> {
+            PointsDelta initial;
+            try {
+                initial = persistence.getPointsSince(author, name, since);
+            } catch (BlueprintNotFoundException e) {
+                initial = null;
+            }
+            subscription[0] = events.subscribe(key, initial, sink);
+        });
+        return subscription[0];
     }
 
+    /** Todos los blueprints, sin filtrar. */
     public Set<Blueprint> getAllBlueprints() {
         return persistence.getAllBlueprints();
     }
 
+    /**
+     * Todos los blueprints pasados por la cadena {@code filterSpec} (la cadena por defecto si es nula).
+     * @throws IllegalArgumentException si la especificación no es válida
+     */
+    public Set<Blueprint> getAllBlueprints(String filterSpec) {
+        FilterPipeline pipeline = filters.pipeline(filterSpec);
+        FilteredBlueprintCache.Stamp stamp = cache.stamp();
+        return new HashSet<>(filterAll(List.copyOf(persistence.getAllBlueprints()), pipeline, stamp));
+    }
+
+    public BlueprintPage getBlueprintsPage(BlueprintKey after, int limit) {
+        // One extra row tells whether another page exists without a second query
+        List<Blueprint> rows = persistence.getBlueprintsPage(after, limit + 1);
+        if (rows.size() <= limit) return new BlueprintPage(rows, null);
+        List<Blueprint> page = rows.subList(0, limit);
+        return new BlueprintPage(page, BlueprintKey.of(page.get(limit - 1)));
+    }
+
+    /** Página de blueprints filtrados; el cursor sigue siendo la clave del último blueprint original. */
+    public BlueprintPage getBlueprintsPage(BlueprintKey after, int limit, String filterSpec) {
+        FilterPipeline pipeline = filters.pipeline(filterSpec);
+        FilteredBlueprintCache.Stamp stamp = cache.stamp();
+        BlueprintPage page = getBlueprintsPage(after, limit);
+        return new BlueprintPage(filterAll(page.blueprints(), pipeline, stamp), page.next());
+    }
+
+    public void forEachBlueprint(Consumer<Blueprint> action) {
+        persistence.forEachBlueprint(action);
+    }
+
+    /** @throws IllegalArgumentException si {@code filterSpec} no describe una cadena válida */
+    public void validateFilter(String filterSpec) {
+        filters.pipeline(filterSpec);
+    }
+
+    /**
+     * Forma canónica de {@code filterSpec}, o de la cadena por defecto si es nula.
+     * @throws IllegalArgumentException si {@code filterSpec} no describe una cadena válida
+     */
+    public String canonicalFilter(String filterSpec) {
+        return filters.pipeline(filterSpec).spec();
+    }
+
+    /**
+     * Cadena del nivel de detalle {@code lod} de {@code filterSpec}: la misma cadena seguida de
+     * {@code lod:n} ({@link LevelOfDetailFilter}), así cada nivel tiene la mitad de puntos que el anterior
+     * y nunca más que él.
+     * El nivel 0 es la cadena sin cambios. Cada nivel es una variante más de la caché: se calcula en su primera
+     * lectura y los anexos la extienden, igual que a cualquier cadena incremental.
+     * @throws IllegalArgumentException si {@code lod} está fuera de {@code [0, MAX_LOD]} o la cadena no es válida
+     */
+    public String levelOfDetail(String filterSpec, int lod) {
+        if (lod < 0 || lod > MAX_LOD) throw new IllegalArgumentException("lod must be between 0 and " + MAX_LOD);
+        String base = canonicalFilter(filterSpec);
+        if (lod == 0) return base;
+        String step = "lod:" + lod;
+        return base.isEmpty() ? step : base + "," + step;
+    }
+
+    /**
+     * Nivel de detalle más fino que deja un blueprint de {@code points} puntos en no más de {@code maxPoints}.
+     * Ningún filtro agrega puntos, así que el nivel también basta para cualquier cadena aplicada antes.
+     * @throws IllegalArgumentException si {@code maxPoints} es menor que 2
+     */
+    public static int levelForBudget(int points, int maxPoints) {
+        if (maxPoints < 2) throw new IllegalArgumentException("maxPoints must be at least 2");
+        long size = points;
+        int lod = 0;
+        // Level n keeps ceil(size / 2^n) points
+        while (size > maxPoints && lod < MAX_LOD) {
+            size = (size + 1) / 2;
+            lod++;
+        }
+        return lod;
+    }
+
+    /** Recorre los blueprints filtrando cada uno en el hilo que lo lee, a medida que llegan. */
+    public void forEachBlueprint(String filterSpec, Consumer<Blueprint> action) {
+        FilterPipeline pipeline = filters.pipeline(filterSpec);
+        persistence.forEachBlueprint(pipeline.isIdentity() ? action : bp -> action.accept(pipeline.apply(bp)));
+    }
+
+    /** Blueprints del autor, sin filtrar. */
     public Set<Blueprint> getBlueprintsByAuthor(String author) throws BlueprintNotFoundException {
         return persistence.getBlueprintsByAuthor(author);
     }
 
+    public Set<Blueprint> getBlueprintsByAuthor(String author, String filterSpec) throws BlueprintNotFoundException {
+        FilterPipeline pipeline = filters.pipeline(filterSpec);
+        FilteredBlueprintCache.Stamp stamp = cache.stamp();
+        return new HashSet<>(filterAll(List.copyOf(persistence.getBlueprintsByAuthor(author)), pipeline, stamp));
+    }
+
+    /**
+     * Filtra cada blueprint en {@code filterExecutor}, conservando el orden. Cada resultado pasa por la
+     * caché, así que las variantes ya materializadas no se vuelven a calcular; {@code stamp}, tomado antes de
+     * leer {@code raw}, evita guardar un blueprint que un anexo cambió después de la lectura.
+     */
+    private List<Blueprint> filterAll(List<Blueprint> raw, FilterPipeline pipeline, FilteredBlueprintCache.Stamp stamp) {
+        if (pipeline.isIdentity()) return raw;
+        if (raw.size() < 2) return raw.stream().map(bp -> filtered(bp, pipeline, stamp)).toList();
+        List<CompletableFuture<Blueprint>> tasks = new ArrayList<>(raw.size());
+        for (Blueprint bp : raw) {
+            tasks.add(CompletableFuture.supplyAsync(() -> filtered(bp, pipeline, stamp), filterExecutor));
+        }
+        List<Blueprint> result = new ArrayList<>(raw.size());
+        for (CompletableFuture<Blueprint> task : tasks) result.add(task.join());
+        return result;
+    }
+
+    private Blueprint filtered(Blueprint raw, FilterPipeline pipeline, FilteredBlueprintCache.Stamp stamp) {
+        return cache.get(BlueprintKey.of(raw), pipeline, stamp, () -> raw);
+    }
+
+    /** Versión actual del blueprint, leída sin cargar ni filtrar sus puntos. */
+    public BlueprintVersion getBlueprintVersion(String author, String name) throws BlueprintNotFoundException {
+        return persistence.getVersion(author, name);
+    }
+
+    /**
+     * Los puntos sin filtrar anexados desde el índice {@code since}, con el total y la versión actuales.
+     * Los filtros no se aplican: su salida no se puede extender por tramos en el cliente.
+     * @throws IllegalArgumentException si {@code since} es negativo
+     */
+    public PointsDelta getPointsSince(String author, String name, int since) throws BlueprintNotFoundException {
+        if (since < 0) throw new IllegalArgumentException("since must not be negative");
+        return persistence.getPointsSince(author, name, since);
+    }
+
+    /** Blueprints cuya caja corta {@code window}, con su clave y su caja pero sin cargar sus puntos. */
+    public List<BlueprintBounds> searchByBounds(BoundingBox window) {
+        return persistence.findIntersecting(window);
+    }
+
+    /** Los puntos sin filtrar del blueprint que caen dentro de {@code window}, en su orden original. */
+    public List<Point> getPointsInside(String author, String name, BoundingBox window) throws BlueprintNotFoundException {
+        return persistence.getPointsInside(author, name, window);
+    }
+
     public Blueprint getBlueprint(String author, String name) throws BlueprintNotFoundException {
-        return filter.apply(persistence.getBlueprint(author, name));
+        return getBlueprint(author, name, null);
+    }
+
+    /**
+     * Blueprint pasado por la cadena de filtros {@code filterSpec} (p. ej. {@code redundancy,undersampling:3}),
+     * o por la cadena por defecto si es nula.
+     * @throws IllegalArgumentException si la especificación nombra un filtro desconocido o un argumento inválido
+     */
+    public Blueprint getBlueprint(String author, String name, String filterSpec) throws BlueprintNotFoundException {
+        FilterPipeline pipeline = filters.pipeline(filterSpec);
+        // Variants are cached by canonical spec, so the default chain and the same chain by name share an entry
+        return cache.get(new BlueprintKey(author, name), pipeline, () -> persistence.getBlueprint(author, name));
     }
 
+    /**
+     * Anexa el punto, lo pasa a las variantes filtradas en caché, que no se recalculan, y lo publica
+     * a los suscriptores del blueprint. Devuelve cuando el anexo es durable; la espera se hace fuera del candado
+     * de la caché, así los anexos concurrentes, también al mismo blueprint, comparten la escritura a disco.
+     * Si esa escritura falla el anexo ya está aceptado, en la caché y publicado, y solo se informa el error.
+     */
     public void addPoint(String author, String name, int x, int y) throws BlueprintNotFoundException {
-        persistence.addPoint(author, name, x, y);
+        BlueprintKey key = new BlueprintKey(author, name);
+        PointBuffer.Builder builder = PointBuffer.builder(1);
+        builder.add(x, y);
+        PointBuffer point = builder.build();
+        cache.append(key, point, () -> {
+            BlueprintPersistence.Durability durability = persistence.addPointDeferred(author, name, x, y);
+            events.publishAppend(key, point);
+            return durability;
+        }).await();
+    }
+
+    public void addPoints(String author, String name, Collection<Point> points) throws BlueprintNotFoundException {
+        BlueprintKey key = new BlueprintKey(author, name);
+        PointBuffer batch = PointBuffer.of(points);
+        cache.append(key, batch, () -> {
+            BlueprintPersistence.Durability durability = persistence.addPointsDeferred(author, name, points);
+            events.publishAppend(key, batch);
+            return durability;
+        }).await();
+    }
+
+    /**
+     * Anexa los puntos solo si el blueprint sigue en {@code expectedVersion}; si otra escritura se adelantó,
+     * la persistencia lanza {@link org.springframework.dao.OptimisticLockingFailureException} y la caché no cambia.
+     */
+    public void addPoints(String author, String name, Collection<Point> points, long expectedVersion)
+            throws BlueprintNotFoundException {
+        BlueprintKey key = new BlueprintKey(author, name);
+        PointBuffer batch = PointBuffer.of(points);
+        cache.append(key, batch, () -> {
+            BlueprintPersistence.Durability durability =
+                    persistence.addPointsDeferred(author, name, points, expectedVersion);
+            events.publishAppend(key, batch);
+            return durability;
+        }).await();
     }
 }
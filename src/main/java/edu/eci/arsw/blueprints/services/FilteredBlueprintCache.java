@@ -0,0 +1,267 @@
+package edu.eci.arsw.blueprints.services;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.stats.CacheStats;
+import com.github.benmanes.caffeine.cache.stats.ConcurrentStatsCounter;
+import com.github.benmanes.caffeine.cache.stats.StatsCounter;
+import edu.eci.arsw.blueprints.filters.FilterPipeline;
+import edu.eci.arsw.blueprints.model.Blueprint;
+import edu.eci.arsw.blueprints.model.BlueprintKey;
+import edu.eci.arsw.blueprints.model.PointBuffer;
+import edu.eci.arsw.blueprints.model.PointSink;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Caché de lectura de blueprints ya filtrados, por (author, name, cadena de filtros).
+ * Las entradas se agrupan por blueprint para invalidar todas sus variantes con una sola operación.
+ * Las variantes de cadenas incrementales ({@link FilterPipeline#incremental()}) se materializan: guardan
+ * el estado de sus etapas y {@link #append} les pasa los puntos anexados, así una lectura no filtra nada.
+ * La expulsión es W-TinyLFU (Caffeine) acotada a la vez por número de entradas y por memoria estimada;
+ * los contadores de aciertos, fallos y expulsiones se publican como métricas {@code cache.*}
+ * con la etiqueta {@code cache=blueprints.filtered}.
+ */
+@Component
+public class FilteredBlueprintCache {
+
+    /** Tamaño aproximado de un blueprint filtrado: cabecera y cadenas más 8 bytes por punto. */
+    private static final int ENTRY_OVERHEAD_BYTES = 128;
+    private static final int STRIPES = 64;
+
+    private final Cache<BlueprintKey, Map<String, Variant>> cache;
+    /** Aciertos y fallos se cuentan por variante, no por blueprint; las expulsiones las registra Caffeine. */
+    private final StatsCounter statsCounter = new ConcurrentStatsCounter();
+    /** Se incrementa en cada escritura; un llenado solo se guarda si su franja no cambió mientras cargaba. */
+    private final AtomicLongArray writeEpochs = new AtomicLongArray(STRIPES);
+    /**
+     * Ordena, por franja, los anexos y los llenados: un anexo escribe y extiende las variantes sin que
+     * se cuele un llenado que ya incluya sus puntos, y dos anexos extienden en el orden en que escribieron.
+     */
+    private final ReentrantLock[] stripeLocks = new ReentrantLock[STRIPES];
+
+    public FilteredBlueprintCache(@Value("${blueprints.cache.max-entries:10000}") long maxEntries,
+                                  @Value("${blueprints.cache.max-bytes:268435456}") long maxBytes,
+                                  MeterRegistry registry) {
+        // Caffeine acota por peso o por número, no por ambos: cada entrada pesa al menos
+        // maxBytes / maxEntries, así que nunca caben más de maxEntries
+        long minWeight = Math.max(1, maxBytes / Math.max(1, maxEntries));
+        this.cache = Caffeine.newBuilder()
+                .maximumWeight(maxBytes)
+                .weigher((BlueprintKey k, Map<String, Variant> variants) ->
+                        (int) Math.min(Integer.MAX_VALUE, Math.max(minWeight, bytesOf(variants))))
+                .recordStats(() -> statsCounter)
+                .build();
+        for (int i = 0; i < STRIPES; i++) stripeLocks[i] = new ReentrantLock();
+        CaffeineCacheMetrics.monitor(registry, cache, "blueprints.filtered");
+    }
+
+    private static long bytesOf(Map<String, Variant> variants) {
+        long bytes = 0;
+        for (Variant v : variants.values()) {
+            bytes += ENTRY_OVERHEAD_BYTES + 8L * v.size();
+        }
+        return bytes;
+    }
+
+    /**
+     * Devuelve el blueprint pasado por {@code pipeline}, cargando el original con {@code loader} si la
+     * variante no está. El resultado cargado no se guarda si el blueprint se modificó mientras se calculaba.
+     */
+    public <E extends Exception> Blueprint get(BlueprintKey key, FilterPipeline pipeline, Loader<E> loader) throws E {
+        int stripe = stripeOf(key);
+        return get(key, pipeline, stripe, writeEpochs.get(stripe), loader);
+    }
+
+    /**
+     * Como {@link #get(BlueprintKey, FilterPipeline, Loader)}, para un blueprint que {@code loader} devuelve
+     * ya leído: el resultado no se guarda si hubo una escritura en su franja desde {@code stamp}, tomado antes
+     * de leerlo.
+     */
+    public <E extends Exception> Blueprint get(BlueprintKey key, FilterPipeline pipeline, Stamp stamp,
+                                               Loader<E> loader) throws E {
+        int stripe = stripeOf(key);
+        return get(key, pipeline, stripe, stamp.epochs[stripe], loader);
+    }
+
+    private <E extends Exception> Blueprint get(BlueprintKey key, FilterPipeline pipeline, int stripe, long epoch,
+                                                Loader<E> loader) throws E {
+        Map<String, Variant> variants = cache.asMap().get(key);
+        Variant hit = variants == null ? null : variants.get(pipeline.spec());
+        if (hit != null) {
+            statsCounter.recordHits(1);
+            return hit.blueprint(key);
+        }
+        statsCounter.recordMisses(1);
+
+        Variant loaded = Variant.of(pipeline, loader.load());
+        ReentrantLock lock = stripeLocks[stripe];
+        lock.lock();
+        try {
+            cache.asMap().compute(key, (k, current) -> {
+                if (writeEpochs.get(stripe) != epoch) return current;
+                Map<String, Variant> next = current == null ? new HashMap<>() : new HashMap<>(current);
+                next.put(pipeline.spec(), loaded);
+                return Map.copyOf(next);
+            });
+        } finally {
+            lock.unlock();
+        }
+        return loaded.blueprint(key);
+    }
+
+    /**
+     * Ejecuta {@code write}, que anexa {@code points} en la persistencia, y extiende con ellos las variantes
+     * materializadas del blueprint; las que no pueden extenderse se descartan y se recalculan al leerlas.
+     * Devuelve lo que devolvió {@code write}.
+     */
+    public <T, E extends Exception> T append(BlueprintKey key, PointBuffer points, Appender<T, E> write) throws E {
+        int stripe = stripeOf(key);
+        ReentrantLock lock = stripeLocks[stripe];
+        lock.lock();
+        try {
+            T result = write.write();
+            writeEpochs.incrementAndGet(stripe);
+            cache.asMap().computeIfPresent(key, (k, variants) -> {
+                Map<String, Variant> next = new HashMap<>();
+                variants.forEach((spec, variant) -> {
+                    if (variant.extend(points)) next.put(spec, variant);
+                });
+                // Returning a fresh map lets Caffeine weigh the grown variants again
+                return next.isEmpty() ? null : Map.copyOf(next);
+            });
+            return result;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Ejecuta {@code action} con la franja del blueprint bloqueada, como un anexo: ninguna otra escritura
+     * hecha con {@link #append} o con este método queda a medias mientras corre.
+     */
+    public <E extends Exception> void exclusive(BlueprintKey key, Writer<E> action) throws E {
+        ReentrantLock lock = stripeLocks[stripeOf(key)];
+        lock.lock();
+        try {
+            action.write();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Marca de las escrituras hechas hasta ahora. Se toma antes de una lectura de varios blueprints cuyos
+     * resultados se llenan después, cuando un anexo ya pudo cambiarlos.
+     */
+    public Stamp stamp() {
+        long[] epochs = new long[STRIPES];
+        for (int i = 0; i < STRIPES; i++) epochs[i] = writeEpochs.get(i);
+        return new Stamp(epochs);
+    }
+
+    /** Descarta todas las variantes del blueprint; se llama después de escribirlo en la persistencia. */
+    public void invalidate(BlueprintKey key) {
+        writeEpochs.incrementAndGet(stripeOf(key));
+        cache.invalidate(key);
+    }
+
+    public CacheStats stats() {
+        return cache.stats();
+    }
+
+    /** Ejecuta el mantenimiento pendiente (expulsiones) de inmediato. */
+    public void cleanUp() {
+        cache.cleanUp();
+    }
+
+    private static int stripeOf(BlueprintKey key) {
+        return (key.hashCode() & Integer.MAX_VALUE) % STRIPES;
+    }
+
+    /** Épocas de escritura de todas las franjas en un momento dado; ver {@link #stamp()}. */
+    public static final class Stamp {
+        private final long[] epochs;
+
+        private Stamp(long[] epochs) {
+            this.epochs = epochs;
+        }
+    }
+
+    @FunctionalInterface
+    public interface Loader<E extends Exception> {
+        Blueprint load() throws E;
+    }
+
+    @FunctionalInterface
+    public interface Writer<E extends Exception> {
+        void write() throws E;
+    }
+
+    @FunctionalInterface
+    public interface Appender<T, E extends Exception> {
+        T write() throws E;
+    }
+
+    /**
+     * Resultado de una cadena para un blueprint. Si la cadena es incremental guarda sus etapas, que
+     * escriben en {@code out}; si no, solo el blueprint filtrado, que no puede extenderse.
+     * Solo se extiende con el candado de su franja; las lecturas toman una instantánea sin bloquear.
+     */
+    private static final class Variant implements PointSink {
+        private final Blueprint fixed;
+        private final PointSink head;
+        private PointBuffer.Builder building;
+        private PointBuffer out;
+
+        private Variant(Blueprint fixed) {
+            this.fixed = fixed;
+            this.head = null;
+        }
+
+        private Variant(FilterPipeline pipeline, PointBuffer raw) {
+            this.fixed = null;
+            this.building = PointBuffer.builder(raw.size());
+            this.head = pipeline.stage(this);
+            raw.forEach(head);
+            this.out = building.build();
+            this.building = null;
+        }
+
+        static Variant of(FilterPipeline pipeline, Blueprint raw) {
+            if (pipeline.incremental()) {
+                Variant materialized = new Variant(pipeline, raw.pointBuffer());
+                // A stage still holding points (undersampling of a very short blueprint) is not a result yet
+                if (!materialized.head.pending()) return materialized;
+            }
+            return new Variant(pipeline.apply(raw));
+        }
+
+        @Override
+        public void accept(int x, int y) {
+            if (building != null) building.add(x, y);
+            else out.add(x, y);
+        }
+
+        boolean extend(PointBuffer points) {
+            if (head == null) return false;
+            points.forEach(head);
+            return !head.pending();
+        }
+
+        Blueprint blueprint(BlueprintKey key) {
+            return fixed != null ? fixed : new Blueprint(key.author(), key.name(), out.snapshot());
+        }
+
+        int size() {
+            return fixed != null ? fixed.pointBuffer().size() : out.size();
+        }
+    }
+}
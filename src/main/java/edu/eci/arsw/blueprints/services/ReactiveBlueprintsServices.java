@@ -0,0 +1,95 @@
+package edu.eci.arsw.blueprints.services;
+
+import edu.eci.arsw.blueprints.filters.BlueprintsFilterRegistry;
+import edu.eci.arsw.blueprints.filters.FilterPipeline;
+import edu.eci.arsw.blueprints.model.Blueprint;
+import edu.eci.arsw.blueprints.model.BlueprintKey;
+import edu.eci.arsw.blueprints.model.Point;
+import edu.eci.arsw.blueprints.persistence.ReactiveBlueprintPersistence;
+import org.springframework.context.annotation.Profile;
+import org.springframework.stereotype.Service;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.core.scheduler.Schedulers;
+
+import java.util.Collection;
+import java.util.List;
+
+/**
+ * Versión no bloqueante de {@link BlueprintsServices} para el perfil {@code reactive}.
+ * Los filtros se aplican a cada blueprint a medida que llega de la base, fuera del event loop; no usa
+ * {@link FilteredBlueprintCache}, cuyo llenado y cuyos anexos esperan una escritura síncrona.
+ * Una especificación de filtros inválida se señala como {@link IllegalArgumentException} al suscribirse,
+ * antes de leer nada.
+ */
+@Service
+@Profile("reactive")
+public class ReactiveBlueprintsServices {
+
+    private final ReactiveBlueprintPersistence persistence;
+    private final BlueprintsFilterRegistry filters;
+
+    public ReactiveBlueprintsServices(ReactiveBlueprintPersistence persistence, BlueprintsFilterRegistry filters) {
+        this.persistence = persistence;
+        this.filters = filters;
+    }
+
+    public Mono<Void> addNewBlueprint(Blueprint bp) {
+        return persistence.saveBlueprint(bp);
+    }
+
+    /** Todos los blueprints, ordenados por (author, name) y pasados por la cadena {@code filterSpec}. */
+    public Flux<Blueprint> getAllBlueprints(String filterSpec) {
+        return Flux.defer(() -> filtered(persistence.getAllBlueprints(), filters.pipeline(filterSpec)));
+    }
+
+    /** Página de blueprints filtrados; el cursor sigue siendo la clave del último blueprint original. */
+    public Mono<BlueprintPage> getBlueprintsPage(BlueprintKey after, int limit, String filterSpec) {
+        return Mono.defer(() -> {
+            FilterPipeline pipeline = filters.pipeline(filterSpec);
+            // One extra row tells whether another page exists without a second query
+            return persistence.getBlueprintsPage(after, limit + 1).collectList().flatMap(rows -> {
+                List<Blueprint> page = rows.size() <= limit ? rows : rows.subList(0, limit);
+                BlueprintKey next = rows.size() <= limit ? null : BlueprintKey.of(page.get(limit - 1));
+                return filtered(Flux.fromIterable(page), pipeline).collectList()
+                        .map(blueprints -> new BlueprintPage(blueprints, next));
+            });
+        });
+    }
+
+    public Flux<Blueprint> getBlueprintsByAuthor(String author, String filterSpec) {
+        return Flux.defer(() -> filtered(persistence.getBlueprintsByAuthor(author), filters.pipeline(filterSpec)));
+    }
+
+    public Mono<Blueprint> getBlueprint(String author, String name, String filterSpec) {
+        return Mono.defer(() -> {
+            FilterPipeline pipeline = filters.pipeline(filterSpec);
+            Mono<Blueprint> raw = persistence.getBlueprint(author, name);
+            return pipeline.isIdentity() ? raw
+                    : raw.publishOn(Schedulers.parallel()).flatMap(bp -> applied(bp, pipeline));
+        });
+    }
+
+    public Mono<Void> addPoint(String author, String name, int x, int y) {
+        return persistence.addPoint(author, name, x, y);
+    }
+
+    public Mono<Void> addPoints(String author, String name, Collection<Point> points) {
+        return persistence.addPoints(author, name, points);
+    }
+
+    /** Filtra en orden, fuera del hilo que entrega los blueprints (el event loop de Netty). */
+    private static Flux<Blueprint> filtered(Flux<Blueprint> raw, FilterPipeline pipeline) {
+        return pipeline.isIdentity() ? raw
+                : raw.publishOn(Schedulers.parallel()).concatMap(bp -> applied(bp, pipeline));
+    }
+
+    /**
+     * Los filtros gastan CPU, así que corren en {@code parallel}; un blueprint que el filtro reparte en el pool
+     * de fork/join bloquea mientras espera los trozos y pasa a {@code boundedElastic}, que admite bloqueos.
+     */
+    private static Mono<Blueprint> applied(Blueprint bp, FilterPipeline pipeline) {
+        if (!pipeline.blocking(bp)) return Mono.just(pipeline.apply(bp));
+        return Mono.fromCallable(() -> pipeline.apply(bp)).subscribeOn(Schedulers.boundedElastic());
+    }
+}
@@ -0,0 +1,63 @@
+package edu.eci.arsw.blueprints;
+
+import edu.eci.arsw.blueprints.controllers.BinaryBlueprintConverter;
+import edu.eci.arsw.blueprints.controllers.BinaryPointsConverter;
+import edu.eci.arsw.blueprints.model.Blueprint;
+import edu.eci.arsw.blueprints.model.Point;
+import edu.eci.arsw.blueprints.model.PointBuffer;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.converter.HttpMessageNotReadableException;
+import org.springframework.mock.http.MockHttpInputMessage;
+import org.springframework.mock.http.MockHttpOutputMessage;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class BinaryFormatTest {
+
+    private final BinaryBlueprintConverter blueprints = new BinaryBlueprintConverter();
+    private final BinaryPointsConverter points = new BinaryPointsConverter();
+
+    @Test
+    void blueprint_roundTripsExtremeCoordinatesAndUnicodeNames() throws Exception {
+        List<Point> pts = List.of(new Point(0, 0), new Point(Integer.MAX_VALUE, Integer.MIN_VALUE),
+                new Point(Integer.MIN_VALUE, Integer.MAX_VALUE), new Point(-1, 1), new Point(-1, 1));
+        Blueprint bp = new Blueprint("josé", "casa ñ", pts);
+
+        MockHttpOutputMessage out = new MockHttpOutputMessage();
+        blueprints.write(bp, null, out);
+        Blueprint read = blueprints.read(Blueprint.class, new MockHttpInputMessage(out.getBodyAsBytes()));
+
+        assertEquals("josé", read.getAuthor());
+        assertEquals("casa ñ", read.getName());
+        assertEquals(pts, read.getPoints());
+    }
+
+    @Test
+    void points_encodeNearbyCoordinatesInTwoBytesEach() throws Exception {
+        List<Point> stroke = new ArrayList<>();
+        for (int i = 0; i < 1000; i++) stroke.add(new Point(5000 + i, 7000 - 2 * i));
+
+        MockHttpOutputMessage out = new MockHttpOutputMessage();
+        points.write(PointBuffer.of(stroke), null, out);
+
+        // Count (2 bytes), the first point (2 + 2 bytes), then one byte per coordinate delta
+        assertEquals(2 + 4 + 999 * 2, out.getBodyAsBytes().length);
+        assertEquals(stroke, points.read(PointBuffer.class, new MockHttpInputMessage(out.getBodyAsBytes())).asList());
+    }
+
+    @Test
+    void read_rejectsTruncatedBody() throws Exception {
+        MockHttpOutputMessage out = new MockHttpOutputMessage();
+        points.write(PointBuffer.of(List.of(new Point(300, 300), new Point(600, 600))), null, out);
+        byte[] truncated = Arrays.copyOf(out.getBodyAsBytes(), out.getBodyAsBytes().length - 1);
+
+        assertThrows(HttpMessageNotReadableException.class,
+                () -> points.read(PointBuffer.class, new MockHttpInputMessage(truncated)));
+        assertThrows(HttpMessageNotReadableException.class,
+                () -> blueprints.read(Blueprint.class, new MockHttpInputMessage(new byte[]{(byte) 0x80})));
+    }
+}
@@ -0,0 +1,138 @@
+package edu.eci.arsw.blueprints;
+
+import edu.eci.arsw.blueprints.model.BlueprintKey;
+import edu.eci.arsw.blueprints.model.Point;
+import edu.eci.arsw.blueprints.model.PointBuffer;
+import edu.eci.arsw.blueprints.model.PointsDelta;
+import edu.eci.arsw.blueprints.services.BlueprintEventBus;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class BlueprintEventBusTest {
+
+    private static final BlueprintKey KEY = new BlueprintKey("john", "house");
+
+    /** Guarda los eventos recibidos; el primero puede quedarse bloqueado hasta abrir {@code gate}. */
+    private static final class RecordingSink implements BlueprintEventBus.Sink {
+        final BlockingQueue<Object[]> events = new LinkedBlockingQueue<>();
+        final CountDownLatch gate;
+        final CountDownLatch closed = new CountDownLatch(1);
+        final CountDownLatch firstSend = new CountDownLatch(1);
+
+        RecordingSink(CountDownLatch gate) {
+            this.gate = gate;
+        }
+
+        @Override
+        public void send(String id, String event, Object data) {
+            firstSend.countDown();
+            try {
+                gate.await();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            events.add(new Object[]{id, event, data});
+        }
+
+        @Override
+        public void close() {
+            closed.countDown();
+        }
+
+        Object[] next() throws InterruptedException {
+            Object[] event = events.poll(5, TimeUnit.SECONDS);
+            assertNotNull(event, "no event delivered");
+            return event;
+        }
+    }
+
+    private static PointBuffer points(Point... points) {
+        return PointBuffer.of(List.of(points));
+    }
+
+    @Test
+    void appendsQueuedWhileTheClientIsBusyArriveAsOneMergedEvent() throws Exception {
+        BlueprintEventBus bus = new BlueprintEventBus(100);
+        CountDownLatch gate = new CountDownLatch(1);
+        RecordingSink sink = new RecordingSink(gate);
+        bus.subscribe(KEY, new PointsDelta(0, 1, 4, points(new Point(0, 0))), sink);
+        // The delivery thread is now stuck sending the initial event
+        assertTrue(sink.firstSend.await(5, TimeUnit.SECONDS));
+
+        bus.publishAppend(KEY, points(new Point(1, 1)));
+        bus.publishAppend(KEY, points(new Point(2, 2), new Point(3, 3)));
+        bus.publishAppend(KEY, points());
+        gate.countDown();
+
+        assertEquals("1", sink.next()[0]);
+        Object[] merged = sink.next();
+        assertEquals("4", merged[0]);
+        assertEquals(BlueprintEventBus.POINTS_EVENT, merged[1]);
+        assertEquals(new PointsDelta(1, 4, 6, List.of(new Point(1, 1), new Point(2, 2), new Point(3, 3))), merged[2]);
+    }
+
+    @Test
+    void slowSubscriberIsDroppedWithResyncWhileWritersNeverWait() throws Exception {
+        BlueprintEventBus bus = new BlueprintEventBus(10);
+        CountDownLatch gate = new CountDownLatch(1);
+        RecordingSink sink = new RecordingSink(gate);
+        bus.subscribe(KEY, new PointsDelta(0, 2, 0, points(new Point(0, 0), new Point(1, 1))), sink);
+        assertTrue(sink.firstSend.await(5, TimeUnit.SECONDS));
+
+        // The client never reads while these are published; none of them may block
+        long start = System.nanoTime();
+        for (int i = 0; i < 1000; i++) bus.publishAppend(KEY, points(new Point(i, i)));
+        assertTrue(TimeUnit.NANOSECONDS.toSeconds(System.nanoTime() - start) < 5);
+        gate.countDown();
+
+        sink.next();
+        Object[] resync = sink.next();
+        assertEquals(BlueprintEventBus.RESYNC_EVENT, resync[1]);
+        assertEquals(new BlueprintEventBus.Resync(2), resync[2]);
+        assertTrue(sink.closed.await(5, TimeUnit.SECONDS));
+        assertEquals(0, bus.subscriberCount(KEY));
+    }
+
+    @Test
+    void subscriberOfMissingBlueprintStartsWithItsCreation() throws Exception {
+        BlueprintEventBus bus = new BlueprintEventBus(100);
+        RecordingSink sink = new RecordingSink(new CountDownLatch(0));
+        bus.subscribe(KEY, null, sink);
+
+        bus.publishCreated(KEY, points(new Point(5, 5)));
+        bus.publishAppend(KEY, points(new Point(6, 6)));
+
+        // Both may arrive merged into one event, depending on when the delivery thread wakes up
+        List<Point> received = new ArrayList<>();
+        PointsDelta last = null;
+        while (received.size() < 2) {
+            last = (PointsDelta) sink.next()[2];
+            assertEquals(received.size(), last.since());
+            received.addAll(last.points());
+        }
+        assertEquals(List.of(new Point(5, 5), new Point(6, 6)), received);
+        assertEquals(2, last.total());
+        assertEquals(1, last.version());
+    }
+
+    @Test
+    void cancelledSubscriptionStopsReceiving() throws Exception {
+        BlueprintEventBus bus = new BlueprintEventBus(100);
+        RecordingSink sink = new RecordingSink(new CountDownLatch(0));
+        BlueprintEventBus.Subscription sub = bus.subscribe(KEY, null, sink);
+
+        sub.cancel();
+        bus.publishCreated(KEY, points(new Point(5, 5)));
+
+        assertEquals(0, bus.subscriberCount(KEY));
+        assertNull(sink.events.poll(200, TimeUnit.MILLISECONDS));
+    }
+}
@@ -0,0 +1,66 @@
+package edu.eci.arsw.blueprints;
+
+import com.fasterxml.jackson.databind.DeserializationFeature;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.exc.MismatchedInputException;
+import com.fasterxml.jackson.databind.exc.UnrecognizedPropertyException;
+import edu.eci.arsw.blueprints.model.Blueprint;
+import edu.eci.arsw.blueprints.model.Point;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class BlueprintJsonTest {
+
+    private final ObjectMapper mapper = Jackson2ObjectMapperBuilder.json().build();
+
+    @Test
+    void blueprint_keepsTheBeanJsonShape() throws Exception {
+        Blueprint bp = new Blueprint("josé", "casa", List.of(new Point(1, -2), new Point(Integer.MAX_VALUE, 0)));
+
+        assertEquals("{\"author\":\"josé\",\"name\":\"casa\",\"points\":[{\"x\":1,\"y\":-2},{\"x\":2147483647,\"y\":0}]}",
+                mapper.writeValueAsString(bp));
+        assertEquals("{\"x\":3,\"y\":4}", mapper.writeValueAsString(new Point(3, 4)));
+    }
+
+    @Test
+    void blueprint_roundTripsAndIgnoresUnknownFields() throws Exception {
+        List<Point> pts = List.of(new Point(Integer.MIN_VALUE, 7), new Point(-1, 1), new Point(-1, 1));
+        Blueprint bp = new Blueprint("a", "b", pts);
+
+        Blueprint read = mapper.readValue(mapper.writeValueAsString(bp), Blueprint.class);
+        assertEquals(bp, read);
+        assertEquals(pts, read.getPoints());
+
+        Blueprint extra = mapper.readValue(
+                "{\"points\":[{\"y\":2,\"z\":{\"w\":[1]},\"x\":1}],\"version\":3,\"name\":\"n\",\"author\":null}",
+                Blueprint.class);
+        assertNull(extra.getAuthor());
+        assertEquals("n", extra.getName());
+        assertEquals(List.of(new Point(1, 2)), extra.getPoints());
+    }
+
+    @Test
+    void point_followsDefaultCoercionsAndUnknownPropertyRules() throws Exception {
+        assertEquals(new Point(3, 0), mapper.readValue("{\"x\":\"3\"}", Point.class));
+        assertEquals(List.of(new Point(1, 2), new Point(0, 5)),
+                List.of(mapper.readValue("[{\"x\":1,\"y\":2},{\"y\":5,\"label\":\"p\"}]", Point[].class)));
+
+        ObjectMapper strict = mapper.copy().enable(DeserializationFeature.FAIL_ON_UNKNOWN_PROPERTIES);
+        assertThrows(UnrecognizedPropertyException.class, () -> strict.readValue("{\"x\":1,\"label\":\"p\"}", Point.class));
+        assertThrows(Exception.class, () -> mapper.readValue("{\"points\":[null]}", Blueprint.class));
+    }
+
+    @Test
+    void blueprint_coercesScalarNamesAndRejectsStructuredOnes() throws Exception {
+        Blueprint read = mapper.readValue("{\"author\":7,\"name\":true}", Blueprint.class);
+        assertEquals("7", read.getAuthor());
+        assertEquals("true", read.getName());
+
+        assertThrows(MismatchedInputException.class, () -> mapper.readValue("{\"author\":{\"a\":1}}", Blueprint.class));
+        assertThrows(MismatchedInputException.class, () -> mapper.readValue("{\"name\":[\"n\"]}", Blueprint.class));
+    }
+}
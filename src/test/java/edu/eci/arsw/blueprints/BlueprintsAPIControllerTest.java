@@ -1,21 +1,43 @@
 package edu.eci.arsw.blueprints;
 
+import com.jayway.jsonpath.JsonPath;
+import edu.eci.arsw.blueprints.controllers.BinaryBlueprintConverter;
+import edu.eci.arsw.blueprints.controllers.BinaryPointsConverter;
 import edu.eci.arsw.blueprints.controllers.BlueprintsAPIController;
 import edu.eci.arsw.blueprints.model.Blueprint;
+import edu.eci.arsw.blueprints.model.BlueprintBounds;
+import edu.eci.arsw.blueprints.model.BlueprintKey;
+import edu.eci.arsw.blueprints.model.BlueprintVersion;
+import edu.eci.arsw.blueprints.model.BoundingBox;
 import edu.eci.arsw.blueprints.model.Point;
+import edu.eci.arsw.blueprints.model.PointBuffer;
+import edu.eci.arsw.blueprints.model.PointsDelta;
 import edu.eci.arsw.blueprints.persistence.BlueprintNotFoundException;
 import edu.eci.arsw.blueprints.persistence.BlueprintPersistenceException;
+import edu.eci.arsw.blueprints.services.BlueprintEventBus;
+import edu.eci.arsw.blueprints.services.BlueprintPage;
 import edu.eci.arsw.blueprints.services.BlueprintsServices;
 import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
 import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.dao.OptimisticLockingFailureException;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.MediaType;
+import org.springframework.mock.http.MockHttpInputMessage;
+import org.springframework.mock.http.MockHttpOutputMessage;
 import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
 
+import java.time.Instant;
+import java.util.ArrayList;
 import java.util.List;
 import java.util.Set;
+import java.util.function.Consumer;
 
+import static org.hamcrest.Matchers.containsString;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
 import static org.mockito.Mockito.*;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.*;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
@@ -23,6 +45,9 @@ import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.
 @WebMvcTest(BlueprintsAPIController.class)
 class BlueprintsAPIControllerTest {
 
+    private static final MediaType BLUEPRINT = MediaType.parseMediaType(BlueprintsAPIController.APPLICATION_BLUEPRINT_VALUE);
+    private static final MediaType POINTS = MediaType.parseMediaType(BlueprintsAPIController.APPLICATION_POINTS_VALUE);
+
     @Autowired
     private MockMvc mockMvc;
 
@@ -32,17 +57,76 @@ class BlueprintsAPIControllerTest {
     @Test
     void getAll_returns200WithBlueprints() throws Exception {
         Blueprint bp = new Blueprint("john", "house", List.of(new Point(0, 0)));
-        when(services.getAllBlueprints()).thenReturn(Set.of(bp));
+        when(services.getAllBlueprints(null)).thenReturn(Set.of(bp));
 
         mockMvc.perform(get("/api/v1/blueprints"))
                 .andExpect(status().isOk())
                 .andExpect(jsonPath("$.code").value(200));
     }
 
+    @Test
+    void getAll_withLimitReturnsPageAndNextCursor() throws Exception {
+        Blueprint bp = new Blueprint("john", "house", List.of(new Point(0, 0)));
+        when(services.getBlueprintsPage(null, 1, null))
+                .thenReturn(new BlueprintPage(List.of(bp), new BlueprintKey("john", "house")));
+
+        mockMvc.perform(get("/api/v1/blueprints").param("limit", "1"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.data[0].name").value("house"))
+                .andExpect(jsonPath("$.next").isNotEmpty());
+    }
+
+    @Test
+    void getAll_nextCursorResumesAfterLastKey() throws Exception {
+        when(services.getBlueprintsPage(null, 2, null))
+                .thenReturn(new BlueprintPage(List.of(), new BlueprintKey("john", "house")));
+        when(services.getBlueprintsPage(new BlueprintKey("john", "house"), 2, null))
+                .thenReturn(new BlueprintPage(List.of(), null));
+
+        String first = mockMvc.perform(get("/api/v1/blueprints").param("limit", "2"))
+                .andReturn().getResponse().getContentAsString();
+        String cursor = JsonPath.read(first, "$.next");
+
+        mockMvc.perform(get("/api/v1/blueprints").param("limit", "2").param("cursor", cursor))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.next").doesNotExist());
+        verify(services).getBlueprintsPage(new BlueprintKey("john", "house"), 2, null);
+    }
+
+    @Test
+    void getAll_returns400OnMalformedCursor() throws Exception {
+        mockMvc.perform(get("/api/v1/blueprints").param("cursor", "bm90LWEtY3Vyc29y"))
+                .andExpect(status().isBadRequest())
+                .andExpect(jsonPath("$.code").value(400));
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void streamAll_writesOneBlueprintPerLine() throws Exception {
+        doAnswer(inv -> {
+            Consumer<Blueprint> action = inv.getArgument(1);
+            action.accept(new Blueprint("john", "house", List.of(new Point(0, 0))));
+            action.accept(new Blueprint("jane", "garden", List.of()));
+            return null;
+        }).when(services).forEachBlueprint(isNull(), any(Consumer.class));
+
+        MvcResult result = mockMvc.perform(get("/api/v1/blueprints").accept("application/x-ndjson"))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+
+        String body = mockMvc.perform(asyncDispatch(result))
+                .andExpect(status().isOk())
+                .andExpect(content().contentType("application/x-ndjson"))
+                .andReturn().getResponse().getContentAsString();
+        String[] lines = body.split("\n");
+        assertEquals(2, lines.length);
+        assertTrue(lines[0].contains("\"house\""));
+    }
+
     @Test
     void byAuthor_returns200WhenFound() throws Exception {
         Blueprint bp = new Blueprint("john", "house", List.of(new Point(0, 0)));
-        when(services.getBlueprintsByAuthor("john")).thenReturn(Set.of(bp));
+        when(services.getBlueprintsByAuthor("john", null)).thenReturn(Set.of(bp));
 
         mockMvc.perform(get("/api/v1/blueprints/john"))
                 .andExpect(status().isOk())
@@ -51,7 +135,7 @@ class BlueprintsAPIControllerTest {
 
     @Test
     void byAuthor_returns404WhenNotFound() throws Exception {
-        when(services.getBlueprintsByAuthor("ghost"))
+        when(services.getBlueprintsByAuthor("ghost", null))
                 .thenThrow(new BlueprintNotFoundException("No blueprints for author: ghost"));
 
         mockMvc.perform(get("/api/v1/blueprints/ghost"))
@@ -59,6 +143,337 @@ class BlueprintsAPIControllerTest {
                 .andExpect(jsonPath("$.code").value(404));
     }
 
+    @Test
+    void byAuthor_appliesRequestedFilterAndRejectsUnknownOnes() throws Exception {
+        when(services.getBlueprintsByAuthor("john", "undersampling:3")).thenReturn(Set.of());
+        when(services.getBlueprintsByAuthor("john", "blur"))
+                .thenThrow(new IllegalArgumentException("Unknown filter: blur"));
+
+        mockMvc.perform(get("/api/v1/blueprints/john").param("filter", "undersampling:3"))
+                .andExpect(status().isOk());
+        mockMvc.perform(get("/api/v1/blueprints/john").param("filter", "blur"))
+                .andExpect(status().isBadRequest())
+                .andExpect(jsonPath("$.message").value("Unknown filter: blur"));
+    }
+
+    @Test
+    void streamAll_returns400BeforeStreamingOnUnknownFilter() throws Exception {
+        doThrow(new IllegalArgumentException("Unknown filter: blur")).when(services).validateFilter("blur");
+
+        MvcResult result = mockMvc.perform(get("/api/v1/blueprints").param("filter", "blur")
+                        .accept("application/x-ndjson"))
+                .andReturn();
+
+        mockMvc.perform(asyncDispatch(result))
+                .andExpect(status().isBadRequest())
+                .andExpect(content().contentType(MediaType.APPLICATION_JSON))
+                .andExpect(jsonPath("$.message").value("Unknown filter: blur"));
+        verify(services, never()).forEachBlueprint(any(), any());
+    }
+
+    @Test
+    void byAuthorAndName_appliesRequestedFilterChain() throws Exception {
+        Blueprint bp = new Blueprint("john", "house", List.of(new Point(0, 0)));
+        givenVersion("john", "house", "redundancy,undersampling:3", 0);
+        when(services.getBlueprint("john", "house", "redundancy,undersampling:3")).thenReturn(bp);
+
+        mockMvc.perform(get("/api/v1/blueprints/john/house").param("filter", "redundancy,undersampling:3"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.data.points.length()").value(1));
+    }
+
+    @Test
+    void byAuthorAndName_returns400OnUnknownFilter() throws Exception {
+        when(services.canonicalFilter("blur")).thenThrow(new IllegalArgumentException("Unknown filter: blur"));
+
+        mockMvc.perform(get("/api/v1/blueprints/john/house").param("filter", "blur"))
+                .andExpect(status().isBadRequest())
+                .andExpect(jsonPath("$.message").value("Unknown filter: blur"));
+    }
+
+    @Test
+    void byAuthorAndName_sendsWeakEtagAndLastModified() throws Exception {
+        givenVersion("john", "house", "redundancy", 3);
+        when(services.getBlueprint("john", "house", null)).thenReturn(new Blueprint("john", "house", List.of()));
+
+        mockMvc.perform(get("/api/v1/blueprints/john/house"))
+                .andExpect(status().isOk())
+                .andExpect(header().string(HttpHeaders.ETAG, etag(3, "redundancy")))
+                .andExpect(header().exists(HttpHeaders.LAST_MODIFIED));
+    }
+
+    @Test
+    void byAuthorAndName_returns304OnMatchingEtagWithoutLoadingPoints() throws Exception {
+        givenVersion("john", "house", "redundancy", 3);
+
+        mockMvc.perform(get("/api/v1/blueprints/john/house").header(HttpHeaders.IF_NONE_MATCH, etag(3, "redundancy")))
+                .andExpect(status().isNotModified())
+                .andExpect(content().string(""));
+        verify(services, never()).getBlueprint(any(), any(), any());
+    }
+
+    @Test
+    void byAuthorAndName_returns200WhenEtagIsStaleOrFromAnotherFilter() throws Exception {
+        givenVersion("john", "house", "redundancy", 4);
+        when(services.getBlueprint("john", "house", null)).thenReturn(new Blueprint("john", "house", List.of()));
+
+        mockMvc.perform(get("/api/v1/blueprints/john/house").header(HttpHeaders.IF_NONE_MATCH, etag(3, "redundancy")))
+                .andExpect(status().isOk());
+        mockMvc.perform(get("/api/v1/blueprints/john/house").header(HttpHeaders.IF_NONE_MATCH, etag(4, "identity")))
+                .andExpect(status().isOk());
+    }
+
+    @Test
+    void addPoint_withIfMatchAppendsOnlyAtThatVersion() throws Exception {
+        mockMvc.perform(put("/api/v1/blueprints/john/house/points")
+                        .header(HttpHeaders.IF_MATCH, etag(7, "redundancy"))
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"x\":1,\"y\":2}"))
+                .andExpect(status().isAccepted());
+
+        verify(services).addPoints("john", "house", List.of(new Point(1, 2)), 7);
+        verify(services, never()).addPoint(any(), any(), anyInt(), anyInt());
+    }
+
+    @Test
+    void addPoints_acceptsTheSameVersionWithOrWithoutTheWeakPrefix() throws Exception {
+        // Tags from before the ETags became weak name the same version
+        for (String ifMatch : List.of(etag(7, "redundancy"), etag(7, "redundancy").substring(2))) {
+            mockMvc.perform(post("/api/v1/blueprints/john/house/points")
+                            .header(HttpHeaders.IF_MATCH, ifMatch)
+                            .contentType(MediaType.APPLICATION_JSON)
+                            .content("[{\"x\":1,\"y\":2}]"))
+                    .andExpect(status().isAccepted());
+        }
+        verify(services, times(2)).addPoints("john", "house", List.of(new Point(1, 2)), 7);
+    }
+
+    @Test
+    void addPoints_returns412WhenVersionMoved() throws Exception {
+        doThrow(new OptimisticLockingFailureException("Blueprint john/house is no longer at version 7"))
+                .when(services).addPoints(eq("john"), eq("house"), any(), eq(7L));
+
+        mockMvc.perform(post("/api/v1/blueprints/john/house/points")
+                        .header(HttpHeaders.IF_MATCH, etag(7, "redundancy"))
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("[{\"x\":1,\"y\":2}]"))
+                .andExpect(status().isPreconditionFailed())
+                .andExpect(jsonPath("$.code").value(412));
+    }
+
+    @Test
+    void addPoints_returns412OnForeignIfMatch() throws Exception {
+        for (String ifMatch : List.of("\"abc\"", "W/\"abc\"", "W/", "\"x-1\"")) {
+            mockMvc.perform(post("/api/v1/blueprints/john/house/points")
+                            .header(HttpHeaders.IF_MATCH, ifMatch)
+                            .contentType(MediaType.APPLICATION_JSON)
+                            .content("[{\"x\":1,\"y\":2}]"))
+                    .andExpect(status().isPreconditionFailed());
+        }
+        verify(services, never()).addPoints(any(), any(), any());
+        verify(services, never()).addPoints(any(), any(), any(), anyLong());
+    }
+
+    @Test
+    void byAuthorAndName_servesRequestedLevelOfDetail() throws Exception {
+        givenVersion("john", "house", "redundancy,lod:2", 1);
+        when(services.levelOfDetail(null, 2)).thenReturn("redundancy,lod:2");
+        when(services.getBlueprint("john", "house", "redundancy,lod:2"))
+                .thenReturn(new Blueprint("john", "house", List.of(new Point(0, 0))));
+
+        mockMvc.perform(get("/api/v1/blueprints/john/house").param("lod", "2"))
+                .andExpect(status().isOk())
+                .andExpect(header().string(HttpHeaders.ETAG, etag(1, "redundancy,lod:2")))
+                .andExpect(jsonPath("$.data.points.length()").value(1));
+    }
+
+    @Test
+    void byAuthorAndName_picksLevelForMaxPointsAndRejectsBoth() throws Exception {
+        givenVersion("john", "house", "redundancy,lod:3", 1);
+        // 4000 points: lod 3 keeps 500
+        when(services.getPointsSince("john", "house", Integer.MAX_VALUE))
+                .thenReturn(new PointsDelta(Integer.MAX_VALUE, 4000, 1, List.of()));
+        when(services.levelOfDetail(null, 3)).thenReturn("redundancy,lod:3");
+        when(services.getBlueprint("john", "house", "redundancy,lod:3"))
+                .thenReturn(new Blueprint("john", "house", List.of(new Point(0, 0))));
+
+        mockMvc.perform(get("/api/v1/blueprints/john/house").param("maxPoints", "500"))
+                .andExpect(status().isOk())
+                .andExpect(header().string(HttpHeaders.ETAG, etag(1, "redundancy,lod:3")));
+        mockMvc.perform(get("/api/v1/blueprints/john/house").param("maxPoints", "500").param("lod", "1"))
+                .andExpect(status().isBadRequest())
+                .andExpect(jsonPath("$.code").value(400));
+    }
+
+    @Test
+    void byAuthorAndName_revalidatesMaxPointsWithoutLoadingThePoints() throws Exception {
+        givenVersion("john", "house", "redundancy,lod:3", 1);
+        when(services.getPointsSince("john", "house", Integer.MAX_VALUE))
+                .thenReturn(new PointsDelta(Integer.MAX_VALUE, 4000, 1, List.of()));
+        when(services.levelOfDetail(null, 3)).thenReturn("redundancy,lod:3");
+
+        mockMvc.perform(get("/api/v1/blueprints/john/house").param("maxPoints", "500")
+                        .header(HttpHeaders.IF_NONE_MATCH, etag(1, "redundancy,lod:3")))
+                .andExpect(status().isNotModified());
+        verify(services, never()).getBlueprint(any(), any(), any());
+    }
+
+    @Test
+    void byAuthorAndName_tagsMaxPointsWithTheVersionItsLevelWasChosenFor() throws Exception {
+        // An append lands between the version read and the total read
+        givenVersion("john", "house", "redundancy,lod:4", 1);
+        when(services.getPointsSince("john", "house", Integer.MAX_VALUE))
+                .thenReturn(new PointsDelta(Integer.MAX_VALUE, 4001, 2, List.of()));
+        when(services.levelOfDetail(null, 4)).thenReturn("redundancy,lod:4");
+        when(services.getBlueprint("john", "house", "redundancy,lod:4"))
+                .thenReturn(new Blueprint("john", "house", List.of(new Point(0, 0))));
+
+        mockMvc.perform(get("/api/v1/blueprints/john/house").param("maxPoints", "500"))
+                .andExpect(status().isOk())
+                .andExpect(header().string(HttpHeaders.ETAG, etag(2, "redundancy,lod:4")))
+                .andExpect(header().doesNotExist(HttpHeaders.LAST_MODIFIED));
+    }
+
+    @Test
+    void byAuthorAndName_returnsBinaryWhenAskedWithItsOwnEtag() throws Exception {
+        givenVersion("john", "house", "redundancy", 3);
+        Blueprint bp = new Blueprint("john", "house", List.of(new Point(1, 2), new Point(3, 4)));
+        when(services.getBlueprint("john", "house", null)).thenReturn(bp);
+
+        MvcResult result = mockMvc.perform(get("/api/v1/blueprints/john/house").accept(BLUEPRINT))
+                .andExpect(status().isOk())
+                .andExpect(content().contentType(BLUEPRINT))
+                .andExpect(header().string(HttpHeaders.ETAG, etag(3, "redundancy;" + BLUEPRINT)))
+                .andReturn();
+        Blueprint read = new BinaryBlueprintConverter().read(Blueprint.class,
+                new MockHttpInputMessage(result.getResponse().getContentAsByteArray()));
+        assertEquals(bp.getPoints(), read.getPoints());
+
+        mockMvc.perform(get("/api/v1/blueprints/john/house"))
+                .andExpect(status().isOk())
+                .andExpect(content().contentTypeCompatibleWith(MediaType.APPLICATION_JSON));
+        when(services.getBlueprintVersion("ghost", "x")).thenThrow(new BlueprintNotFoundException("Blueprint not found: ghost/x"));
+        mockMvc.perform(get("/api/v1/blueprints/ghost/x").accept(BLUEPRINT))
+                .andExpect(status().isNotFound())
+                .andExpect(jsonPath("$.code").value(404));
+    }
+
+    @Test
+    void addBinary_createsBlueprintAndAppendsBinaryPoints() throws Exception {
+        Blueprint bp = new Blueprint("alice", "lab", List.of(new Point(1, 2)));
+        MockHttpOutputMessage blueprint = new MockHttpOutputMessage();
+        new BinaryBlueprintConverter().write(bp, null, blueprint);
+        MockHttpOutputMessage batch = new MockHttpOutputMessage();
+        new BinaryPointsConverter().write(PointBuffer.of(List.of(new Point(3, 4), new Point(5, 6))), null, batch);
+
+        mockMvc.perform(post("/api/v1/blueprints").contentType(BLUEPRINT).content(blueprint.getBodyAsBytes()))
+                .andExpect(status().isCreated());
+        mockMvc.perform(post("/api/v1/blueprints/alice/lab/points").contentType(POINTS).content(batch.getBodyAsBytes()))
+                .andExpect(status().isAccepted())
+                .andExpect(jsonPath("$.message").value("2 points added successfully"));
+        mockMvc.perform(post("/api/v1/blueprints/alice/lab/points").contentType(POINTS).content(new byte[]{5, 1}))
+                .andExpect(status().isBadRequest());
+
+        verify(services).addNewBlueprint(argThat(b -> b.getName().equals("lab") && b.getPoints().equals(bp.getPoints())));
+        verify(services).addPoints(eq("alice"), eq("lab"), eq(List.of(new Point(3, 4), new Point(5, 6))));
+        verify(services, times(1)).addPoints(any(), any(), any());
+    }
+
+    private void givenVersion(String author, String name, String spec, long version) throws Exception {
+        when(services.canonicalFilter(any())).thenReturn(spec);
+        when(services.getBlueprintVersion(author, name))
+                .thenReturn(new BlueprintVersion(version, Instant.parse("2024-05-01T10:00:00Z")));
+    }
+
+    private static String etag(long version, String spec) {
+        return "W/\"" + version + "-" + Integer.toHexString(spec.hashCode()) + "\"";
+    }
+
+    @Test
+    void pointsSince_returnsTailWithTotalAndVersion() throws Exception {
+        when(services.getPointsSince("john", "house", 2))
+                .thenReturn(new PointsDelta(2, 3, 5, List.of(new Point(7, 7))));
+
+        mockMvc.perform(get("/api/v1/blueprints/john/house/points").param("since", "2"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.data.since").value(2))
+                .andExpect(jsonPath("$.data.total").value(3))
+                .andExpect(jsonPath("$.data.version").value(5))
+                .andExpect(jsonPath("$.data.points[0].x").value(7));
+    }
+
+    @Test
+    void pointsSince_returns400OnNegativeAnd404WhenMissing() throws Exception {
+        when(services.getPointsSince("john", "house", -1)).thenThrow(new IllegalArgumentException("since must not be negative"));
+        when(services.getPointsSince("ghost", "x", 0)).thenThrow(new BlueprintNotFoundException("Blueprint not found: ghost/x"));
+
+        mockMvc.perform(get("/api/v1/blueprints/john/house/points").param("since", "-1"))
+                .andExpect(status().isBadRequest());
+        mockMvc.perform(get("/api/v1/blueprints/ghost/x/points"))
+                .andExpect(status().isNotFound())
+                .andExpect(jsonPath("$.code").value(404));
+    }
+
+    @Test
+    void pointsInside_returnsPointsWithinBbox() throws Exception {
+        when(services.getPointsInside("john", "house", new BoundingBox(0, 0, 10, 10)))
+                .thenReturn(List.of(new Point(3, 4)));
+
+        mockMvc.perform(get("/api/v1/blueprints/john/house/points").param("bbox", "0,0,10,10"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.data[0].x").value(3))
+                .andExpect(jsonPath("$.data[0].y").value(4));
+        mockMvc.perform(get("/api/v1/blueprints/john/house/points").param("bbox", "0,0,10"))
+                .andExpect(status().isBadRequest());
+        mockMvc.perform(get("/api/v1/blueprints/john/house/points").param("bbox", "0,0,10,10").param("since", "1"))
+                .andExpect(status().isBadRequest());
+        verify(services, never()).getPointsSince(any(), any(), anyInt());
+    }
+
+    @Test
+    void searchByBounds_returnsKeysAndBoxesAndTakesPrecedenceOverAuthor() throws Exception {
+        when(services.searchByBounds(new BoundingBox(-5, -5, 5, 5)))
+                .thenReturn(List.of(new BlueprintBounds("john", "house", new BoundingBox(0, 0, 10, 10))));
+
+        mockMvc.perform(get("/api/v1/blueprints/search").param("bbox", "-5,-5,5,5"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.data[0].author").value("john"))
+                .andExpect(jsonPath("$.data[0].bounds.maxX").value(10))
+                .andExpect(jsonPath("$.data[0].points").doesNotExist());
+        mockMvc.perform(get("/api/v1/blueprints/search").param("bbox", "5,0,1,1"))
+                .andExpect(status().isBadRequest())
+                .andExpect(jsonPath("$.code").value(400));
+        verify(services, never()).getBlueprintsByAuthor(any(), any());
+    }
+
+    @Test
+    void events_streamsSseFromLastEventId() throws Exception {
+        when(services.subscribe(eq("john"), eq("house"), eq(3), any())).thenAnswer(inv -> {
+            BlueprintEventBus.Sink sink = inv.getArgument(3);
+            sink.send("4", BlueprintEventBus.POINTS_EVENT, new PointsDelta(3, 4, 2, List.of(new Point(9, 9))));
+            sink.close();
+            return mock(BlueprintEventBus.Subscription.class);
+        });
+
+        MvcResult result = mockMvc.perform(get("/api/v1/blueprints/john/house/events")
+                        .accept(MediaType.TEXT_EVENT_STREAM).header("Last-Event-ID", "3"))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+
+        mockMvc.perform(asyncDispatch(result))
+                .andExpect(status().isOk())
+                .andExpect(content().string(containsString("id:4\nevent:points\n")))
+                .andExpect(content().string(containsString("\"total\":4")));
+    }
+
+    @Test
+    void events_returns400OnNegativeSince() throws Exception {
+        mockMvc.perform(get("/api/v1/blueprints/john/house/events").param("since", "-1")
+                        .accept(MediaType.TEXT_EVENT_STREAM))
+                .andExpect(status().isBadRequest());
+        verify(services, never()).subscribe(any(), any(), anyInt(), any());
+    }
+
     @Test
     void add_returns201WhenCreated() throws Exception {
         mockMvc.perform(post("/api/v1/blueprints")
@@ -91,4 +506,91 @@ class BlueprintsAPIControllerTest {
                 .andExpect(status().isForbidden())
                 .andExpect(jsonPath("$.code").value(403));
     }
+
+    @Test
+    void addPoints_appendsJsonArrayInOneBatch() throws Exception {
+        mockMvc.perform(post("/api/v1/blueprints/john/house/points")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("[{\"x\":1,\"y\":2},{\"x\":3,\"y\":4}]"))
+                .andExpect(status().isAccepted())
+                .andExpect(jsonPath("$.code").value(202));
+
+        verify(services).addPoints("john", "house", List.of(new Point(1, 2), new Point(3, 4)));
+    }
+
+    @Test
+    void addPoints_returns400ForANullPoint() throws Exception {
+        mockMvc.perform(post("/api/v1/blueprints/john/house/points")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("[{\"x\":1,\"y\":2},null]"))
+                .andExpect(status().isBadRequest())
+                .andExpect(jsonPath("$.message").value(containsString("Validation error")));
+
+        verify(services, never()).addPoints(any(), any(), any());
+    }
+
+    @Test
+    void addPoints_returns404WhenBlueprintMissing() throws Exception {
+        doThrow(new BlueprintNotFoundException("Blueprint not found: ghost/x"))
+                .when(services).addPoints(eq("ghost"), eq("x"), any());
+
+        mockMvc.perform(post("/api/v1/blueprints/ghost/x/points")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("[{\"x\":1,\"y\":2}]"))
+                .andExpect(status().isNotFound())
+                .andExpect(jsonPath("$.code").value(404));
+    }
+
+    @Test
+    void streamPoints_appendsNdjsonLinesInOrder() throws Exception {
+        List<List<Point>> batches = new ArrayList<>();
+        doAnswer(inv -> batches.add(List.copyOf(inv.<List<Point>>getArgument(2))))
+                .when(services).addPoints(eq("john"), eq("house"), any());
+
+        mockMvc.perform(post("/api/v1/blueprints/john/house/points")
+                        .contentType("application/x-ndjson")
+                        .content("{\"x\":1,\"y\":2}\n{\"x\":3,\"y\":4}\n"))
+                .andExpect(status().isAccepted())
+                .andExpect(jsonPath("$.message").value("2 points added successfully"));
+
+        assertEquals(List.of(new Point(1, 2), new Point(3, 4)),
+                batches.stream().flatMap(List::stream).toList());
+    }
+
+    @Test
+    void streamPoints_withIfMatchChainsVersionsAcrossBatches() throws Exception {
+        StringBuilder body = new StringBuilder();
+        for (int i = 0; i < 1500; i++) body.append("{\"x\":").append(i).append(",\"y\":0}\n");
+
+        mockMvc.perform(post("/api/v1/blueprints/john/house/points")
+                        .header(HttpHeaders.IF_MATCH, etag(2, "redundancy"))
+                        .contentType("application/x-ndjson")
+                        .content(body.toString()))
+                .andExpect(status().isAccepted())
+                .andExpect(jsonPath("$.message").value("1500 points added successfully"));
+
+        // Each batch expects the version the previous one left behind
+        verify(services).addPoints(eq("john"), eq("house"), any(), eq(2L));
+        verify(services).addPoints(eq("john"), eq("house"), any(), eq(3L));
+    }
+
+    @Test
+    void streamPoints_returns400OnMalformedLine() throws Exception {
+        mockMvc.perform(post("/api/v1/blueprints/john/house/points")
+                        .contentType("application/x-ndjson")
+                        .content("{\"x\":1,\"y\":2}\nnot-json\n"))
+                .andExpect(status().isBadRequest())
+                .andExpect(jsonPath("$.code").value(400));
+    }
+
+    @Test
+    void streamPoints_returns400OnNullLine() throws Exception {
+        mockMvc.perform(post("/api/v1/blueprints/john/house/points")
+                        .contentType("application/x-ndjson")
+                        .content("{\"x\":1,\"y\":2}\nnull\n"))
+                .andExpect(status().isBadRequest())
+                .andExpect(jsonPath("$.message").value(containsString("Malformed point after 0 stored points")));
+
+        verify(services, never()).addPoints(any(), any(), any());
+    }
 }
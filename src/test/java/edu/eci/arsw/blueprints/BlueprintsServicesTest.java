@@ -1,21 +1,47 @@
 package edu.eci.arsw.blueprints;
 
 import edu.eci.arsw.blueprints.filters.BlueprintsFilter;
+import edu.eci.arsw.blueprints.filters.BlueprintsFilterRegistry;
+import edu.eci.arsw.blueprints.filters.FilterPipeline;
+import edu.eci.arsw.blueprints.filters.LevelOfDetailFilter;
+import edu.eci.arsw.blueprints.filters.RedundancyFilter;
+import edu.eci.arsw.blueprints.filters.UndersamplingFilter;
 import edu.eci.arsw.blueprints.model.Blueprint;
+import edu.eci.arsw.blueprints.model.BlueprintKey;
 import edu.eci.arsw.blueprints.model.Point;
+import edu.eci.arsw.blueprints.model.PointsDelta;
 import edu.eci.arsw.blueprints.persistence.BlueprintNotFoundException;
 import edu.eci.arsw.blueprints.persistence.BlueprintPersistence;
 import edu.eci.arsw.blueprints.persistence.BlueprintPersistenceException;
+import edu.eci.arsw.blueprints.persistence.WriteBehindBlueprintPersistence;
+import edu.eci.arsw.blueprints.persistence.old.InMemoryBlueprintPersistence;
+import edu.eci.arsw.blueprints.services.BlueprintEventBus;
+import edu.eci.arsw.blueprints.services.BlueprintPage;
 import edu.eci.arsw.blueprints.services.BlueprintsServices;
+import edu.eci.arsw.blueprints.services.FilteredBlueprintCache;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
-import org.mockito.InjectMocks;
+import org.junit.jupiter.api.io.TempDir;
+import org.mockito.Answers;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.dao.DataAccessResourceFailureException;
 
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.HashSet;
 import java.util.List;
+import java.util.Map;
 import java.util.Set;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
 
 import static org.junit.jupiter.api.Assertions.*;
 import static org.mockito.Mockito.*;
@@ -23,19 +49,24 @@ import static org.mockito.Mockito.*;
 @ExtendWith(MockitoExtension.class)
 class BlueprintsServicesTest {
 
-    @Mock
+    // Default methods run for real, so the deferred appends reach the stubbed ones
+    @Mock(answer = Answers.CALLS_REAL_METHODS)
     private BlueprintPersistence persistence;
 
     @Mock
     private BlueprintsFilter filter;
 
-    @InjectMocks
+    private FilteredBlueprintCache cache;
+
     private BlueprintsServices services;
 
     private Blueprint sampleBp;
 
     @BeforeEach
     void setUp() {
+        cache = new FilteredBlueprintCache(100, 1 << 20, new SimpleMeterRegistry());
+        services = new BlueprintsServices(persistence, new BlueprintsFilterRegistry(Map.of("mock", filter), "mock"), cache,
+                Runnable::run, new BlueprintEventBus(100));
         sampleBp = new Blueprint("john", "house",
                 List.of(new Point(0, 0), new Point(10, 10)));
     }
@@ -56,6 +87,28 @@ class BlueprintsServicesTest {
         assertEquals(expected, result);
     }
 
+    @Test
+    void getBlueprintsPage_returnsNextKeyWhenMoreRowsExist() {
+        Blueprint other = new Blueprint("john", "shed", List.of());
+        when(persistence.getBlueprintsPage(null, 2)).thenReturn(List.of(sampleBp, other));
+
+        BlueprintPage page = services.getBlueprintsPage(null, 1);
+
+        assertEquals(List.of(sampleBp), page.blueprints());
+        assertEquals(new BlueprintKey("john", "house"), page.next());
+    }
+
+    @Test
+    void getBlueprintsPage_lastPageHasNoNextKey() {
+        BlueprintKey after = new BlueprintKey("jane", "garden");
+        when(persistence.getBlueprintsPage(after, 3)).thenReturn(List.of(sampleBp));
+
+        BlueprintPage page = services.getBlueprintsPage(after, 2);
+
+        assertEquals(List.of(sampleBp), page.blueprints());
+        assertNull(page.next());
+    }
+
     @Test
     void getBlueprintsByAuthor_returnsCorrectSet() throws BlueprintNotFoundException {
         Set<Blueprint> expected = Set.of(sampleBp);
@@ -86,4 +139,293 @@ class BlueprintsServicesTest {
         assertThrows(BlueprintNotFoundException.class,
                 () -> services.getBlueprint("nobody", "ghost"));
     }
+
+    @Test
+    void getBlueprint_secondReadIsServedFromCache() throws BlueprintNotFoundException {
+        when(persistence.getBlueprint("john", "house")).thenReturn(sampleBp);
+        when(filter.apply(sampleBp)).thenReturn(sampleBp);
+
+        services.getBlueprint("john", "house");
+        Blueprint second = services.getBlueprint("john", "house");
+
+        assertEquals(sampleBp, second);
+        verify(persistence, times(1)).getBlueprint("john", "house");
+        verify(filter, times(1)).apply(sampleBp);
+        assertEquals(1, cache.stats().hitCount());
+        assertEquals(1, cache.stats().missCount());
+    }
+
+    @Test
+    void addPoint_invalidatesCachedBlueprint() throws BlueprintNotFoundException {
+        when(persistence.getBlueprint("john", "house")).thenReturn(sampleBp);
+        when(filter.apply(sampleBp)).thenReturn(sampleBp);
+
+        services.getBlueprint("john", "house");
+        services.addPoint("john", "house", 1, 1);
+        services.getBlueprint("john", "house");
+
+        verify(persistence, times(2)).getBlueprint("john", "house");
+    }
+
+    @Test
+    void addNewBlueprint_invalidatesCachedBlueprint() throws Exception {
+        when(persistence.getBlueprint("john", "house")).thenReturn(sampleBp);
+        when(filter.apply(sampleBp)).thenReturn(sampleBp);
+
+        services.getBlueprint("john", "house");
+        services.addNewBlueprint(sampleBp);
+        services.getBlueprint("john", "house");
+
+        verify(persistence, times(2)).getBlueprint("john", "house");
+    }
+
+    @Test
+    void getBlueprint_notFoundIsNotCached() throws BlueprintNotFoundException {
+        when(persistence.getBlueprint("nobody", "ghost"))
+                .thenThrow(new BlueprintNotFoundException("Blueprint not found: nobody/ghost"));
+
+        assertThrows(BlueprintNotFoundException.class, () -> services.getBlueprint("nobody", "ghost"));
+        assertThrows(BlueprintNotFoundException.class, () -> services.getBlueprint("nobody", "ghost"));
+
+        verify(persistence, times(2)).getBlueprint("nobody", "ghost");
+    }
+
+    @Test
+    void cache_evictsWhenOverEntryLimit() throws BlueprintNotFoundException {
+        FilteredBlueprintCache small = new FilteredBlueprintCache(2, 1 << 20, new SimpleMeterRegistry());
+        for (int i = 0; i < 50; i++) {
+            Blueprint bp = new Blueprint("a", "bp" + i, List.of());
+            small.get(BlueprintKey.of(bp), new FilterPipeline("identity", List.of()), () -> bp);
+        }
+        small.cleanUp();
+
+        assertTrue(small.stats().evictionCount() >= 48);
+    }
+
+    @Test
+    void addPoint_extendsMaterializedVariantsWithoutReloading() throws Exception {
+        BlueprintPersistence store = new InMemoryBlueprintPersistence();
+        store.saveBlueprint(new Blueprint("ann", "road", List.of(new Point(0, 0), new Point(0, 0),
+                new Point(1, 1), new Point(2, 2), new Point(3, 3))));
+        BlueprintsServices real = servicesWithRealFilters(store);
+
+        real.getBlueprint("ann", "road", "redundancy");
+        real.getBlueprint("ann", "road", "redundancy,undersampling");
+        real.addPoint("ann", "road", 3, 3);
+        real.addPoints("ann", "road", List.of(new Point(4, 4), new Point(5, 5), new Point(5, 5)));
+
+        assertEquals(List.of(new Point(0, 0), new Point(1, 1), new Point(2, 2), new Point(3, 3),
+                        new Point(4, 4), new Point(5, 5)),
+                real.getBlueprint("ann", "road", "redundancy").getPoints());
+        assertEquals(List.of(new Point(0, 0), new Point(2, 2), new Point(4, 4)),
+                real.getBlueprint("ann", "road", "redundancy,undersampling").getPoints());
+        // Each chain was filtered once, on its first read; the appends only extended them
+        assertEquals(2, cache.stats().missCount());
+        assertEquals(2, cache.stats().hitCount());
+    }
+
+    @Test
+    void addPoint_dropsVariantThatCannotBeExtended() throws Exception {
+        BlueprintsServices real = servicesWithRealFilters(persistence);
+        // Undersampling returns two-point blueprints whole, so the second point changes earlier output
+        when(persistence.getBlueprint("john", "house"))
+                .thenReturn(new Blueprint("john", "house", List.of(new Point(0, 0))))
+                .thenReturn(new Blueprint("john", "house", List.of(new Point(0, 0), new Point(1, 1))));
+
+        real.getBlueprint("john", "house", "undersampling");
+        real.addPoint("john", "house", 1, 1);
+
+        assertEquals(List.of(new Point(0, 0), new Point(1, 1)),
+                real.getBlueprint("john", "house", "undersampling").getPoints());
+        verify(persistence, times(2)).getBlueprint("john", "house");
+    }
+
+    @Test
+    void getAllBlueprints_filtersEachBlueprintOnBoundedExecutor() throws Exception {
+        List<Blueprint> raw = new ArrayList<>();
+        for (int i = 0; i < 40; i++) {
+            raw.add(new Blueprint("a", "bp" + i, List.of(new Point(i, i), new Point(i, i), new Point(0, 0))));
+        }
+        when(persistence.getAllBlueprints()).thenReturn(new HashSet<>(raw));
+        ExecutorService executor = new ThreadPoolExecutor(2, 2, 0, TimeUnit.SECONDS,
+                new ArrayBlockingQueue<>(4), new ThreadPoolExecutor.CallerRunsPolicy());
+        try {
+            BlueprintsServices real = new BlueprintsServices(persistence, new BlueprintsFilterRegistry(
+                    Map.of("redundancy", new RedundancyFilter()), "redundancy"), cache, executor, new BlueprintEventBus(100));
+
+            Set<Blueprint> result = real.getAllBlueprints(null);
+
+            assertEquals(40, result.size());
+            for (Blueprint bp : result) {
+                int i = Integer.parseInt(bp.getName().substring(2));
+                List<Point> expected = i == 0 ? List.of(new Point(0, 0))
+                        : List.of(new Point(i, i), new Point(0, 0));
+                assertEquals(expected, bp.getPoints(), bp.getName());
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    @Test
+    void getAllBlueprints_doesNotCacheABlueprintAppendedToAfterTheListRead() throws Exception {
+        BlueprintsServices real = servicesWithRealFilters(persistence);
+        Blueprint stale = new Blueprint("john", "house", List.of(new Point(0, 0)));
+        // The append lands after the list query read the blueprint but before its variant is filled
+        when(persistence.getAllBlueprints()).thenAnswer(inv -> {
+            real.addPoint("john", "house", 1, 1);
+            return Set.of(stale);
+        });
+        when(persistence.getBlueprint("john", "house"))
+                .thenReturn(new Blueprint("john", "house", List.of(new Point(0, 0), new Point(1, 1))));
+
+        assertEquals(Set.of(stale), real.getAllBlueprints(null));
+
+        assertEquals(List.of(new Point(0, 0), new Point(1, 1)), real.getBlueprint("john", "house", null).getPoints());
+        verify(persistence, times(1)).getBlueprint("john", "house");
+    }
+
+    @Test
+    void addPoint_concurrentAppendsToOneBlueprintShareTheLogFsync(@TempDir Path logDir) throws Exception {
+        WriteBehindBlueprintPersistence store = new WriteBehindBlueprintPersistence(
+                new InMemoryBlueprintPersistence(), logDir.toString(), 1 << 20, 5000, 100_000, 3_600_000);
+        BlueprintsServices real = servicesWithRealFilters(store);
+        int threads = 8, perThread = 50;
+        CountDownLatch start = new CountDownLatch(1);
+        List<Thread> writers = new ArrayList<>();
+        for (int t = 0; t < threads; t++) {
+            int writer = t;
+            writers.add(Thread.ofPlatform().start(() -> {
+                try {
+                    start.await();
+                    for (int i = 0; i < perThread; i++) real.addPoint("john", "house", writer, i);
+                } catch (Exception e) {
+                    throw new AssertionError(e);
+                }
+            }));
+        }
+        start.countDown();
+        for (Thread writer : writers) writer.join();
+
+        assertEquals(4 + threads * perThread, real.getPointsSince("john", "house", 0).total());
+        // Each fsync is awaited outside the cache stripe, so writers append while another one forces the log
+        long syncs = store.logSyncs();
+        assertTrue(syncs < threads * perThread, syncs + " fsyncs for " + threads * perThread + " appends");
+    }
+
+    @Test
+    void addPoint_keepsTheCacheCurrentWhenTheAppendCannotBeMadeDurable() throws Exception {
+        BlueprintsServices real = servicesWithRealFilters(persistence);
+        when(persistence.getBlueprint("john", "house"))
+                .thenReturn(new Blueprint("john", "house", List.of(new Point(0, 0))));
+        real.getBlueprint("john", "house", null);
+        BlueprintPersistence.Durability failed = () -> {
+            throw new DataAccessResourceFailureException("fsync failed");
+        };
+        doReturn(failed).when(persistence).addPointDeferred("john", "house", 1, 1);
+
+        assertThrows(DataAccessResourceFailureException.class, () -> real.addPoint("john", "house", 1, 1));
+
+        // The append was accepted before the fsync failed, so the cached variant already has it
+        assertEquals(List.of(new Point(0, 0), new Point(1, 1)), real.getBlueprint("john", "house", null).getPoints());
+        verify(persistence, times(1)).getBlueprint("john", "house");
+    }
+
+    @Test
+    void subscribe_startsAtSinceAndReceivesLaterAppendsWithPositions() throws Exception {
+        BlueprintPersistence store = new InMemoryBlueprintPersistence();
+        store.saveBlueprint(new Blueprint("ann", "road", List.of(new Point(0, 0), new Point(1, 1))));
+        BlueprintsServices real = servicesWithRealFilters(store);
+        BlockingQueue<PointsDelta> received = new LinkedBlockingQueue<>();
+
+        real.subscribe("ann", "road", 1, new BlueprintEventBus.Sink() {
+            @Override
+            public void send(String id, String event, Object data) {
+                received.add((PointsDelta) data);
+            }
+
+            @Override
+            public void close() {}
+        });
+        real.addPoint("ann", "road", 2, 2);
+
+        PointsDelta initial = received.poll(5, TimeUnit.SECONDS);
+        assertEquals(List.of(new Point(1, 1)), initial.points());
+        assertEquals(2, initial.total());
+        PointsDelta appended = received.poll(5, TimeUnit.SECONDS);
+        assertEquals(new PointsDelta(2, 3, 1, List.of(new Point(2, 2))), appended);
+        assertThrows(IllegalArgumentException.class, () -> real.subscribe("ann", "road", -1, null));
+    }
+
+    @Test
+    void levelOfDetail_halvesTheFilteredChainPerLevelAndFollowsAppends() throws Exception {
+        BlueprintPersistence store = new InMemoryBlueprintPersistence();
+        List<Point> line = new ArrayList<>();
+        for (int i = 0; i < 100; i++) line.add(new Point(i, i));
+        store.saveBlueprint(new Blueprint("ann", "line", line));
+        BlueprintsServices real = servicesWithRealFilters(store);
+
+        assertEquals("redundancy", real.levelOfDetail(null, 0));
+        assertEquals("redundancy,lod:3", real.levelOfDetail(null, 3));
+        assertEquals(13, real.getBlueprint("ann", "line", real.levelOfDetail(null, 3)).getPoints().size());
+        real.addPoints("ann", "line", List.of(new Point(100, 100), new Point(101, 101), new Point(102, 102),
+                new Point(103, 103), new Point(104, 104)));
+
+        // 105 points: indexes 0, 8, ..., 104
+        List<Point> level3 = real.getBlueprint("ann", "line", real.levelOfDetail(null, 3)).getPoints();
+        assertEquals(14, level3.size());
+        assertEquals(new Point(104, 104), level3.get(13));
+        assertEquals(1, cache.stats().missCount());
+        assertThrows(IllegalArgumentException.class, () -> real.levelOfDetail(null, -1));
+        assertThrows(IllegalArgumentException.class, () -> real.levelOfDetail(null, BlueprintsServices.MAX_LOD + 1));
+    }
+
+    @Test
+    void levelForBudget_picksFinestLevelThatFits() throws Exception {
+        BlueprintPersistence store = new InMemoryBlueprintPersistence();
+        List<Point> line = new ArrayList<>();
+        for (int i = 0; i < 100; i++) line.add(new Point(i, i));
+        store.saveBlueprint(new Blueprint("ann", "line", line));
+        BlueprintsServices real = servicesWithRealFilters(store);
+
+        assertEquals(0, BlueprintsServices.levelForBudget(100, 100));
+        assertEquals(1, BlueprintsServices.levelForBudget(100, 99));
+        assertEquals(6, BlueprintsServices.levelForBudget(100, 2));
+        for (int budget : List.of(2, 3, 7, 13, 50)) {
+            int lod = BlueprintsServices.levelForBudget(100, budget);
+            assertTrue(real.getBlueprint("ann", "line", real.levelOfDetail(null, lod)).getPoints().size() <= budget);
+        }
+        assertThrows(IllegalArgumentException.class, () -> BlueprintsServices.levelForBudget(100, 1));
+    }
+
+    @Test
+    void levelOfDetail_neverHasMorePointsThanAFinerLevel() throws Exception {
+        BlueprintPersistence store = new InMemoryBlueprintPersistence();
+        List<Point> line = new ArrayList<>();
+        for (int i = 0; i < 10; i++) line.add(new Point(i, i));
+        store.saveBlueprint(new Blueprint("ann", "short", line));
+        BlueprintsServices real = servicesWithRealFilters(store);
+
+        int previous = Integer.MAX_VALUE;
+        for (int lod = 0; lod <= BlueprintsServices.MAX_LOD; lod++) {
+            int size = real.getBlueprint("ann", "short", real.levelOfDetail(null, lod)).getPoints().size();
+            assertTrue(size <= previous, "lod " + lod + " has " + size + " points, lod " + (lod - 1) + " " + previous);
+            previous = size;
+        }
+        assertEquals(List.of(new Point(0, 0)),
+                real.getBlueprint("ann", "short", real.levelOfDetail(null, BlueprintsServices.MAX_LOD)).getPoints());
+        // 10 points: lod 2 keeps indexes 0, 4 and 8
+        assertEquals(2, BlueprintsServices.levelForBudget(10, 3));
+        assertEquals(3, real.getBlueprint("ann", "short", real.levelOfDetail(null, 2)).getPoints().size());
+        assertEquals(3, BlueprintsServices.levelForBudget(10, 2));
+        assertEquals(2, real.getBlueprint("ann", "short", real.levelOfDetail(null, 3)).getPoints().size());
+    }
+
+    private BlueprintsServices servicesWithRealFilters(BlueprintPersistence store) {
+        BlueprintsFilterRegistry registry = new BlueprintsFilterRegistry(Map.of(
+                "redundancy", new RedundancyFilter(),
+                "undersampling", new UndersamplingFilter(),
+                "lod", new LevelOfDetailFilter()), "redundancy");
+        return new BlueprintsServices(store, registry, cache, Runnable::run, new BlueprintEventBus(100));
+    }
 }
@@ -0,0 +1,75 @@
+package edu.eci.arsw.blueprints;
+
+import edu.eci.arsw.blueprints.filters.DouglasPeuckerFilter;
+import edu.eci.arsw.blueprints.model.Blueprint;
+import edu.eci.arsw.blueprints.model.Point;
+import edu.eci.arsw.blueprints.model.PointBuffer;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class DouglasPeuckerFilterTest {
+
+    private final DouglasPeuckerFilter filter = new DouglasPeuckerFilter(1.0);
+
+    @Test
+    void apply_dropsCollinearPointsKeepingEndpoints() {
+        Blueprint bp = new Blueprint("author", "bp",
+                List.of(new Point(0, 0), new Point(1, 1), new Point(2, 2), new Point(3, 3)));
+
+        Blueprint result = filter.apply(bp);
+
+        assertEquals(List.of(new Point(0, 0), new Point(3, 3)), result.getPoints());
+    }
+
+    @Test
+    void apply_keepsCornersBeyondTolerance() {
+        Blueprint bp = new Blueprint("author", "bp",
+                List.of(new Point(0, 0), new Point(5, 0), new Point(10, 0),
+                        new Point(10, 5), new Point(10, 10)));
+
+        Blueprint result = filter.apply(bp);
+
+        assertEquals(List.of(new Point(0, 0), new Point(10, 0), new Point(10, 10)), result.getPoints());
+    }
+
+    @Test
+    void apply_dropsDeviationsWithinTolerance() {
+        Blueprint bp = new Blueprint("author", "bp",
+                List.of(new Point(0, 0), new Point(5, 1), new Point(10, 0)));
+
+        assertEquals(3, new DouglasPeuckerFilter(0.5).apply(bp).getPoints().size());
+        assertEquals(2, filter.apply(bp).getPoints().size());
+    }
+
+    @Test
+    void apply_closedShapeMeasuresDistanceToRepeatedEndpoint() {
+        List<Point> square = List.of(new Point(0, 0), new Point(10, 0), new Point(10, 10), new Point(0, 0));
+        Blueprint bp = new Blueprint("author", "bp", square);
+
+        assertEquals(square, filter.apply(bp).getPoints());
+    }
+
+    @Test
+    void apply_handlesMillionPointTraceIteratively() {
+        int n = 1_000_000;
+        PointBuffer pts = new PointBuffer(n);
+        for (int i = 0; i < n; i++) pts.add(i, (int) Math.round(1000 * Math.sin(i / 10_000.0)));
+        Blueprint bp = new Blueprint("author", "bp", pts);
+
+        List<Point> result = filter.apply(bp).getPoints();
+
+        assertTrue(result.size() < n / 100, "kept " + result.size());
+        assertEquals(new Point(0, 0), result.get(0));
+        assertEquals(pts.get(n - 1), result.get(result.size() - 1));
+    }
+
+    @Test
+    void apply_twoOrFewerPointsReturnedUnchanged() {
+        Blueprint bp = new Blueprint("author", "bp", List.of(new Point(1, 1), new Point(9, 9)));
+
+        assertSame(bp, filter.apply(bp));
+    }
+}
@@ -0,0 +1,83 @@
+package edu.eci.arsw.blueprints;
+
+import edu.eci.arsw.blueprints.filters.BlueprintsFilter;
+import edu.eci.arsw.blueprints.filters.BlueprintsFilterRegistry;
+import edu.eci.arsw.blueprints.filters.FilterPipeline;
+import edu.eci.arsw.blueprints.filters.IdentityFilter;
+import edu.eci.arsw.blueprints.filters.RedundancyFilter;
+import edu.eci.arsw.blueprints.filters.UndersamplingFilter;
+import edu.eci.arsw.blueprints.model.Blueprint;
+import edu.eci.arsw.blueprints.model.Point;
+import edu.eci.arsw.blueprints.model.PointBuffer;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class FilterPipelineTest {
+
+    private final BlueprintsFilterRegistry registry = new BlueprintsFilterRegistry(Map.of(
+            "identity", new IdentityFilter(),
+            "redundancy", new RedundancyFilter(),
+            "undersampling", new UndersamplingFilter()), "redundancy");
+
+    @Test
+    void fusedChain_matchesApplyingEachFilterInTurn() {
+        Random random = new Random(7);
+        List<BlueprintsFilter> chain = List.of(new RedundancyFilter(), new UndersamplingFilter(3),
+                new IdentityFilter(), new UndersamplingFilter());
+        FilterPipeline pipeline = new FilterPipeline("test", chain);
+
+        for (int size = 0; size < 40; size++) {
+            PointBuffer pts = new PointBuffer();
+            for (int i = 0; i < size; i++) pts.add(random.nextInt(3), random.nextInt(3));
+            Blueprint bp = new Blueprint("a", "b", pts);
+
+            Blueprint expected = bp;
+            for (BlueprintsFilter f : chain) expected = f.apply(expected);
+
+            assertEquals(expected.getPoints(), pipeline.apply(bp).getPoints(), "size " + size);
+        }
+    }
+
+    @Test
+    void defaultBufferingStage_feedsApplyResultDownstream() {
+        // Reverses the points; has no streaming stage of its own
+        BlueprintsFilter reverse = bp -> {
+            PointBuffer out = new PointBuffer();
+            for (int i = bp.pointBuffer().size() - 1; i >= 0; i--) out.add(bp.pointBuffer().x(i), bp.pointBuffer().y(i));
+            return new Blueprint(bp.getAuthor(), bp.getName(), out);
+        };
+        FilterPipeline pipeline = new FilterPipeline("test", List.of(reverse, new UndersamplingFilter()));
+        Blueprint bp = new Blueprint("a", "b", List.of(new Point(1, 1), new Point(2, 2), new Point(3, 3)));
+
+        assertEquals(List.of(new Point(3, 3), new Point(1, 1)), pipeline.apply(bp).getPoints());
+    }
+
+    @Test
+    void registry_parsesSpecIntoCanonicalChain() {
+        FilterPipeline pipeline = registry.pipeline(" redundancy , undersampling: 3");
+        Blueprint bp = new Blueprint("a", "b", List.of(new Point(0, 0), new Point(0, 0),
+                new Point(1, 1), new Point(2, 2), new Point(3, 3), new Point(4, 4)));
+
+        assertEquals("redundancy,undersampling:3", pipeline.spec());
+        assertEquals(List.of(new Point(0, 0), new Point(3, 3)), pipeline.apply(bp).getPoints());
+    }
+
+    @Test
+    void registry_usesDefaultChainWhenSpecIsMissing() {
+        assertSame(registry.defaultPipeline(), registry.pipeline(null));
+        assertEquals("redundancy", registry.pipeline("").spec());
+    }
+
+    @Test
+    void registry_rejectsUnknownFiltersAndBadArguments() {
+        assertThrows(IllegalArgumentException.class, () -> registry.pipeline("blur"));
+        assertThrows(IllegalArgumentException.class, () -> registry.pipeline("undersampling:zero"));
+        assertThrows(IllegalArgumentException.class, () -> registry.pipeline("undersampling:0"));
+        assertThrows(IllegalArgumentException.class, () -> registry.pipeline("redundancy:2"));
+    }
+}
@@ -0,0 +1,81 @@
+package edu.eci.arsw.blueprints;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import edu.eci.arsw.blueprints.model.Blueprint;
+import edu.eci.arsw.blueprints.model.Point;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.web.server.LocalServerPort;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.io.ByteArrayInputStream;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.zip.GZIPInputStream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/** La compresión la decide el conector de Tomcat, así que se prueba contra el servidor real y no con MockMvc. */
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT, properties =
+        // Its own database, so the blueprint written here does not show up in the other H2 tests
+        "spring.datasource.url=jdbc:h2:mem:compressiondb;MODE=PostgreSQL;DATABASE_TO_LOWER=TRUE;DB_CLOSE_DELAY=-1;LOCK_TIMEOUT=10000")
+@ActiveProfiles("h2")
+class HttpCompressionTest {
+
+    @LocalServerPort
+    private int port;
+
+    @Autowired
+    private ObjectMapper mapper;
+
+    private final HttpClient http = HttpClient.newHttpClient();
+
+    @Test
+    void blueprintRead_isGzippedAndKeepsAUsableEtag() throws Exception {
+        List<Point> points = new ArrayList<>();
+        Random random = new Random(42);
+        for (int i = 0; i < 1000; i++) points.add(new Point(random.nextInt(1_000_000), random.nextInt(1_000_000)));
+        String body = mapper.writeValueAsString(new Blueprint("gzip", "big", points));
+        HttpResponse<String> created = http.send(HttpRequest.newBuilder(uri("/api/v1/blueprints"))
+                .header("Content-Type", "application/json")
+                .POST(HttpRequest.BodyPublishers.ofString(body)).build(), HttpResponse.BodyHandlers.ofString());
+        assertEquals(201, created.statusCode());
+
+        HttpResponse<byte[]> json = get("application/json", null);
+        assertEquals(200, json.statusCode());
+        assertEquals("gzip", json.headers().firstValue("Content-Encoding").orElse(null));
+        String etag = json.headers().firstValue("ETag").orElseThrow();
+        assertTrue(etag.startsWith("W/"), etag);
+        JsonNode read = mapper.readTree(new GZIPInputStream(new ByteArrayInputStream(json.body())));
+        assertEquals(1000, read.at("/data/points").size());
+
+        HttpResponse<byte[]> binary = get("application/x-blueprint", null);
+        assertEquals("gzip", binary.headers().firstValue("Content-Encoding").orElse(null));
+        assertNotEquals(etag, binary.headers().firstValue("ETag").orElseThrow());
+
+        assertEquals(304, get("application/json", etag).statusCode());
+        HttpResponse<String> appended = http.send(HttpRequest.newBuilder(uri("/api/v1/blueprints/gzip/big/points"))
+                .header("Content-Type", "application/json").header("If-Match", etag)
+                .PUT(HttpRequest.BodyPublishers.ofString("{\"x\":1,\"y\":1}")).build(), HttpResponse.BodyHandlers.ofString());
+        assertEquals(202, appended.statusCode());
+        assertEquals(200, get("application/json", etag).statusCode());
+    }
+
+    private HttpResponse<byte[]> get(String accept, String ifNoneMatch) throws Exception {
+        HttpRequest.Builder request = HttpRequest.newBuilder(uri("/api/v1/blueprints/gzip/big"))
+                .header("Accept", accept).header("Accept-Encoding", "gzip");
+        if (ifNoneMatch != null) request.header("If-None-Match", ifNoneMatch);
+        return http.send(request.GET().build(), HttpResponse.BodyHandlers.ofByteArray());
+    }
+
+    private URI uri(String path) {
+        return URI.create("http://localhost:" + port + path);
+    }
+}
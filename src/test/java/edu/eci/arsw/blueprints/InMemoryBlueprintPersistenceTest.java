@@ -0,0 +1,168 @@
+package edu.eci.arsw.blueprints;
+
+import edu.eci.arsw.blueprints.model.Blueprint;
+import edu.eci.arsw.blueprints.model.BlueprintBounds;
+import edu.eci.arsw.blueprints.model.BlueprintKey;
+import edu.eci.arsw.blueprints.model.BoundingBox;
+import edu.eci.arsw.blueprints.model.Point;
+import edu.eci.arsw.blueprints.persistence.BlueprintNotFoundException;
+import edu.eci.arsw.blueprints.persistence.BlueprintPersistenceException;
+import edu.eci.arsw.blueprints.persistence.old.InMemoryBlueprintPersistence;
+import org.junit.jupiter.api.Test;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class InMemoryBlueprintPersistenceTest {
+
+    private final InMemoryBlueprintPersistence persistence = new InMemoryBlueprintPersistence();
+
+    @Test
+    void getBlueprintsByAuthor_returnsOnlyThatAuthorsBlueprints() throws Exception {
+        persistence.saveBlueprint(new Blueprint("jane", "pool", List.of()));
+
+        Set<Blueprint> janes = persistence.getBlueprintsByAuthor("jane");
+
+        assertEquals(Set.of(new BlueprintKey("jane", "garden"), new BlueprintKey("jane", "pool")),
+                janes.stream().map(BlueprintKey::of).collect(Collectors.toSet()));
+        assertThrows(BlueprintNotFoundException.class, () -> persistence.getBlueprintsByAuthor("ghost"));
+    }
+
+    @Test
+    void saveBlueprint_rejectsDuplicateKey() throws Exception {
+        assertThrows(BlueprintPersistenceException.class,
+                () -> persistence.saveBlueprint(new Blueprint("john", "house", List.of())));
+        persistence.saveBlueprint(new Blueprint("john", "house2", List.of()));
+
+        assertEquals(3, persistence.getBlueprintsByAuthor("john").size());
+    }
+
+    @Test
+    void getBlueprint_findsSavedBlueprintByAuthorAndName() throws Exception {
+        Blueprint bp = new Blueprint("alice", "lab", List.of(new Point(1, 2)));
+        persistence.saveBlueprint(bp);
+
+        assertSame(bp, persistence.getBlueprint("alice", "lab"));
+        assertThrows(BlueprintNotFoundException.class, () -> persistence.getBlueprint("alice", "house"));
+    }
+
+    @Test
+    void getBlueprintsPage_walksKeysInAuthorNameOrder() {
+        List<BlueprintKey> seen = new ArrayList<>();
+        BlueprintKey after = null;
+        List<Blueprint> page;
+        while (!(page = persistence.getBlueprintsPage(after, 2)).isEmpty()) {
+            page.forEach(bp -> seen.add(BlueprintKey.of(bp)));
+            after = BlueprintKey.of(page.get(page.size() - 1));
+        }
+
+        assertEquals(List.of(new BlueprintKey("jane", "garden"), new BlueprintKey("john", "garage"),
+                new BlueprintKey("john", "house")), seen);
+    }
+
+    @Test
+    void findIntersecting_followsBoundsAsTheyGrow() throws Exception {
+        // Samples: john/house 0..10, john/garage 5..15, jane/garden 2..7
+        assertEquals(List.of(new BlueprintKey("john", "garage"), new BlueprintKey("john", "house")),
+                keys(persistence.findIntersecting(new BoundingBox(9, 9, 12, 12))));
+        assertEquals(List.of(), persistence.findIntersecting(new BoundingBox(1000, 1000, 1100, 1100)));
+
+        persistence.addPoint("jane", "garden", 1050, 1050);
+        persistence.saveBlueprint(new Blueprint("alice", "city", List.of(new Point(-100_000, -100_000), new Point(100_000, 100_000))));
+        persistence.saveBlueprint(new Blueprint("alice", "empty", List.of()));
+
+        assertEquals(List.of(new BlueprintKey("alice", "city"), new BlueprintKey("jane", "garden")),
+                keys(persistence.findIntersecting(new BoundingBox(1000, 1000, 1100, 1100))));
+        assertEquals(new BoundingBox(2, 2, 1050, 1050), persistence.findIntersecting(new BoundingBox(1050, 1050, 1050, 1050))
+                .stream().filter(b -> b.author().equals("jane")).findFirst().orElseThrow().bounds());
+        assertEquals(4, persistence.findIntersecting(new BoundingBox(-1_000_000, -1_000_000, 1_000_000, 1_000_000)).size());
+    }
+
+    @Test
+    void getPointsInside_keepsOrderAndEdges() throws Exception {
+        assertEquals(List.of(new Point(10, 0), new Point(10, 10)),
+                persistence.getPointsInside("john", "house", new BoundingBox(5, 0, 10, 10)));
+        assertEquals(4, persistence.getPointsInside("john", "house", new BoundingBox(-1, -1, 11, 11)).size());
+        assertEquals(List.of(), persistence.getPointsInside("john", "house", new BoundingBox(20, 20, 30, 30)));
+        assertThrows(BlueprintNotFoundException.class,
+                () -> persistence.getPointsInside("ghost", "x", new BoundingBox(0, 0, 1, 1)));
+    }
+
+    private static List<BlueprintKey> keys(List<BlueprintBounds> found) {
+        return found.stream().map(b -> new BlueprintKey(b.author(), b.name())).toList();
+    }
+
+    @Test
+    void concurrentAppendsAreNotLostAndReadersNeverSeeATornList() throws Exception {
+        int writers = 4, perWriter = 5_000, batch = 10;
+        persistence.saveBlueprint(new Blueprint("load", "trace", List.of()));
+        ObjectMapper mapper = new ObjectMapper();
+        ExecutorService pool = Executors.newFixedThreadPool(writers + 2);
+        CountDownLatch start = new CountDownLatch(1);
+        AtomicBoolean writing = new AtomicBoolean(true);
+        try {
+            List<Future<?>> tasks = new ArrayList<>();
+            for (int w = 0; w < writers; w++) {
+                int writer = w;
+                tasks.add(pool.submit(() -> {
+                    start.await();
+                    // Half of each writer's points go one by one, the rest in atomic batches
+                    for (int i = 0; i < perWriter / 2; i++) persistence.addPoint("load", "trace", writer, i);
+                    for (int i = perWriter / 2; i < perWriter; i += batch) {
+                        List<Point> pts = new ArrayList<>();
+                        for (int j = i; j < i + batch; j++) pts.add(new Point(writer, j));
+                        persistence.addPoints("load", "trace", pts);
+                    }
+                    return null;
+                }));
+            }
+            List<Future<?>> readers = new ArrayList<>();
+            for (int r = 0; r < 2; r++) {
+                readers.add(pool.submit(() -> {
+                    start.await();
+                    while (writing.get()) {
+                        List<Point> pts = persistence.getBlueprint("load", "trace").getPoints();
+                        assertInWriterOrder(pts, writers, perWriter / 2, batch);
+                        // Serializing the same snapshot must neither fail nor change its length
+                        assertEquals(pts.size(), mapper.readTree(mapper.writeValueAsString(pts)).size());
+                    }
+                    return null;
+                }));
+            }
+            start.countDown();
+            for (Future<?> t : tasks) t.get(30, TimeUnit.SECONDS);
+            writing.set(false);
+            for (Future<?> r : readers) r.get(30, TimeUnit.SECONDS);
+        } finally {
+            pool.shutdownNow();
+        }
+
+        List<Point> pts = persistence.getBlueprint("load", "trace").getPoints();
+        assertEquals(writers * perWriter, pts.size());
+        assertInWriterOrder(pts, writers, perWriter / 2, batch);
+    }
+
+    /**
+     * Each writer's points appear in the order it appended them, and no batch is visible partially
+     * (a writer past its single appends always shows a whole number of batches).
+     */
+    private static void assertInWriterOrder(List<Point> pts, int writers, int singles, int batch) {
+        int[] next = new int[writers];
+        for (Point p : pts) assertEquals(next[p.x()]++, p.y(), "points of writer " + p.x() + " out of order");
+        for (int w = 0; w < writers; w++) {
+            if (next[w] > singles) assertEquals(0, (next[w] - singles) % batch, "partial batch of writer " + w);
+        }
+    }
+}
@@ -0,0 +1,240 @@
+package edu.eci.arsw.blueprints;
+
+import edu.eci.arsw.blueprints.model.Blueprint;
+import edu.eci.arsw.blueprints.model.BlueprintBounds;
+import edu.eci.arsw.blueprints.model.BlueprintKey;
+import edu.eci.arsw.blueprints.model.BoundingBox;
+import edu.eci.arsw.blueprints.model.Point;
+import edu.eci.arsw.blueprints.model.PointBuffer;
+import edu.eci.arsw.blueprints.model.PointsDelta;
+import edu.eci.arsw.blueprints.persistence.BlueprintBoundsMigration;
+import edu.eci.arsw.blueprints.persistence.BlueprintEntity;
+import edu.eci.arsw.blueprints.persistence.BlueprintNotFoundException;
+import edu.eci.arsw.blueprints.persistence.BlueprintPersistenceException;
+import edu.eci.arsw.blueprints.persistence.PackedBlueprintPersistence;
+import edu.eci.arsw.blueprints.persistence.PackedBlueprintRepository;
+import edu.eci.arsw.blueprints.persistence.PackedPointsMigration;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
+import org.springframework.context.annotation.Import;
+import org.springframework.dao.OptimisticLockingFailureException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.List;
+import java.util.stream.IntStream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@DataJpaTest
+@ActiveProfiles({"h2", "packed"})
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+@Import({PackedBlueprintPersistence.class, PackedPointsMigration.class})
+class PackedBlueprintPersistenceTest {
+
+    @Autowired
+    private PackedBlueprintPersistence persistence;
+
+    @Autowired
+    private PackedPointsMigration migration;
+
+    @Autowired
+    private TestEntityManager em;
+
+    @Autowired
+    private EntityManagerFactory emf;
+
+    @Autowired
+    private PackedBlueprintRepository repo;
+
+    @Autowired
+    private JdbcTemplate jdbc;
+
+    @Test
+    void saveAndGet_roundTripsPointsInOrder() throws Exception {
+        List<Point> pts = List.of(new Point(0, 0), new Point(-5, 7), new Point(Integer.MAX_VALUE, Integer.MIN_VALUE));
+        persistence.saveBlueprint(new Blueprint("john", "house", pts));
+        em.flush();
+        em.clear();
+
+        assertEquals(pts, persistence.getBlueprint("john", "house").getPoints());
+    }
+
+    @Test
+    void getBlueprint_loadsAllPointsInOneStatement() throws Exception {
+        persistence.saveBlueprint(new Blueprint("john", "big",
+                IntStream.range(0, 5000).mapToObj(i -> new Point(i, -i)).toList()));
+        em.flush();
+        em.clear();
+        Statistics stats = emf.unwrap(SessionFactory.class).getStatistics();
+        stats.clear();
+
+        assertEquals(5000, persistence.getBlueprint("john", "big").getPoints().size());
+        assertEquals(1, stats.getPrepareStatementCount());
+    }
+
+    @Test
+    void saveBlueprint_rejectsDuplicates() throws Exception {
+        persistence.saveBlueprint(new Blueprint("john", "house", List.of()));
+
+        assertThrows(BlueprintPersistenceException.class,
+                () -> persistence.saveBlueprint(new Blueprint("john", "house", List.of())));
+    }
+
+    @Test
+    void addPoint_appendsToPackedColumn() throws Exception {
+        persistence.saveBlueprint(new Blueprint("john", "house", List.of(new Point(1, 1))));
+        persistence.addPoint("john", "house", 2, 3);
+        em.flush();
+        em.clear();
+
+        assertEquals(List.of(new Point(1, 1), new Point(2, 3)),
+                persistence.getBlueprint("john", "house").getPoints());
+        assertThrows(BlueprintNotFoundException.class, () -> persistence.addPoint("ghost", "x", 0, 0));
+    }
+
+    @Test
+    void addPoints_withExpectedVersionAppliesOnlyAtThatVersion() throws Exception {
+        persistence.saveBlueprint(new Blueprint("john", "house", List.of(new Point(1, 1))));
+        em.flush();
+
+        persistence.addPoint("john", "house", 2, 2);
+        persistence.addPoints("john", "house", List.of(new Point(3, 3)), 1);
+        assertThrows(OptimisticLockingFailureException.class,
+                () -> persistence.addPoints("john", "house", List.of(new Point(4, 4)), 1));
+        em.clear();
+
+        assertEquals(2, persistence.getVersion("john", "house").version());
+        assertEquals(List.of(new Point(1, 1), new Point(2, 2), new Point(3, 3)),
+                persistence.getBlueprint("john", "house").getPoints());
+    }
+
+    @Test
+    void addPointBatches_writesAllBatchesAtOnceAndBumpsTheVersionPerBatch() throws Exception {
+        persistence.saveBlueprint(new Blueprint("john", "house", List.of(new Point(0, 0))));
+        em.flush();
+
+        persistence.addPointBatches("john", "house", List.of(
+                PointBuffer.of(List.of(new Point(1, 1), new Point(2, 2))), new PointBuffer(),
+                PointBuffer.of(List.of(new Point(-3, 30)))));
+        em.clear();
+
+        assertEquals(List.of(new Point(0, 0), new Point(1, 1), new Point(2, 2), new Point(-3, 30)),
+                persistence.getBlueprint("john", "house").getPoints());
+        assertEquals(2, persistence.getVersion("john", "house").version());
+        assertEquals(List.of(new BlueprintBounds("john", "house", new BoundingBox(-3, 0, 2, 30))),
+                persistence.findIntersecting(new BoundingBox(-5, 25, -1, 35)));
+        assertThrows(BlueprintNotFoundException.class,
+                () -> persistence.addPointBatches("ghost", "x", List.of(new PointBuffer())));
+    }
+
+    @Test
+    void getPointsSince_readsTheColumnFromThatPointOn() throws Exception {
+        persistence.saveBlueprint(new Blueprint("john", "house", List.of(new Point(1, 1), new Point(2, 2))));
+        persistence.addPoint("john", "house", -3, 3);
+
+        PointsDelta delta = persistence.getPointsSince("john", "house", 1);
+
+        assertEquals(List.of(new Point(2, 2), new Point(-3, 3)), delta.points());
+        assertEquals(3, delta.total());
+        assertEquals(1, delta.version());
+        assertEquals(List.of(), persistence.getPointsSince("john", "house", 10).points());
+        assertThrows(BlueprintNotFoundException.class, () -> persistence.getPointsSince("ghost", "x", 0));
+    }
+
+    @Test
+    void migration_copiesLegacyRowsOnlyOnce() throws Exception {
+        em.persist(new BlueprintEntity(new Blueprint("jane", "garden", List.of(new Point(2, 2), new Point(3, 4)))));
+        em.persist(new BlueprintEntity(new Blueprint("john", "house", List.of(new Point(0, 0)))));
+        persistence.saveBlueprint(new Blueprint("john", "house", List.of(new Point(9, 9))));
+        em.flush();
+        em.clear();
+
+        migration.run(null);
+        migration.run(null);
+        em.flush();
+        em.clear();
+
+        assertEquals(List.of(new Point(2, 2), new Point(3, 4)),
+                persistence.getBlueprint("jane", "garden").getPoints());
+        assertEquals(List.of(new Point(9, 9)), persistence.getBlueprint("john", "house").getPoints());
+        assertEquals(List.of(new BlueprintKey("jane", "garden"), new BlueprintKey("john", "house")),
+                persistence.getBlueprintsPage(null, 10).stream().map(BlueprintKey::of).toList());
+    }
+
+    @Test
+    void findIntersectingAndPointsInside_useTheBoundsColumns() throws Exception {
+        persistence.saveBlueprint(new Blueprint("john", "house", List.of(new Point(0, 0), new Point(10, 10))));
+        persistence.saveBlueprint(new Blueprint("jane", "empty", List.of()));
+        persistence.addPoint("john", "house", 20, -4);
+        persistence.addPoints("john", "house", List.of(new Point(5, 5), new Point(7, 30)));
+
+        assertEquals(List.of(new BlueprintBounds("john", "house", new BoundingBox(0, -4, 20, 30))),
+                persistence.findIntersecting(new BoundingBox(19, 29, 40, 40)));
+        assertEquals(List.of(), persistence.findIntersecting(new BoundingBox(21, 0, 40, 40)));
+        assertEquals(List.of(new Point(10, 10), new Point(5, 5)),
+                persistence.getPointsInside("john", "house", new BoundingBox(5, 0, 10, 10)));
+        assertEquals(List.of(), persistence.getPointsInside("john", "house", new BoundingBox(21, 0, 40, 40)));
+        assertEquals(List.of(), persistence.getPointsInside("jane", "empty", new BoundingBox(0, 0, 1, 1)));
+        assertThrows(BlueprintNotFoundException.class,
+                () -> persistence.getPointsInside("ghost", "x", new BoundingBox(0, 0, 1, 1)));
+    }
+
+    @Test
+    void boundsMigration_fillsMissingBoxesInBothTables() throws Exception {
+        em.persist(new BlueprintEntity(new Blueprint("jane", "garden", List.of(new Point(2, 9), new Point(3, 4)))));
+        persistence.saveBlueprint(new Blueprint("john", "house", List.of(new Point(-1, 1), new Point(8, 0))));
+        persistence.saveBlueprint(new Blueprint("john", "empty", List.of()));
+        em.flush();
+        // As left by a version without the columns
+        for (String table : List.of("blueprints", "blueprints_packed")) {
+            em.getEntityManager().createNativeQuery(
+                    "update " + table + " set min_x = null, min_y = null, max_x = null, max_y = null").executeUpdate();
+        }
+        em.clear();
+
+        new BlueprintBoundsMigration(jdbc, true).run(null);
+
+        assertEquals(List.of(new BlueprintBounds("john", "house", new BoundingBox(-1, 0, 8, 1))),
+                persistence.findIntersecting(new BoundingBox(-100, -100, 100, 100)));
+        assertEquals(List.of(2, 4, 3, 9), jdbc.queryForList(
+                "select min_x, min_y, max_x, max_y from blueprints where name = 'garden'").get(0).values().stream()
+                .map(v -> ((Number) v).intValue()).toList());
+        assertEquals(0, persistence.getVersion("john", "house").version());
+    }
+
+    @Test
+    void addPoints_concatenatesWholeBatch() throws Exception {
+        persistence.saveBlueprint(new Blueprint("john", "house", List.of(new Point(0, 0))));
+        List<Point> batch = IntStream.range(1, 1000).mapToObj(i -> new Point(i, -i)).toList();
+
+        persistence.addPoints("john", "house", batch);
+        em.clear();
+
+        List<Point> points = persistence.getBlueprint("john", "house").getPoints();
+        assertEquals(1000, points.size());
+        assertEquals(batch, points.subList(1, 1000));
+    }
+
+    @Test
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
+    void addPoint_concurrentAppendsAreAllKeptInOrder() throws Exception {
+        persistence.saveBlueprint(new Blueprint("concurrent", "packed", List.of(new Point(-1, -1))));
+        try {
+            PostgresBlueprintPersistenceTest.appendConcurrently(persistence, "concurrent", "packed", 8, 25);
+
+            PostgresBlueprintPersistenceTest.assertAllAppendedInOrder(
+                    persistence.getBlueprint("concurrent", "packed").getPoints(), 1, 8, 25);
+        } finally {
+            repo.findByAuthorAndName("concurrent", "packed").ifPresent(repo::delete);
+        }
+    }
+}
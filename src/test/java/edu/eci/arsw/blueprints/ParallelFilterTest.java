@@ -0,0 +1,83 @@
+package edu.eci.arsw.blueprints;
+
+import edu.eci.arsw.blueprints.filters.LevelOfDetailFilter;
+import edu.eci.arsw.blueprints.filters.ParallelFilter;
+import edu.eci.arsw.blueprints.filters.RangeFilter;
+import edu.eci.arsw.blueprints.filters.RedundancyFilter;
+import edu.eci.arsw.blueprints.filters.UndersamplingFilter;
+import edu.eci.arsw.blueprints.model.Blueprint;
+import edu.eci.arsw.blueprints.model.Point;
+import edu.eci.arsw.blueprints.model.PointBuffer;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.ForkJoinPool;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ParallelFilterTest {
+
+    private final ForkJoinPool pool = new ForkJoinPool(4);
+
+    @AfterEach
+    void tearDown() {
+        pool.shutdownNow();
+    }
+
+    @Test
+    void redundancy_matchesSequentialAcrossChunkBoundaries() {
+        // Two distinct values make duplicate runs straddle almost every chunk boundary
+        Blueprint bp = randomBlueprint(100_003, 2);
+        RedundancyFilter filter = new RedundancyFilter();
+
+        assertEquals(filter.apply(bp).getPoints(), new ParallelFilter(filter, 1, pool).apply(bp).getPoints());
+    }
+
+    @Test
+    void undersampling_keepsGlobalIndexParityInEveryChunk() {
+        Blueprint bp = randomBlueprint(100_003, 1000);
+
+        for (int step : new int[]{2, 3, 7}) {
+            RangeFilter filter = new UndersamplingFilter(step);
+            assertEquals(filter.apply(bp).getPoints(), new ParallelFilter(filter, 1, pool).apply(bp).getPoints(),
+                    "step " + step);
+        }
+    }
+
+    @Test
+    void levelOfDetail_keepsGlobalIndexMultiplesInEveryChunk() {
+        Blueprint bp = randomBlueprint(100_003, 1000);
+
+        for (int level : new int[]{1, 3, 20}) {
+            RangeFilter filter = new LevelOfDetailFilter(level);
+            assertEquals(filter.apply(bp).getPoints(), new ParallelFilter(filter, 1, pool).apply(bp).getPoints(),
+                    "lod " + level);
+        }
+    }
+
+    @Test
+    void belowThreshold_delegatesToSequentialFilter() {
+        Blueprint bp = new Blueprint("author", "bp", List.of(new Point(1, 1), new Point(2, 2)));
+
+        assertSame(bp, new ParallelFilter(new UndersamplingFilter(), 1_000, pool).apply(bp));
+    }
+
+    @Test
+    void withArgument_staysParallel() {
+        Blueprint bp = randomBlueprint(50_000, 1000);
+
+        var configured = new ParallelFilter(new UndersamplingFilter(), 1, pool).withArgument("5");
+
+        assertInstanceOf(ParallelFilter.class, configured);
+        assertEquals(10_000, configured.apply(bp).getPoints().size());
+    }
+
+    private static Blueprint randomBlueprint(int points, int range) {
+        Random random = new Random(11);
+        PointBuffer.Builder pts = PointBuffer.builder(points);
+        for (int i = 0; i < points; i++) pts.add(random.nextInt(range), random.nextInt(2));
+        return new Blueprint("author", "bp", pts.build());
+    }
+}
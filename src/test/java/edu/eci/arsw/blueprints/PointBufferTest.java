@@ -0,0 +1,106 @@
+package edu.eci.arsw.blueprints;
+
+import edu.eci.arsw.blueprints.model.Point;
+import edu.eci.arsw.blueprints.model.PointBuffer;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class PointBufferTest {
+
+    @Test
+    void add_growsBeyondInitialCapacity() {
+        PointBuffer buf = new PointBuffer(1);
+        for (int i = 0; i < 100; i++) buf.add(i, -i);
+
+        assertEquals(100, buf.size());
+        assertEquals(99, buf.x(99));
+        assertEquals(-99, buf.y(99));
+    }
+
+    @Test
+    void asList_isReadOnlyViewEqualToPointList() {
+        List<Point> pts = List.of(new Point(1, 2), new Point(3, 4));
+        PointBuffer buf = PointBuffer.of(pts);
+
+        assertEquals(pts, buf.asList());
+        assertThrows(UnsupportedOperationException.class, () -> buf.asList().add(new Point(5, 6)));
+    }
+
+    @Test
+    void asList_reflectsLaterAppends() {
+        PointBuffer buf = new PointBuffer();
+        List<Point> view = buf.asList();
+
+        buf.add(7, 7);
+
+        assertEquals(List.of(new Point(7, 7)), view);
+    }
+
+    @Test
+    void x_outOfRangeIndexThrows() {
+        PointBuffer buf = PointBuffer.of(List.of(new Point(1, 1)));
+
+        assertThrows(IndexOutOfBoundsException.class, () -> buf.x(1));
+    }
+
+    @Test
+    void addAll_andCopyPreserveOrderAndEquality() {
+        PointBuffer a = PointBuffer.of(List.of(new Point(1, 1)));
+        PointBuffer b = PointBuffer.of(List.of(new Point(2, 2), new Point(3, 3)));
+
+        a.addAll(b);
+
+        assertEquals(PointBuffer.of(List.of(new Point(1, 1), new Point(2, 2), new Point(3, 3))), a);
+        assertEquals(a, a.copy());
+        assertEquals(a.hashCode(), a.copy().hashCode());
+    }
+
+    @Test
+    void snapshot_isFixedAndIndependentOfLaterWrites() {
+        PointBuffer buf = PointBuffer.of(List.of(new Point(1, 1)));
+        PointBuffer snap = buf.snapshot();
+
+        buf.add(2, 2);
+        snap.add(9, 9);
+
+        assertEquals(PointBuffer.of(List.of(new Point(1, 1), new Point(2, 2))), buf);
+        assertEquals(PointBuffer.of(List.of(new Point(1, 1), new Point(9, 9))), snap);
+    }
+
+    @Test
+    void builder_buildsBufferEqualToAppendedPoints() {
+        PointBuffer.Builder builder = PointBuffer.builder(1);
+        builder.add(1, 1);
+        builder.addAll(PointBuffer.of(List.of(new Point(2, 2), new Point(3, 3))));
+
+        PointBuffer built = builder.build();
+        built.add(4, 4);
+
+        assertEquals(PointBuffer.of(List.of(new Point(1, 1), new Point(2, 2), new Point(3, 3), new Point(4, 4))), built);
+    }
+
+    @Test
+    void x_lastPointIsReadableWhileWriterGrowsTheArray() throws Exception {
+        PointBuffer buf = new PointBuffer(1);
+        AtomicReference<Throwable> failure = new AtomicReference<>();
+        Thread reader = Thread.ofPlatform().start(() -> {
+            try {
+                while (buf.size() < 200_000) {
+                    int n = buf.size();
+                    if (n > 0) assertEquals(n - 1, buf.x(n - 1));
+                }
+            } catch (Throwable t) {
+                failure.set(t);
+            }
+        });
+        // Growing from capacity 1 replaces the array again and again while the reader indexes the newest point
+        for (int i = 0; i < 200_000; i++) buf.add(i, i);
+        reader.join();
+
+        assertNull(failure.get());
+    }
+}
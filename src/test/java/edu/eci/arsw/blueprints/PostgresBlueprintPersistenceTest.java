@@ -0,0 +1,329 @@
+package edu.eci.arsw.blueprints;
+
+import edu.eci.arsw.blueprints.model.Blueprint;
+import edu.eci.arsw.blueprints.model.BlueprintBounds;
+import edu.eci.arsw.blueprints.model.BlueprintKey;
+import edu.eci.arsw.blueprints.model.BoundingBox;
+import edu.eci.arsw.blueprints.model.Point;
+import edu.eci.arsw.blueprints.model.PointBuffer;
+import edu.eci.arsw.blueprints.model.PointsDelta;
+import edu.eci.arsw.blueprints.persistence.BlueprintEntity;
+import edu.eci.arsw.blueprints.persistence.BlueprintNotFoundException;
+import edu.eci.arsw.blueprints.persistence.BlueprintPersistence;
+import edu.eci.arsw.blueprints.persistence.PersistentBlueprintRepository;
+import edu.eci.arsw.blueprints.persistence.PostgresBlueprintPersistence;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
+import org.springframework.context.annotation.Import;
+import org.springframework.dao.OptimisticLockingFailureException;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.IntStream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@DataJpaTest
+@ActiveProfiles("h2")
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+@Import(PostgresBlueprintPersistence.class)
+class PostgresBlueprintPersistenceTest {
+
+    @Autowired
+    private PostgresBlueprintPersistence persistence;
+
+    @Autowired
+    private TestEntityManager em;
+
+    @Autowired
+    private EntityManagerFactory emf;
+
+    @Autowired
+    private PersistentBlueprintRepository repo;
+
+    private Statistics stats() {
+        return emf.unwrap(SessionFactory.class).getStatistics();
+    }
+
+    private void givenBlueprints(int count) {
+        for (int i = 0; i < count; i++) {
+            em.persist(new BlueprintEntity(new Blueprint("author" + (i % 3), "bp" + i,
+                    List.of(new Point(i, i), new Point(i + 1, i + 1)))));
+        }
+        em.flush();
+        em.clear();
+        stats().clear();
+    }
+
+    private long statementsFor(Runnable listing) {
+        listing.run();
+        return stats().getPrepareStatementCount();
+    }
+
+    private static void touchPoints(Iterable<Blueprint> blueprints) {
+        blueprints.forEach(bp -> assertEquals(2, bp.getPoints().size()));
+    }
+
+    @Test
+    void getAllBlueprints_usesOneQueryRegardlessOfCount() {
+        givenBlueprints(40);
+
+        long statements = statementsFor(() -> touchPoints(persistence.getAllBlueprints()));
+
+        assertEquals(1, statements);
+    }
+
+    @Test
+    void getBlueprintsByAuthor_usesOneQueryRegardlessOfCount() {
+        givenBlueprints(40);
+
+        long statements = statementsFor(() -> {
+            try {
+                touchPoints(persistence.getBlueprintsByAuthor("author1"));
+            } catch (BlueprintNotFoundException e) {
+                fail(e);
+            }
+        });
+
+        assertEquals(1, statements);
+    }
+
+    @Test
+    void getBlueprintsPage_batchLoadsPointsOfTheWholePage() {
+        givenBlueprints(60);
+
+        long statements = statementsFor(() -> touchPoints(persistence.getBlueprintsPage(null, 50)));
+
+        assertEquals(2, statements);
+    }
+
+    @Test
+    void forEachBlueprint_loadsPointsPerChunkInsteadOfPerRow() {
+        givenBlueprints(BlueprintEntity.POINTS_BATCH_SIZE + 10);
+        List<Blueprint> seen = new ArrayList<>();
+
+        long statements = statementsFor(() -> persistence.forEachBlueprint(bp -> {
+            assertEquals(2, bp.getPoints().size());
+            seen.add(bp);
+        }));
+
+        assertEquals(BlueprintEntity.POINTS_BATCH_SIZE + 10, seen.size());
+        assertEquals(3, statements);
+    }
+
+    @Test
+    void getBlueprintsPage_resumesAfterCursorInAuthorNameOrder() {
+        em.persist(new BlueprintEntity(new Blueprint("b", "x", List.of())));
+        em.persist(new BlueprintEntity(new Blueprint("a", "z", List.of())));
+        em.persist(new BlueprintEntity(new Blueprint("a", "y", List.of())));
+        em.flush();
+        em.clear();
+
+        List<Blueprint> page = persistence.getBlueprintsPage(new BlueprintKey("a", "y"), 5);
+
+        assertEquals(List.of(new BlueprintKey("a", "z"), new BlueprintKey("b", "x")),
+                page.stream().map(BlueprintKey::of).toList());
+        assertTrue(persistence.getBlueprintsPage(new BlueprintKey("b", "x"), 5).isEmpty());
+    }
+
+    @Test
+    void addPoint_appendsWithSingleInsertWithoutLoadingTheBlueprint() throws Exception {
+        em.persist(new BlueprintEntity(new Blueprint("john", "house", List.of(new Point(0, 0)))));
+        em.flush();
+        em.clear();
+        stats().clear();
+
+        persistence.addPoint("john", "house", 5, 5);
+
+        assertEquals(0, stats().getEntityLoadCount());
+        assertEquals(0, stats().getCollectionLoadCount());
+        assertEquals(2, stats().getPrepareStatementCount());
+        em.clear();
+        assertEquals(List.of(new Point(0, 0), new Point(5, 5)), persistence.getBlueprint("john", "house").getPoints());
+        assertThrows(BlueprintNotFoundException.class, () -> persistence.addPoint("ghost", "x", 0, 0));
+    }
+
+    @Test
+    void addPoints_batchAppendsAfterExistingPoints() throws Exception {
+        persistence.saveBlueprint(new Blueprint("john", "house", List.of(new Point(0, 0))));
+        List<Point> batch = IntStream.range(1, 1200).mapToObj(i -> new Point(i, i)).toList();
+
+        persistence.addPoints("john", "house", batch);
+        persistence.addPoint("john", "house", -1, -1);
+        em.clear();
+
+        List<Point> points = persistence.getBlueprint("john", "house").getPoints();
+        assertEquals(1201, points.size());
+        assertEquals(batch, points.subList(1, 1200));
+        assertEquals(new Point(-1, -1), points.get(1200));
+        assertThrows(BlueprintNotFoundException.class, () -> persistence.addPoints("ghost", "x", batch));
+    }
+
+    @Test
+    void addPointBatches_writesAllBatchesAtOnceAndBumpsTheVersionPerBatch() throws Exception {
+        persistence.saveBlueprint(new Blueprint("john", "house", List.of(new Point(0, 0))));
+        em.flush();
+
+        persistence.addPointBatches("john", "house", List.of(
+                PointBuffer.of(List.of(new Point(1, 1), new Point(2, 2))), new PointBuffer(),
+                PointBuffer.of(List.of(new Point(-3, 30)))));
+        em.clear();
+
+        assertEquals(List.of(new Point(0, 0), new Point(1, 1), new Point(2, 2), new Point(-3, 30)),
+                persistence.getBlueprint("john", "house").getPoints());
+        assertEquals(2, persistence.getVersion("john", "house").version());
+        assertEquals(List.of(new BlueprintBounds("john", "house", new BoundingBox(-3, 0, 2, 30))),
+                persistence.findIntersecting(new BoundingBox(-5, 25, -1, 35)));
+        assertThrows(BlueprintNotFoundException.class,
+                () -> persistence.addPointBatches("ghost", "x", List.of(new PointBuffer())));
+    }
+
+    @Test
+    void getVersion_isReadWithoutPointsAndBumpedByEveryAppend() throws Exception {
+        persistence.saveBlueprint(new Blueprint("john", "house", List.of(new Point(0, 0))));
+        em.flush();
+        em.clear();
+        stats().clear();
+
+        assertEquals(0, persistence.getVersion("john", "house").version());
+        assertNotNull(persistence.getVersion("john", "house").updatedAt());
+        assertEquals(0, stats().getEntityLoadCount());
+        assertEquals(0, stats().getCollectionLoadCount());
+
+        persistence.addPoint("john", "house", 1, 1);
+        persistence.addPoints("john", "house", List.of(new Point(2, 2), new Point(3, 3)));
+        persistence.addPoints("john", "house", List.of());
+        assertEquals(2, persistence.getVersion("john", "house").version());
+        assertThrows(BlueprintNotFoundException.class, () -> persistence.getVersion("ghost", "x"));
+    }
+
+    @Test
+    void getPointsSince_readsOnlyTheTailInOneStatement() throws Exception {
+        persistence.saveBlueprint(new Blueprint("john", "house", List.of(new Point(0, 0), new Point(1, 1))));
+        persistence.addPoints("john", "house", List.of(new Point(2, 2), new Point(3, 3)));
+        em.flush();
+        em.clear();
+        stats().clear();
+
+        PointsDelta delta = persistence.getPointsSince("john", "house", 2);
+
+        assertEquals(List.of(new Point(2, 2), new Point(3, 3)), delta.points());
+        assertEquals(4, delta.total());
+        assertEquals(1, delta.version());
+        assertEquals(0, stats().getEntityLoadCount());
+        assertEquals(0, stats().getCollectionLoadCount());
+        PointsDelta caughtUp = persistence.getPointsSince("john", "house", 4);
+        assertEquals(List.of(), caughtUp.points());
+        assertEquals(4, caughtUp.total());
+        assertThrows(BlueprintNotFoundException.class, () -> persistence.getPointsSince("ghost", "x", 0));
+    }
+
+    @Test
+    void findIntersecting_usesStoredBoundsWidenedByAppends() throws Exception {
+        persistence.saveBlueprint(new Blueprint("john", "house", List.of(new Point(0, 0), new Point(10, 10))));
+        persistence.saveBlueprint(new Blueprint("jane", "garden", List.of(new Point(50, 50))));
+        persistence.saveBlueprint(new Blueprint("jane", "empty", List.of()));
+        persistence.addPoint("john", "house", 100, -5);
+        persistence.addPoints("jane", "garden", List.of(new Point(60, 40), new Point(55, 70)));
+        em.flush();
+        em.clear();
+        stats().clear();
+
+        List<BlueprintBounds> found = persistence.findIntersecting(new BoundingBox(45, -10, 200, 45));
+
+        assertEquals(List.of(new BlueprintBounds("jane", "garden", new BoundingBox(50, 40, 60, 70)),
+                new BlueprintBounds("john", "house", new BoundingBox(0, -5, 100, 10))), found);
+        assertEquals(0, stats().getEntityLoadCount());
+        assertEquals(0, stats().getCollectionLoadCount());
+        assertEquals(List.of(), persistence.findIntersecting(new BoundingBox(101, 0, 200, 10)));
+    }
+
+    @Test
+    void getPointsInside_returnsMatchingPointsInOrder() throws Exception {
+        persistence.saveBlueprint(new Blueprint("john", "house", List.of(new Point(0, 0), new Point(10, 10), new Point(5, 5))));
+        persistence.addPoints("john", "house", List.of(new Point(3, 8), new Point(20, 20)));
+        persistence.saveBlueprint(new Blueprint("jane", "empty", List.of()));
+
+        assertEquals(List.of(new Point(10, 10), new Point(5, 5), new Point(3, 8)),
+                persistence.getPointsInside("john", "house", new BoundingBox(3, 5, 10, 10)));
+        assertEquals(List.of(), persistence.getPointsInside("john", "house", new BoundingBox(30, 30, 40, 40)));
+        assertEquals(List.of(), persistence.getPointsInside("jane", "empty", new BoundingBox(0, 0, 1, 1)));
+        assertThrows(BlueprintNotFoundException.class,
+                () -> persistence.getPointsInside("ghost", "x", new BoundingBox(0, 0, 1, 1)));
+    }
+
+    @Test
+    void addPoints_withExpectedVersionFailsOnceAnotherWriteMovedIt() throws Exception {
+        persistence.saveBlueprint(new Blueprint("john", "house", List.of(new Point(0, 0))));
+
+        persistence.addPoints("john", "house", List.of(new Point(1, 1)), 0);
+        assertThrows(OptimisticLockingFailureException.class,
+                () -> persistence.addPoints("john", "house", List.of(new Point(2, 2)), 0));
+        assertThrows(OptimisticLockingFailureException.class,
+                () -> persistence.addPoints("john", "house", List.of(), 0));
+        assertThrows(BlueprintNotFoundException.class,
+                () -> persistence.addPoints("ghost", "x", List.of(new Point(2, 2)), 0));
+        em.clear();
+
+        assertEquals(List.of(new Point(0, 0), new Point(1, 1)), persistence.getBlueprint("john", "house").getPoints());
+        assertEquals(1, persistence.getVersion("john", "house").version());
+    }
+
+    @Test
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
+    void addPoint_concurrentAppendsAreAllKeptInOrder() throws Exception {
+        persistence.saveBlueprint(new Blueprint("concurrent", "shared", List.of(new Point(-1, -1))));
+        try {
+            appendConcurrently(persistence, "concurrent", "shared", 8, 25);
+
+            assertAllAppendedInOrder(persistence.getBlueprint("concurrent", "shared").getPoints(), 1, 8, 25);
+        } finally {
+            repo.findByAuthorAndName("concurrent", "shared").ifPresent(repo::delete);
+        }
+    }
+
+    /**
+     * Varios hilos anexan puntos al mismo blueprint, cada uno en su propia transacción.
+     * El punto (t, i) es el i-ésimo anexado por el hilo t.
+     */
+    static void appendConcurrently(BlueprintPersistence persistence, String author, String name,
+                                   int threads, int perThread) throws Exception {
+        ExecutorService pool = Executors.newFixedThreadPool(threads);
+        CountDownLatch start = new CountDownLatch(1);
+        List<Future<?>> done = new ArrayList<>();
+        for (int t = 0; t < threads; t++) {
+            int thread = t;
+            done.add(pool.submit(() -> {
+                start.await();
+                for (int i = 0; i < perThread; i++) persistence.addPoint(author, name, thread, i);
+                return null;
+            }));
+        }
+        start.countDown();
+        for (Future<?> f : done) f.get(60, TimeUnit.SECONDS);
+        pool.shutdown();
+    }
+
+    /** Todos los puntos están presentes y los de cada hilo aparecen en el orden en que se anexaron. */
+    static void assertAllAppendedInOrder(List<Point> points, int initial, int threads, int perThread) {
+        assertEquals(initial + threads * perThread, points.size());
+        int[] next = new int[threads];
+        for (Point p : points.subList(initial, points.size())) {
+            assertEquals(next[p.x()]++, p.y(), "out of order append from thread " + p.x());
+        }
+    }
+}
@@ -0,0 +1,157 @@
+package edu.eci.arsw.blueprints;
+
+import edu.eci.arsw.blueprints.model.Blueprint;
+import edu.eci.arsw.blueprints.model.BlueprintKey;
+import edu.eci.arsw.blueprints.model.Point;
+import edu.eci.arsw.blueprints.persistence.BlueprintNotFoundException;
+import edu.eci.arsw.blueprints.persistence.BlueprintPersistenceException;
+import edu.eci.arsw.blueprints.persistence.ReactiveBlueprintPersistence;
+import io.r2dbc.spi.Connection;
+import io.r2dbc.spi.ConnectionFactory;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.reactive.AutoConfigureWebTestClient;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.MediaType;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.web.reactive.server.WebTestClient;
+import reactor.core.publisher.Flux;
+import reactor.test.StepVerifier;
+
+import java.util.List;
+import java.util.stream.IntStream;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+/** La API reactiva completa sobre H2 en memoria, sin JPA: el esquema lo crea la propia persistencia R2DBC. */
+@SpringBootTest(properties = {
+        "spring.r2dbc.url=r2dbc:h2:mem:///reactivedb;MODE=PostgreSQL;DATABASE_TO_LOWER=TRUE;DB_CLOSE_DELAY=-1;LOCK_TIMEOUT=10000",
+        "spring.r2dbc.username=sa",
+        "spring.r2dbc.password="
+})
+@ActiveProfiles({"h2", "reactive"})
+@AutoConfigureWebTestClient
+class R2dbcBlueprintPersistenceTest {
+
+    @Autowired
+    private ReactiveBlueprintPersistence persistence;
+
+    @Autowired
+    private ConnectionFactory connections;
+
+    @Autowired
+    private WebTestClient client;
+
+    @BeforeEach
+    void clean() {
+        Flux.usingWhen(connections.create(),
+                conn -> Flux.just("delete from blueprint_points", "delete from blueprints")
+                        .concatMap(sql -> Flux.from(conn.createStatement(sql).execute())
+                                .flatMap(result -> result.getRowsUpdated())),
+                Connection::close).blockLast();
+    }
+
+    private void given(Blueprint... blueprints) {
+        Flux.fromArray(blueprints).concatMap(persistence::saveBlueprint).blockLast();
+    }
+
+    @Test
+    void saveBlueprint_thenGetReturnsPointsInOrder() {
+        given(new Blueprint("john", "house", List.of(new Point(3, 1), new Point(1, 2), new Point(2, 3))));
+
+        StepVerifier.create(persistence.getBlueprint("john", "house"))
+                .assertNext(bp -> assertEquals(List.of(new Point(3, 1), new Point(1, 2), new Point(2, 3)), bp.getPoints()))
+                .verifyComplete();
+    }
+
+    @Test
+    void saveBlueprint_failsOnDuplicateKey() {
+        given(new Blueprint("john", "house", List.of()));
+
+        StepVerifier.create(persistence.saveBlueprint(new Blueprint("john", "house", List.of(new Point(1, 1)))))
+                .expectError(BlueprintPersistenceException.class)
+                .verify();
+    }
+
+    @Test
+    void getBlueprint_andByAuthor_failWithNotFound() {
+        StepVerifier.create(persistence.getBlueprint("ghost", "x")).expectError(BlueprintNotFoundException.class).verify();
+        StepVerifier.create(persistence.getBlueprintsByAuthor("ghost")).expectError(BlueprintNotFoundException.class).verify();
+    }
+
+    @Test
+    void getAllBlueprints_streamsInKeyOrderAsRequested() {
+        given(new Blueprint("b", "two", List.of(new Point(1, 1))),
+                new Blueprint("a", "empty", List.of()),
+                new Blueprint("b", "one", List.of(new Point(2, 2), new Point(3, 3))));
+
+        StepVerifier.create(persistence.getAllBlueprints().map(BlueprintKey::of), 1)
+                .expectNext(new BlueprintKey("a", "empty"))
+                .thenRequest(2)
+                .expectNext(new BlueprintKey("b", "one"), new BlueprintKey("b", "two"))
+                .verifyComplete();
+        StepVerifier.create(persistence.getBlueprintsByAuthor("b").map(bp -> bp.getPoints().size()))
+                .expectNext(2, 1)
+                .verifyComplete();
+    }
+
+    @Test
+    void getBlueprintsPage_resumesAfterKey() {
+        given(new Blueprint("a", "x", List.of(new Point(0, 0))),
+                new Blueprint("b", "x", List.of(new Point(0, 0))),
+                new Blueprint("b", "y", List.of(new Point(0, 0))));
+
+        StepVerifier.create(persistence.getBlueprintsPage(null, 2).map(BlueprintKey::of))
+                .expectNext(new BlueprintKey("a", "x"), new BlueprintKey("b", "x"))
+                .verifyComplete();
+        StepVerifier.create(persistence.getBlueprintsPage(new BlueprintKey("b", "x"), 2).map(BlueprintKey::of))
+                .expectNext(new BlueprintKey("b", "y"))
+                .verifyComplete();
+    }
+
+    @Test
+    void addPoint_concurrentAppendsGetDistinctIndexes() {
+        given(new Blueprint("john", "house", List.of(new Point(0, 0))));
+
+        Flux.range(1, 20).flatMap(i -> persistence.addPoint("john", "house", i, i)).blockLast();
+
+        List<Point> points = persistence.getBlueprint("john", "house").block().getPoints();
+        assertEquals(21, points.size());
+        assertEquals(IntStream.rangeClosed(0, 20).boxed().toList(),
+                points.stream().map(Point::x).sorted().toList());
+    }
+
+    @Test
+    void addPoints_appendsBatchAfterExistingPoints() {
+        given(new Blueprint("john", "house", List.of(new Point(0, 0))));
+
+        persistence.addPoints("john", "house", List.of(new Point(1, 1), new Point(2, 2))).block();
+
+        assertEquals(List.of(new Point(0, 0), new Point(1, 1), new Point(2, 2)),
+                persistence.getBlueprint("john", "house").block().getPoints());
+        StepVerifier.create(persistence.addPoints("ghost", "x", List.of(new Point(1, 1))))
+                .expectError(BlueprintNotFoundException.class)
+                .verify();
+    }
+
+    @Test
+    void api_createsAppendsAndFiltersOverR2dbc() {
+        client.post().uri("/api/v1/blueprints").contentType(MediaType.APPLICATION_JSON)
+                .bodyValue("{\"author\":\"john\",\"name\":\"house\",\"points\":[{\"x\":1,\"y\":1},{\"x\":1,\"y\":1}]}")
+                .exchange()
+                .expectStatus().isCreated();
+        client.put().uri("/api/v1/blueprints/john/house/points").contentType(MediaType.APPLICATION_JSON)
+                .bodyValue("{\"x\":2,\"y\":2}")
+                .exchange()
+                .expectStatus().isAccepted();
+
+        client.get().uri("/api/v1/blueprints/john/house?filter=redundancy").exchange()
+                .expectStatus().isOk()
+                .expectBody().jsonPath("$.data.points.length()").isEqualTo(2);
+        client.get().uri("/api/v1/blueprints/john/house?filter=identity").exchange()
+                .expectBody().jsonPath("$.data.points.length()").isEqualTo(3);
+        client.get().uri("/api/v1/blueprints/ghost/house").exchange()
+                .expectStatus().isNotFound();
+    }
+}
@@ -0,0 +1,223 @@
+package edu.eci.arsw.blueprints;
+
+import com.jayway.jsonpath.JsonPath;
+import edu.eci.arsw.blueprints.controllers.ReactiveBlueprintsAPIController;
+import edu.eci.arsw.blueprints.model.Blueprint;
+import edu.eci.arsw.blueprints.model.BlueprintKey;
+import edu.eci.arsw.blueprints.model.Point;
+import edu.eci.arsw.blueprints.persistence.BlueprintNotFoundException;
+import edu.eci.arsw.blueprints.persistence.BlueprintPersistenceException;
+import edu.eci.arsw.blueprints.services.BlueprintPage;
+import edu.eci.arsw.blueprints.services.ReactiveBlueprintsServices;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.reactive.WebFluxTest;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.http.MediaType;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.web.reactive.server.WebTestClient;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+@WebFluxTest(ReactiveBlueprintsAPIController.class)
+@ActiveProfiles("reactive")
+class ReactiveBlueprintsAPIControllerTest {
+
+    private static final MediaType NDJSON = MediaType.parseMediaType("application/x-ndjson");
+
+    @Autowired
+    private WebTestClient client;
+
+    @MockBean
+    private ReactiveBlueprintsServices services;
+
+    @Test
+    void getAll_returns200WithBlueprints() {
+        Blueprint bp = new Blueprint("john", "house", List.of(new Point(0, 0)));
+        when(services.getAllBlueprints(null)).thenReturn(Flux.just(bp));
+
+        client.get().uri("/api/v1/blueprints").accept(MediaType.APPLICATION_JSON).exchange()
+                .expectStatus().isOk()
+                .expectBody().jsonPath("$.code").isEqualTo(200)
+                .jsonPath("$.data[0].name").isEqualTo("house");
+    }
+
+    @Test
+    void getAll_nextCursorResumesAfterLastKey() {
+        when(services.getBlueprintsPage(null, 2, null))
+                .thenReturn(Mono.just(new BlueprintPage(List.of(), new BlueprintKey("john", "house"))));
+        when(services.getBlueprintsPage(new BlueprintKey("john", "house"), 2, null))
+                .thenReturn(Mono.just(new BlueprintPage(List.of(), null)));
+
+        String first = new String(client.get().uri("/api/v1/blueprints?limit=2").accept(MediaType.APPLICATION_JSON)
+                .exchange().expectBody().returnResult().getResponseBody());
+        String cursor = JsonPath.read(first, "$.next");
+
+        client.get().uri(b -> b.path("/api/v1/blueprints").queryParam("limit", 2).queryParam("cursor", cursor).build())
+                .accept(MediaType.APPLICATION_JSON).exchange()
+                .expectStatus().isOk()
+                .expectBody().jsonPath("$.next").doesNotExist();
+    }
+
+    @Test
+    void getAll_returns400OnMalformedCursor() {
+        client.get().uri("/api/v1/blueprints?cursor=bm90LWEtY3Vyc29y").accept(MediaType.APPLICATION_JSON).exchange()
+                .expectStatus().isBadRequest()
+                .expectBody().jsonPath("$.code").isEqualTo(400);
+    }
+
+    @Test
+    void streamAll_writesOneBlueprintPerLine() {
+        when(services.getAllBlueprints(null)).thenReturn(Flux.just(
+                new Blueprint("john", "house", List.of(new Point(0, 0))),
+                new Blueprint("jane", "garden", List.of())));
+
+        String body = client.get().uri("/api/v1/blueprints").accept(NDJSON).exchange()
+                .expectStatus().isOk()
+                .expectHeader().contentTypeCompatibleWith(NDJSON)
+                .returnResult(String.class).getResponseBody()
+                .collectList().map(lines -> String.join("\n", lines)).block();
+        String[] lines = body.split("\n");
+        assertEquals(2, lines.length);
+        assertTrue(lines[0].contains("\"house\""));
+    }
+
+    @Test
+    void streamAll_returns400BeforeStreamingOnUnknownFilter() {
+        when(services.getAllBlueprints("blur")).thenReturn(Flux.error(new IllegalArgumentException("Unknown filter: blur")));
+
+        client.get().uri("/api/v1/blueprints?filter=blur").accept(NDJSON).exchange()
+                .expectStatus().isBadRequest()
+                .expectHeader().contentType(MediaType.APPLICATION_JSON)
+                .expectBody().jsonPath("$.message").isEqualTo("Unknown filter: blur");
+    }
+
+    @Test
+    void byAuthor_returns404WhenNotFound() {
+        when(services.getBlueprintsByAuthor("ghost", null))
+                .thenReturn(Flux.error(new BlueprintNotFoundException("No blueprints for author: ghost")));
+
+        client.get().uri("/api/v1/blueprints/ghost").exchange()
+                .expectStatus().isNotFound()
+                .expectBody().jsonPath("$.code").isEqualTo(404);
+    }
+
+    @Test
+    void byAuthor_appliesRequestedFilterAndRejectsUnknownOnes() {
+        when(services.getBlueprintsByAuthor("john", "undersampling:3")).thenReturn(Flux.empty());
+        when(services.getBlueprintsByAuthor("john", "blur"))
+                .thenReturn(Flux.error(new IllegalArgumentException("Unknown filter: blur")));
+
+        client.get().uri("/api/v1/blueprints/john?filter=undersampling:3").exchange()
+                .expectStatus().isOk();
+        client.get().uri("/api/v1/blueprints/john?filter=blur").exchange()
+                .expectStatus().isBadRequest()
+                .expectBody().jsonPath("$.message").isEqualTo("Unknown filter: blur");
+    }
+
+    @Test
+    void byAuthorAndName_appliesRequestedFilterChain() {
+        Blueprint bp = new Blueprint("john", "house", List.of(new Point(0, 0)));
+        when(services.getBlueprint("john", "house", "redundancy,undersampling:3")).thenReturn(Mono.just(bp));
+
+        client.get().uri("/api/v1/blueprints/john/house?filter={f}", "redundancy,undersampling:3").exchange()
+                .expectStatus().isOk()
+                .expectBody().jsonPath("$.data.points.length()").isEqualTo(1);
+    }
+
+    @Test
+    void add_returns201WhenCreated() {
+        when(services.addNewBlueprint(any())).thenReturn(Mono.empty());
+
+        client.post().uri("/api/v1/blueprints").contentType(MediaType.APPLICATION_JSON)
+                .bodyValue("{\"author\":\"alice\",\"name\":\"lab\",\"points\":[{\"x\":1,\"y\":2}]}")
+                .exchange()
+                .expectStatus().isCreated()
+                .expectBody().jsonPath("$.code").isEqualTo(201);
+    }
+
+    @Test
+    void add_returns403WhenDuplicate() {
+        when(services.addNewBlueprint(any()))
+                .thenReturn(Mono.error(new BlueprintPersistenceException("Blueprint already exists")));
+
+        client.post().uri("/api/v1/blueprints").contentType(MediaType.APPLICATION_JSON)
+                .bodyValue("{\"author\":\"alice\",\"name\":\"lab\",\"points\":[{\"x\":1,\"y\":2}]}")
+                .exchange()
+                .expectStatus().isForbidden()
+                .expectBody().jsonPath("$.code").isEqualTo(403);
+    }
+
+    @Test
+    void add_returns400WhenFieldsAreBlank() {
+        client.post().uri("/api/v1/blueprints").contentType(MediaType.APPLICATION_JSON)
+                .bodyValue("{\"author\":\"\",\"name\":\"lab\",\"points\":[]}")
+                .exchange()
+                .expectStatus().isBadRequest()
+                .expectBody().jsonPath("$.message").value(m -> assertTrue(((String) m).startsWith("Validation error")));
+        verify(services, never()).addNewBlueprint(any());
+    }
+
+    @Test
+    void addPoint_returns404WhenBlueprintMissing() {
+        when(services.addPoint("ghost", "x", 1, 2))
+                .thenReturn(Mono.error(new BlueprintNotFoundException("Blueprint not found: ghost/x")));
+
+        client.put().uri("/api/v1/blueprints/ghost/x/points").contentType(MediaType.APPLICATION_JSON)
+                .bodyValue("{\"x\":1,\"y\":2}")
+                .exchange()
+                .expectStatus().isNotFound()
+                .expectBody().jsonPath("$.code").isEqualTo(404);
+    }
+
+    @Test
+    void addPoints_appendsJsonArrayInOneBatch() {
+        when(services.addPoints(eq("john"), eq("house"), any())).thenReturn(Mono.empty());
+
+        client.post().uri("/api/v1/blueprints/john/house/points").contentType(MediaType.APPLICATION_JSON)
+                .bodyValue("[{\"x\":1,\"y\":2},{\"x\":3,\"y\":4}]")
+                .exchange()
+                .expectStatus().isAccepted()
+                .expectBody().jsonPath("$.code").isEqualTo(202);
+
+        verify(services).addPoints("john", "house", List.of(new Point(1, 2), new Point(3, 4)));
+    }
+
+    @Test
+    void streamPoints_appendsNdjsonLinesInOrder() {
+        List<List<Point>> batches = new ArrayList<>();
+        when(services.addPoints(eq("john"), eq("house"), any())).thenAnswer(inv -> {
+            batches.add(List.copyOf(inv.<List<Point>>getArgument(2)));
+            return Mono.empty();
+        });
+
+        client.post().uri("/api/v1/blueprints/john/house/points").contentType(NDJSON)
+                .bodyValue("{\"x\":1,\"y\":2}\n{\"x\":3,\"y\":4}\n")
+                .exchange()
+                .expectStatus().isAccepted()
+                .expectBody().jsonPath("$.message").isEqualTo("2 points added successfully");
+
+        assertEquals(List.of(new Point(1, 2), new Point(3, 4)),
+                batches.stream().flatMap(List::stream).toList());
+    }
+
+    @Test
+    void streamPoints_returns400OnMalformedLine() {
+        when(services.addPoints(eq("john"), eq("house"), any())).thenReturn(Mono.empty());
+
+        client.post().uri("/api/v1/blueprints/john/house/points").contentType(NDJSON)
+                .bodyValue("{\"x\":1,\"y\":2}\nnot-json\n")
+                .exchange()
+                .expectStatus().isBadRequest()
+                .expectBody().jsonPath("$.code").isEqualTo(400);
+    }
+}
@@ -0,0 +1,67 @@
+package edu.eci.arsw.blueprints;
+
+import edu.eci.arsw.blueprints.filters.BlueprintsFilter;
+import edu.eci.arsw.blueprints.filters.BlueprintsFilterRegistry;
+import edu.eci.arsw.blueprints.filters.ParallelFilter;
+import edu.eci.arsw.blueprints.filters.RedundancyFilter;
+import edu.eci.arsw.blueprints.model.Blueprint;
+import edu.eci.arsw.blueprints.model.Point;
+import edu.eci.arsw.blueprints.persistence.ReactiveBlueprintPersistence;
+import edu.eci.arsw.blueprints.services.ReactiveBlueprintsServices;
+import org.junit.jupiter.api.Test;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ForkJoinPool;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+class ReactiveBlueprintsServicesTest {
+
+    private static final Blueprint HOUSE = new Blueprint("john", "house", List.of(new Point(1, 1), new Point(1, 1)));
+
+    @Test
+    void filters_runOffTheCallingThreadAndForkingOnesOnBoundedElastic() {
+        ReactiveBlueprintPersistence persistence = mock(ReactiveBlueprintPersistence.class);
+        List<Point> line = new ArrayList<>();
+        for (int i = 0; i < 10_000; i++) line.add(new Point(i, i));
+        Blueprint big = new Blueprint("john", "line", line);
+        when(persistence.getBlueprint("john", "house")).thenReturn(Mono.just(HOUSE));
+        when(persistence.getBlueprint("john", "line")).thenReturn(Mono.just(big));
+        when(persistence.getAllBlueprints()).thenReturn(Flux.just(HOUSE));
+        when(persistence.getBlueprintsPage(null, 2)).thenReturn(Flux.just(HOUSE));
+        List<String> threads = new CopyOnWriteArrayList<>();
+        BlueprintsFilter recording = new BlueprintsFilter() {
+            @Override
+            public Blueprint apply(Blueprint bp) {
+                threads.add(Thread.currentThread().getName());
+                return new RedundancyFilter().apply(bp);
+            }
+        };
+        ForkJoinPool pool = new ForkJoinPool(2);
+        try {
+            ReactiveBlueprintsServices services = new ReactiveBlueprintsServices(persistence,
+                    new BlueprintsFilterRegistry(Map.of("recording", recording,
+                            "forking", new ParallelFilter(new RedundancyFilter(), 1, pool)), "recording"));
+
+            assertEquals(1, services.getBlueprint("john", "house", null).block().getPoints().size());
+            assertEquals(1, services.getAllBlueprints(null).blockLast().getPoints().size());
+            assertEquals(1, services.getBlueprintsPage(null, 1, null).block().blueprints().get(0).getPoints().size());
+            assertEquals(3, threads.size(), threads::toString);
+            assertTrue(threads.stream().allMatch(t -> t.startsWith("parallel-")), threads::toString);
+
+            // Small blueprints stay on the parallel scheduler; one the pool splits into chunks leaves it
+            assertTrue(services.getBlueprint("john", "house", "forking").map(bp -> Thread.currentThread().getName())
+                    .block().startsWith("parallel-"));
+            assertTrue(services.getBlueprint("john", "line", "forking").map(bp -> Thread.currentThread().getName())
+                    .block().startsWith("boundedElastic-"));
+        } finally {
+            pool.shutdownNow();
+        }
+    }
+}
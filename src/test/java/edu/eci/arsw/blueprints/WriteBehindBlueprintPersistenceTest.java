@@ -0,0 +1,214 @@
+package edu.eci.arsw.blueprints;
+
+import edu.eci.arsw.blueprints.model.BlueprintBounds;
+import edu.eci.arsw.blueprints.model.BoundingBox;
+import edu.eci.arsw.blueprints.model.Point;
+import edu.eci.arsw.blueprints.model.PointsDelta;
+import edu.eci.arsw.blueprints.persistence.BlueprintNotFoundException;
+import edu.eci.arsw.blueprints.persistence.WriteBehindBlueprintPersistence;
+import edu.eci.arsw.blueprints.persistence.old.InMemoryBlueprintPersistence;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.dao.DataAccessResourceFailureException;
+import org.springframework.dao.OptimisticLockingFailureException;
+
+import java.io.RandomAccessFile;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+class WriteBehindBlueprintPersistenceTest {
+
+    private static final List<Point> HOUSE =
+            List.of(new Point(0, 0), new Point(10, 0), new Point(10, 10), new Point(0, 10));
+
+    @TempDir
+    Path logDir;
+
+    /** Without afterPropertiesSet there is no flusher thread: nothing is written until flush() or a restart. */
+    private static WriteBehindBlueprintPersistence buffer(InMemoryBlueprintPersistence store, String logDir,
+                                                          long maxPendingPoints) throws Exception {
+        return new WriteBehindBlueprintPersistence(store, logDir, 1 << 20, 5000, maxPendingPoints, 3_600_000);
+    }
+
+    @Test
+    void appends_areReadBeforeTheFlushAndWrittenInOneGroupCommit() throws Exception {
+        InMemoryBlueprintPersistence store = spy(new InMemoryBlueprintPersistence());
+        WriteBehindBlueprintPersistence wb = buffer(store, "", 100_000);
+
+        wb.addPoint("john", "house", 20, 20);
+        wb.addPoints("john", "house", List.of(new Point(21, 21), new Point(22, 22)));
+        wb.addPoints("john", "house", List.of(new Point(30, 40)), 2);
+        assertThrows(OptimisticLockingFailureException.class,
+                () -> wb.addPoints("john", "house", List.of(new Point(1, 1)), 2));
+        assertThrows(BlueprintNotFoundException.class, () -> wb.addPoint("ghost", "none", 1, 1));
+
+        // Nothing stored yet, but every read already sees the appends and the version they lead to
+        assertEquals(HOUSE, store.getBlueprint("john", "house").getPoints());
+        List<Point> all = List.of(new Point(0, 0), new Point(10, 0), new Point(10, 10), new Point(0, 10),
+                new Point(20, 20), new Point(21, 21), new Point(22, 22), new Point(30, 40));
+        assertEquals(all, wb.getBlueprint("john", "house").getPoints());
+        assertEquals(3, wb.getVersion("john", "house").version());
+        PointsDelta delta = wb.getPointsSince("john", "house", 5);
+        assertEquals(List.of(new Point(21, 21), new Point(22, 22), new Point(30, 40)), delta.points());
+        assertEquals(8, delta.total());
+        assertEquals(3, delta.version());
+        assertEquals(List.of(new BlueprintBounds("john", "house", new BoundingBox(0, 0, 30, 40))),
+                wb.findIntersecting(new BoundingBox(25, 35, 50, 50)));
+        assertEquals(List.of(new Point(30, 40)), wb.getPointsInside("john", "house", new BoundingBox(25, 35, 50, 50)));
+
+        wb.flush();
+
+        verify(store, times(1)).addPointBatches(eq("john"), eq("house"), anyList());
+        verify(store, never()).addPoints(any(), any(), anyCollection());
+        assertEquals(all, store.getBlueprint("john", "house").getPoints());
+        assertEquals(3, store.getVersion("john", "house").version());
+        assertEquals(all, wb.getBlueprint("john", "house").getPoints());
+        assertEquals(delta, wb.getPointsSince("john", "house", 5));
+    }
+
+    @Test
+    void enqueue_readsTheStoredStateOnlyForTheFirstAppend() throws Exception {
+        InMemoryBlueprintPersistence store = spy(new InMemoryBlueprintPersistence());
+        WriteBehindBlueprintPersistence wb = buffer(store, "", 100_000);
+
+        wb.addPoint("john", "house", 1, 1);
+        wb.flush();
+        wb.addPoint("john", "house", 2, 2);
+        wb.flush();
+        wb.addPoints("john", "house", List.of(new Point(3, 3)), 2);
+
+        // After a flush the buffer still knows the stored total and version
+        verify(store, times(1)).getPointsSince(eq("john"), eq("house"), anyInt());
+        assertEquals(3, wb.getVersion("john", "house").version());
+        assertEquals(7, wb.getBlueprint("john", "house").getPoints().size());
+    }
+
+    @Test
+    void replay_writesOnlyTheLoggedAppendsMissingFromStorage() throws Exception {
+        InMemoryBlueprintPersistence store = new InMemoryBlueprintPersistence();
+        WriteBehindBlueprintPersistence before = buffer(store, logDir.toString(), 100_000);
+        before.addPoint("john", "house", 1, 1);
+        before.flush();
+        before.addPoint("john", "house", 2, 2);
+        before.addPoints("jane", "garden", List.of(new Point(3, 3), new Point(4, 4)));
+        before.addPoint("john", "house", 5, 5);
+        // Crash: the first append is stored and still in the log, the other three only in the log
+
+        WriteBehindBlueprintPersistence after = buffer(store, logDir.toString(), 100_000);
+        after.afterPropertiesSet();
+        after.destroy();
+
+        assertEquals(List.of(new Point(0, 0), new Point(10, 0), new Point(10, 10), new Point(0, 10),
+                        new Point(1, 1), new Point(2, 2), new Point(5, 5)),
+                store.getBlueprint("john", "house").getPoints());
+        assertEquals(3, store.getVersion("john", "house").version());
+        assertEquals(List.of(new Point(2, 2), new Point(3, 4), new Point(6, 7), new Point(3, 3), new Point(4, 4)),
+                store.getBlueprint("jane", "garden").getPoints());
+        assertEquals(1, store.getVersion("jane", "garden").version());
+        try (Stream<Path> files = Files.list(logDir)) {
+            assertEquals(0, files.count());
+        }
+    }
+
+    @Test
+    void replay_recoversEveryAcknowledgedConcurrentAppend() throws Exception {
+        InMemoryBlueprintPersistence store = new InMemoryBlueprintPersistence();
+        // Small segments, so the concurrent appends also roll while others wait on a shared fsync
+        WriteBehindBlueprintPersistence before =
+                new WriteBehindBlueprintPersistence(store, logDir.toString(), 512, 5000, 100_000, 3_600_000);
+        List<String> names = List.of("house", "garage", "garden");
+        List<Thread> writers = new ArrayList<>();
+        for (String name : names) {
+            String author = name.equals("garden") ? "jane" : "john";
+            writers.add(Thread.ofPlatform().start(() -> {
+                for (int i = 0; i < 200; i++) {
+                    try {
+                        before.addPoint(author, name, i, i);
+                    } catch (BlueprintNotFoundException e) {
+                        throw new AssertionError(e);
+                    }
+                }
+            }));
+        }
+        for (Thread writer : writers) writer.join();
+        // Crash: every append was acknowledged, none was written to the store
+
+        WriteBehindBlueprintPersistence after = buffer(store, logDir.toString(), 100_000);
+        after.afterPropertiesSet();
+        after.destroy();
+
+        for (String name : names) {
+            String author = name.equals("garden") ? "jane" : "john";
+            List<Point> points = store.getBlueprint(author, name).getPoints();
+            List<Point> appended = points.subList(points.size() - 200, points.size());
+            for (int i = 0; i < 200; i++) assertEquals(new Point(i, i), appended.get(i));
+            assertEquals(200, store.getVersion(author, name).version());
+        }
+    }
+
+    @Test
+    void replay_discardsARecordTornByTheCrash() throws Exception {
+        InMemoryBlueprintPersistence store = new InMemoryBlueprintPersistence();
+        WriteBehindBlueprintPersistence before = buffer(store, logDir.toString(), 100_000);
+        before.addPoint("john", "garage", 1, 1);
+        before.addPoint("john", "garage", 2, 2);
+        Path segment;
+        try (Stream<Path> files = Files.list(logDir)) {
+            segment = files.findFirst().orElseThrow();
+        }
+        try (RandomAccessFile file = new RandomAccessFile(segment.toFile(), "rw")) {
+            file.setLength(file.length() - 3);
+        }
+
+        WriteBehindBlueprintPersistence after = buffer(store, logDir.toString(), 100_000);
+        after.afterPropertiesSet();
+        // New appends after the recovery go to a fresh segment and survive the next crash
+        after.addPoint("john", "garage", 3, 3);
+        WriteBehindBlueprintPersistence again = buffer(store, logDir.toString(), 100_000);
+        again.afterPropertiesSet();
+        again.destroy();
+
+        assertEquals(List.of(new Point(5, 5), new Point(15, 5), new Point(15, 15), new Point(1, 1), new Point(3, 3)),
+                store.getBlueprint("john", "garage").getPoints());
+        assertEquals(2, store.getVersion("john", "garage").version());
+    }
+
+    @Test
+    void enqueue_writesTheQueueItselfWhenItIsFull() throws Exception {
+        InMemoryBlueprintPersistence store = spy(new InMemoryBlueprintPersistence());
+        WriteBehindBlueprintPersistence wb = buffer(store, "", 3);
+
+        wb.addPoints("jane", "garden", List.of(new Point(7, 7), new Point(8, 8)));
+        verify(store, never()).addPointBatches(any(), any(), anyList());
+        wb.addPoints("jane", "garden", List.of(new Point(9, 9), new Point(10, 10)));
+
+        // The first batch was written by the second append before it was queued
+        verify(store, times(1)).addPointBatches(eq("jane"), eq("garden"), anyList());
+        assertEquals(5, store.getBlueprint("jane", "garden").getPoints().size());
+        assertEquals(7, wb.getBlueprint("jane", "garden").getPoints().size());
+        assertEquals(2, wb.getVersion("jane", "garden").version());
+    }
+
+    @Test
+    void enqueue_neverWritesOtherBlueprintsWhenTheQueueIsFull() throws Exception {
+        InMemoryBlueprintPersistence store = spy(new InMemoryBlueprintPersistence());
+        WriteBehindBlueprintPersistence wb = buffer(store, "", 3);
+
+        wb.addPoints("jane", "garden", List.of(new Point(7, 7), new Point(8, 8)));
+        assertThrows(DataAccessResourceFailureException.class,
+                () -> wb.addPoints("john", "garage", List.of(new Point(9, 9), new Point(10, 10))));
+
+        // The rejected caller may hold a cache stripe, so the other blueprint's queue is left to the flusher
+        verify(store, never()).addPointBatches(any(), any(), anyList());
+        assertEquals(5, wb.getBlueprint("jane", "garden").getPoints().size());
+        assertEquals(0, wb.getVersion("john", "garage").version());
+    }
+}